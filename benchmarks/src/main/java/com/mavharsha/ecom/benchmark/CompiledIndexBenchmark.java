@@ -0,0 +1,127 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.index.BitSetZipCodeIndex;
+import com.mavharsha.ecom.index.CompiledZipCodeIndex;
+import com.mavharsha.ecom.index.IZipCodeIndex;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.metrics.IShippingMetricsListener;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import com.mavharsha.ecom.service.SortMergeZipCodeRangeConsolidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled comparison tree against the generic indexes, {@value #lookupCount} lookups per invocation, for sets of
+ * exactly rangeCount consolidated ranges. Shows up to which size compiling pays off, directly and through
+ * {@link ShippingService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledIndexBenchmark {
+
+    static final int lookupCount = 1024;
+
+    @Param({"2", "8", "32", "128", "256"})
+    public int rangeCount;
+
+    private int[] zipCodes;
+    private IZipCodeIndex bitSetIndex;
+    private IZipCodeIndex rangeSetIndex;
+    private IZipCodeIndex compiledIndex;
+    private IShippingService shippingService;
+    private IShippingService compiledShippingService;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        int step = (ZipCode.maxCode - ZipCode.minCode + 1) / rangeCount;
+        List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>(rangeCount);
+        for (int range = 0; range < rangeCount; range++) {
+            int lowerRange = ZipCode.minCode + range * step + random.nextInt(step / 2);
+            listOfZipCodeRanges.add(new ZipCodeRange(lowerRange, lowerRange + random.nextInt(step / 2 - 1)));
+        }
+        zipCodes = ZipCodeRangeDataset.lookups(lookupCount, 7);
+        bitSetIndex = new BitSetZipCodeIndex(listOfZipCodeRanges);
+        rangeSetIndex = ZipCodeRangeSet.of(listOfZipCodeRanges);
+        compiledIndex = CompiledZipCodeIndex.compile(ZipCodeRangeSet.of(listOfZipCodeRanges));
+        shippingService = new ShippingService(() -> listOfZipCodeRanges);
+        compiledShippingService = new ShippingService(() -> listOfZipCodeRanges,
+                new SortMergeZipCodeRangeConsolidator(), IShippingMetricsListener.disabled,
+                zipCodeRanges -> CompiledZipCodeIndex.of(zipCodeRanges, CompiledZipCodeIndex.maxRangeCount));
+        shippingService.canBeShippedToZipCode(ZipCode.minCode);
+        compiledShippingService.canBeShippedToZipCode(ZipCode.minCode);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int bitSetIndex() {
+        return count(bitSetIndex);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int rangeSetIndex() {
+        return count(rangeSetIndex);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int compiledIndex() {
+        return count(compiledIndex);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int shippingService() throws IOException {
+        return count(shippingService);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int compiledShippingService() throws IOException {
+        return count(compiledShippingService);
+    }
+
+    private int count(IZipCodeIndex index) {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (index.contains(zipCode)) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+
+    private int count(IShippingService service) throws IOException {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (service.canBeShippedToZipCode(zipCode)) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+}
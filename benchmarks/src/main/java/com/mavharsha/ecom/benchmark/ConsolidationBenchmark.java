@@ -0,0 +1,75 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.IZipCodeRangeConsolidator;
+import com.mavharsha.ecom.service.ShippingService;
+import com.mavharsha.ecom.service.SortMergeZipCodeRangeConsolidator;
+import com.mavharsha.ecom.service.SweepZipCodeRangeConsolidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consolidation of unsorted, overlapping ranges.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsolidationBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int rangeCount;
+
+    @Param({"0.1", "0.9"})
+    public double overlapRatio;
+
+    @Param({"0.0", "0.8"})
+    public double clustering;
+
+    private List<ZipCodeRange> listOfZipCodeRanges;
+    private final IZipCodeRangeConsolidator sortMergeConsolidator = new SortMergeZipCodeRangeConsolidator();
+    private final IZipCodeRangeConsolidator sweepConsolidator = new SweepZipCodeRangeConsolidator();
+
+    @Setup
+    public void setUp() {
+        listOfZipCodeRanges = ZipCodeRangeDataset.generate(rangeCount, overlapRatio, clustering, 42);
+    }
+
+    @Benchmark
+    public List<ZipCodeRange> shippingServiceConsolidation() throws IOException {
+        IShippingService shippingService = new ShippingService(() -> listOfZipCodeRanges);
+        return shippingService.getConsolidatedShippableZipCodeRanges();
+    }
+
+    @Benchmark
+    public List<ZipCodeRange> sortMerge() {
+        return sortMergeConsolidator.consolidate(listOfZipCodeRanges);
+    }
+
+    @Benchmark
+    public List<ZipCodeRange> sweep() {
+        return sweepConsolidator.consolidate(listOfZipCodeRanges);
+    }
+
+    @Benchmark
+    public ZipCodeRangeSet packedSort() {
+        return ZipCodeRangeSet.of(listOfZipCodeRanges);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a JSON rules file by {@link FileZipCodeRangeDAO}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rangeCount;
+
+    @Param({"0.5"})
+    public double overlapRatio;
+
+    @Param({"0.5"})
+    public double clustering;
+
+    private Path filePath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        filePath = Files.createTempFile("zipcode-ranges", ".json");
+        ZipCodeRangeDataset.writeJson(ZipCodeRangeDataset.generate(rangeCount, overlapRatio, clustering, 42),
+                filePath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(filePath);
+    }
+
+    @Benchmark
+    public List<ZipCodeRange> readListOfZipCodeRanges() throws IOException {
+        return new FileZipCodeRangeDAO(filePath).getListOfZipCodeRanges();
+    }
+
+    @Benchmark
+    public ZipCodeRangeSet streamIntoBuilder() throws IOException {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder();
+        new FileZipCodeRangeDAO(filePath).readZipCodeRanges(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.index.BitSetZipCodeIndex;
+import com.mavharsha.ecom.index.IZipCodeIndex;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.metrics.ShippingMetrics;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import com.mavharsha.ecom.service.SortMergeZipCodeRangeConsolidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single zipCode lookups against consolidated ranges, {@value #lookupCount} lookups per invocation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    static final int lookupCount = 1024;
+
+    @Param({"10", "1000", "100000"})
+    public int rangeCount;
+
+    @Param({"0.5"})
+    public double overlapRatio;
+
+    @Param({"0.5"})
+    public double clustering;
+
+    private int[] zipCodes;
+    private List<ZipCodeRange> listOfShippableZipCodes;
+    private IShippingService shippingService;
+    private IShippingService meteredShippingService;
+    private IZipCodeIndex bitSetIndex;
+    private IZipCodeIndex rangeSetIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<ZipCodeRange> listOfZipCodeRanges = ZipCodeRangeDataset.generate(rangeCount, overlapRatio, clustering, 42);
+        zipCodes = ZipCodeRangeDataset.lookups(lookupCount, 7);
+        shippingService = new ShippingService(() -> listOfZipCodeRanges);
+        meteredShippingService = new ShippingService(() -> listOfZipCodeRanges,
+                new SortMergeZipCodeRangeConsolidator(), new ShippingMetrics());
+        listOfShippableZipCodes = shippingService.getConsolidatedShippableZipCodeRanges();
+        bitSetIndex = new BitSetZipCodeIndex(listOfShippableZipCodes);
+        rangeSetIndex = ZipCodeRangeSet.of(listOfShippableZipCodes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int linearScan() {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            ZipCode code = new ZipCode(zipCode);
+            for (int index = 0; index < listOfShippableZipCodes.size(); index++) {
+                if (listOfShippableZipCodes.get(index).isZipCodeInRange(code)) {
+                    shippable++;
+                    break;
+                }
+            }
+        }
+        return shippable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int shippingServiceWithZipCode() throws IOException {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (shippingService.canBeShippedToZipCode(new ZipCode(zipCode))) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int shippingServiceWithInt() throws IOException {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (shippingService.canBeShippedToZipCode(zipCode)) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int meteredShippingServiceWithInt() throws IOException {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (meteredShippingService.canBeShippedToZipCode(zipCode)) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int bitSetIndex() {
+        return count(bitSetIndex);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lookupCount)
+    public int rangeSetIndex() {
+        return count(rangeSetIndex);
+    }
+
+    private int count(IZipCodeIndex index) {
+        int shippable = 0;
+        for (int zipCode : zipCodes) {
+            if (index.contains(zipCode)) {
+                shippable++;
+            }
+        }
+        return shippable;
+    }
+}
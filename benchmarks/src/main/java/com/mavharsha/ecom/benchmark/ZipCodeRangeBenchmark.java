@@ -0,0 +1,39 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZipCodeRange} primitives used by the sort and merge consolidation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZipCodeRangeBenchmark {
+
+    private final ZipCodeRange zipCodeRange = new ZipCodeRange(94200, 94299);
+    private final ZipCodeRange overlappingZipCodeRange = new ZipCodeRange(94226, 94399);
+
+    @Benchmark
+    public int compareTo() {
+        return zipCodeRange.compareTo(overlappingZipCodeRange);
+    }
+
+    @Benchmark
+    public ZipCodeRange mergeRange() {
+        return zipCodeRange.mergeRange(overlappingZipCodeRange);
+    }
+}
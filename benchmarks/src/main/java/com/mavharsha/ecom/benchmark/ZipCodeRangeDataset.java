@@ -0,0 +1,85 @@
+package com.mavharsha.ecom.benchmark;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic ranges shared by the benchmarks.
+ */
+final class ZipCodeRangeDataset {
+
+    /* ZIP3 prefixes of a few dense metro areas */
+    private static final int[] metroPrefixes = {100, 112, 606, 750, 770, 900, 941, 981};
+
+    private ZipCodeRangeDataset() {}
+
+    /**
+     * @param rangeCount number of ranges
+     * @param overlapRatio share of ranges starting inside the previous one, 0 to 1
+     * @param clustering share of ranges placed in metro prefixes, 0 to 1
+     * @param seed seed of the generator
+     * @return ranges in random order
+     */
+    static List<ZipCodeRange> generate(int rangeCount, double overlapRatio, double clustering, long seed) {
+        Random random = new Random(seed);
+        List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>(rangeCount);
+        int previousLower = ZipCode.minCode;
+        int previousUpper = ZipCode.minCode;
+        for (int index = 0; index < rangeCount; index++) {
+            int lower;
+            if (index > 0 && random.nextDouble() < overlapRatio) {
+                lower = previousLower + random.nextInt(previousUpper - previousLower + 1);
+            } else if (random.nextDouble() < clustering) {
+                lower = metroPrefixes[random.nextInt(metroPrefixes.length)] * 100 + random.nextInt(100);
+            } else {
+                lower = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+            }
+            int upper = Math.min(ZipCode.maxCode, lower + (random.nextInt(4) == 0 ? random.nextInt(500) : random.nextInt(5)));
+            listOfZipCodeRanges.add(new ZipCodeRange(lower, upper));
+            previousLower = lower;
+            previousUpper = upper;
+        }
+        return listOfZipCodeRanges;
+    }
+
+    /**
+     * @param count number of zipCodes
+     * @param seed seed of the generator
+     * @return valid zipCodes, half of them in metro prefixes
+     */
+    static int[] lookups(int count, long seed) {
+        Random random = new Random(seed);
+        int[] zipCodes = new int[count];
+        for (int index = 0; index < count; index++) {
+            zipCodes[index] = random.nextBoolean()
+                    ? metroPrefixes[random.nextInt(metroPrefixes.length)] * 100 + random.nextInt(100)
+                    : ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+        }
+        return zipCodes;
+    }
+
+    /**
+     * Writes ranges in the format of ListOfShippingZipCodeRanges.json.
+     */
+    static void writeJson(List<ZipCodeRange> listOfZipCodeRanges, Path filePath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            writer.write('[');
+            for (int index = 0; index < listOfZipCodeRanges.size(); index++) {
+                ZipCodeRange zipCodeRange = listOfZipCodeRanges.get(index);
+                writer.write(index == 0 ? "\n" : ",\n");
+                writer.write("  {\"lowerRange\": {\"code\": " + zipCodeRange.getLowerRange().getCode()
+                        + "}, \"upperRange\": {\"code\": " + zipCodeRange.getUpperRange().getCode() + "}}");
+            }
+            writer.write("\n]\n");
+        }
+    }
+}
@@ -1,17 +1,59 @@
 package com.mavharsha.ecom;
 
-import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.batch.BatchReport;
+import com.mavharsha.ecom.batch.ZipCodeBatchProcessor;
+import com.mavharsha.ecom.http.ShippingHttpServer;
 import com.mavharsha.ecom.model.ZipCodeRange;
 import com.mavharsha.ecom.service.IShippingService;
 import com.mavharsha.ecom.service.ShippingService;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Scanner;
 
 public class MainApplication {
 
+    private static final String batchOption = "--batch";
+    private static final String serveOption = "--serve";
+    private static final String standardStream = "-";
+
     public static void main(String[] args) {
         IShippingService shippingService = new ShippingService();
+        if (args.length > 0 && batchOption.equals(args[0])) {
+            if (args.length != 3) {
+                System.err.println("Usage: " + batchOption + " <input file|-> <output file|->");
+                System.exit(2);
+            }
+            try {
+                runBatch(shippingService, args[1], args[2]);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length > 0 && serveOption.equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            ShippingHttpServer.enableNoDelay();
+            try {
+                ShippingHttpServer server = new ShippingHttpServer(shippingService, new InetSocketAddress(port));
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                server.start();
+                System.err.println("Listening on port " + server.getPort());
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         System.out.println("Based on the inputs in resources/ListOfShippingZipCodeRanges.json, the following ranges " +
                 "are consolidate shippable ranges:");
@@ -29,7 +71,7 @@ public class MainApplication {
         int input;
         while((input = scanner.nextInt()) > 0) {
             try {
-                if(shippingService.canBeShippedToZipCode(new ZipCode(input))) {
+                if(shippingService.canBeShippedToZipCode(input)) {
                     System.out.println("Yes! Can be shipped to " + input);
                 } else {
                     System.out.println("Nope! Cannot be shipped to " + input);
@@ -39,4 +81,28 @@ public class MainApplication {
             }
         }
     }
+
+    /**
+     * Screens a file, or stdin, of zipCodes and writes the verdicts to a file, or stdout. The summary goes to
+     * stderr so that it never mixes with the verdicts.
+     */
+    private static void runBatch(IShippingService shippingService, String inputName, String outputName)
+            throws IOException {
+        ReadableByteChannel input = standardStream.equals(inputName) ? Channels.newChannel(System.in)
+                : FileChannel.open(Paths.get(inputName), StandardOpenOption.READ);
+        WritableByteChannel output = standardStream.equals(outputName) ? Channels.newChannel(System.out)
+                : FileChannel.open(Paths.get(outputName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        BatchReport report;
+        try {
+            report = new ZipCodeBatchProcessor(shippingService).process(input, output);
+        } finally {
+            input.close();
+            output.close();
+        }
+        System.err.printf("Screened %d zipCodes (%d shippable, %d not shippable, %d invalid) in %.3f s, "
+                        + "%.0f zipCodes/s%n", report.getZipCodeCount(), report.getShippableCount(),
+                report.getNotShippableCount(), report.getInvalidCount(), report.getElapsedNanos() / 1e9,
+                report.getZipCodesPerSecond());
+    }
 }
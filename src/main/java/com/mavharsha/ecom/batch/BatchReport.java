@@ -0,0 +1,56 @@
+package com.mavharsha.ecom.batch;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link ZipCodeBatchProcessor} run.
+ */
+@ToString
+@EqualsAndHashCode
+public class BatchReport {
+
+    private final long zipCodeCount;
+    private final long shippableCount;
+    private final long invalidCount;
+    private final long elapsedNanos;
+
+    public BatchReport(long zipCodeCount, long shippableCount, long invalidCount, long elapsedNanos) {
+        this.zipCodeCount = zipCodeCount;
+        this.shippableCount = shippableCount;
+        this.invalidCount = invalidCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getZipCodeCount() {
+        return zipCodeCount;
+    }
+
+    public long getShippableCount() {
+        return shippableCount;
+    }
+
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+    /**
+     * @return valid zipCodes that cannot be shipped to
+     */
+    public long getNotShippableCount() {
+        return zipCodeCount - shippableCount - invalidCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return zipCodes read, evaluated and written per second
+     */
+    public double getZipCodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : zipCodeCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
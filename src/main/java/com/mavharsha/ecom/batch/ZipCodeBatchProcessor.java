@@ -0,0 +1,233 @@
+package com.mavharsha.ecom.batch;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.service.IShippingService;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Screens a stream of zipCodes against an {@link IShippingService}. Reading, evaluation and writing run on
+ * their own threads and hand a fixed pool of {@link ZipCodeChunk}s to each other, so the disk and the lookups
+ * overlap and nothing is allocated per zipCode.
+ * <p>
+ * The input holds decimal zipCodes separated by whitespace or commas. Each one is written back on its own line,
+ * in input order, as {@code <zipCode>,SHIPPABLE}, {@code <zipCode>,NOT_SHIPPABLE} or {@code <zipCode>,INVALID},
+ * the zipCode padded with leading zeros to five digits like {@code %05d}, so 02134 is written back as 02134.
+ * Tokens that are not made of digits only are written as {@code ?,INVALID}.
+ */
+public class ZipCodeBatchProcessor {
+
+    public static final int defaultChunkSize = 1 << 18;
+    public static final int defaultBufferSize = 1 << 20;
+
+    /* chunks in flight between the three stages */
+    private static final int pipelineDepth = 4;
+    /* tokens longer than this cannot be a zipCode and would overflow an int */
+    private static final int maxTokenDigits = 9;
+    private static final int maxLineLength = 32;
+    private static final int zipCodeDigits = 5;
+
+    public static final String errorChunkSize = "Chunk size should be positive.";
+    public static final String errorBufferSize = "Buffer size should be at least " + maxLineLength + " bytes.";
+
+    private static final byte[] shippableStatus = ",SHIPPABLE\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] notShippableStatus = ",NOT_SHIPPABLE\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] invalidStatus = ",INVALID\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final IShippingService shippingService;
+    private final int chunkSize;
+    private final int bufferSize;
+
+    public ZipCodeBatchProcessor(@NonNull IShippingService shippingService) {
+        this(shippingService, defaultChunkSize, defaultBufferSize);
+    }
+
+    /**
+     * @param shippingService service the zipCodes are screened against
+     * @param chunkSize zipCodes evaluated at once
+     * @param bufferSize bytes read or written per channel call
+     */
+    public ZipCodeBatchProcessor(@NonNull IShippingService shippingService, int chunkSize, int bufferSize) {
+        Preconditions.checkArgument(chunkSize > 0, errorChunkSize);
+        Preconditions.checkArgument(bufferSize >= maxLineLength, errorBufferSize);
+        this.shippingService = shippingService;
+        this.chunkSize = chunkSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Screens every zipCode of the input. The channels are left open.
+     *
+     * @param input zipCodes to screen
+     * @param output one line per zipCode, in input order
+     * @return counts and throughput of the run
+     * @throws IOException if the input cannot be read, the output cannot be written or the rules cannot be loaded
+     */
+    public BatchReport process(@NonNull ReadableByteChannel input, @NonNull WritableByteChannel output)
+            throws IOException {
+        BlockingQueue<ZipCodeChunk> freeChunks = new ArrayBlockingQueue<>(pipelineDepth);
+        BlockingQueue<ZipCodeChunk> parsedChunks = new ArrayBlockingQueue<>(pipelineDepth + 1);
+        BlockingQueue<ZipCodeChunk> evaluatedChunks = new ArrayBlockingQueue<>(pipelineDepth + 1);
+        for (int index = 0; index < pipelineDepth; index++) {
+            freeChunks.add(new ZipCodeChunk(chunkSize));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3, new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-batch-%d").setDaemon(true).build());
+        CompletionService<BatchReport> stages = new ExecutorCompletionService<>(executor);
+        long start = System.nanoTime();
+        stages.submit(() -> read(input, freeChunks, parsedChunks));
+        stages.submit(() -> evaluate(parsedChunks, evaluatedChunks));
+        Future<BatchReport> writer = stages.submit(() -> write(output, evaluatedChunks, freeChunks, start));
+        try {
+            for (int stage = 0; stage < 3; stage++) {
+                stages.take().get();
+            }
+            return writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while screening zipCodes.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            /* a failed stage leaves its neighbours blocked on the queues */
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchReport read(ReadableByteChannel input, BlockingQueue<ZipCodeChunk> freeChunks,
+                             BlockingQueue<ZipCodeChunk> parsedChunks) throws IOException, InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        ZipCodeChunk chunk = takeEmpty(freeChunks);
+        int value = 0;
+        int digits = 0;
+        boolean malformed = false;
+        while (input.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte character = buffer.get();
+                if (character >= '0' && character <= '9') {
+                    value = value * 10 + (character - '0');
+                    malformed |= ++digits > maxTokenDigits;
+                } else if (character == '\n' || character == ',' || character == ' ' || character == '\r'
+                        || character == '\t') {
+                    if (digits > 0 || malformed) {
+                        chunk.zipCodes[chunk.count++] = malformed ? ZipCodeChunk.malformedCode : value;
+                        value = 0;
+                        digits = 0;
+                        malformed = false;
+                        if (chunk.isFull()) {
+                            parsedChunks.put(chunk);
+                            chunk = takeEmpty(freeChunks);
+                        }
+                    }
+                } else {
+                    malformed = true;
+                }
+            }
+            buffer.clear();
+        }
+        if (digits > 0 || malformed) {
+            chunk.zipCodes[chunk.count++] = malformed ? ZipCodeChunk.malformedCode : value;
+        }
+        if (chunk.count > 0) {
+            parsedChunks.put(chunk);
+        }
+        parsedChunks.put(ZipCodeChunk.endOfInput);
+        return null;
+    }
+
+    private BatchReport evaluate(BlockingQueue<ZipCodeChunk> parsedChunks,
+                                 BlockingQueue<ZipCodeChunk> evaluatedChunks) throws IOException,
+            InterruptedException {
+        ZipCodeChunk chunk;
+        while ((chunk = parsedChunks.take()) != ZipCodeChunk.endOfInput) {
+            shippingService.canBeShippedToZipCodes(chunk.getFilledZipCodes(), chunk.shippable, chunk.invalid, true);
+            evaluatedChunks.put(chunk);
+        }
+        evaluatedChunks.put(ZipCodeChunk.endOfInput);
+        return null;
+    }
+
+    private BatchReport write(WritableByteChannel output, BlockingQueue<ZipCodeChunk> evaluatedChunks,
+                              BlockingQueue<ZipCodeChunk> freeChunks, long start)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        byte[] digits = new byte[maxTokenDigits];
+        long zipCodeCount = 0;
+        long shippableCount = 0;
+        long invalidCount = 0;
+        ZipCodeChunk chunk;
+        while ((chunk = evaluatedChunks.take()) != ZipCodeChunk.endOfInput) {
+            for (int position = 0; position < chunk.count; position++) {
+                if (buffer.remaining() < maxLineLength) {
+                    flush(output, buffer);
+                }
+                putCode(buffer, chunk.zipCodes[position], digits);
+                if (chunk.invalid[position]) {
+                    buffer.put(invalidStatus);
+                    invalidCount++;
+                } else if (chunk.shippable[position]) {
+                    buffer.put(shippableStatus);
+                    shippableCount++;
+                } else {
+                    buffer.put(notShippableStatus);
+                }
+            }
+            zipCodeCount += chunk.count;
+            freeChunks.put(chunk);
+        }
+        flush(output, buffer);
+        return new BatchReport(zipCodeCount, shippableCount, invalidCount, System.nanoTime() - start);
+    }
+
+    private static ZipCodeChunk takeEmpty(BlockingQueue<ZipCodeChunk> freeChunks) throws InterruptedException {
+        ZipCodeChunk chunk = freeChunks.take();
+        chunk.count = 0;
+        return chunk;
+    }
+
+    private static void putCode(ByteBuffer buffer, int code, byte[] digits) {
+        if (code == ZipCodeChunk.malformedCode) {
+            buffer.put((byte) '?');
+            return;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + code % 10);
+            code /= 10;
+        } while (code > 0);
+        while (length < zipCodeDigits) {
+            digits[length++] = '0';
+        }
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    private static void flush(WritableByteChannel output, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mavharsha.ecom.batch;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of parsed zipCodes and their lookup results, handed from the reader to the evaluator and on to
+ * the writer. A chunk is owned by one stage at a time, so it needs no synchronization of its own.
+ */
+final class ZipCodeChunk {
+
+    /* marks the end of the input; never carries zipCodes */
+    static final ZipCodeChunk endOfInput = new ZipCodeChunk(0);
+
+    /* stands for a token that is not made of digits only */
+    static final int malformedCode = -1;
+
+    final int[] zipCodes;
+    final boolean[] shippable;
+    final boolean[] invalid;
+    int count;
+
+    ZipCodeChunk(int capacity) {
+        this.zipCodes = new int[capacity];
+        this.shippable = new boolean[capacity];
+        this.invalid = new boolean[capacity];
+    }
+
+    boolean isFull() {
+        return count == zipCodes.length;
+    }
+
+    /**
+     * @return the parsed zipCodes, copied only for the last, partly filled chunk
+     */
+    int[] getFilledZipCodes() {
+        return isFull() ? zipCodes : Arrays.copyOf(zipCodes, count);
+    }
+}
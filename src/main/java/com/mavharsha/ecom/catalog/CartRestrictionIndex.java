@@ -0,0 +1,190 @@
+package com.mavharsha.ecom.catalog;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from ZIP3 prefix to the items restricted in that prefix, used to evaluate a whole cart with one
+ * probe. For every prefix the index holds two sorted arrays of item ordinals: items restricted across the whole
+ * prefix, and items restricted in part of it, which are then checked against their own {@link ZipCodeRangeSet}.
+ * The cost of a probe grows with the size of the cart, not with the number of rules. The index is an immutable
+ * snapshot of a catalog; build a new one when restrictions change.
+ */
+public class CartRestrictionIndex {
+
+    private static final int prefixCount = ZipCode.maxPrefix - ZipCode.minPrefix + 1;
+    private static final int[] noItems = new int[0];
+
+    private final Map<String, Integer> ordinalsByItemId;
+    private final ZipCodeRangeSet[] restrictionsByOrdinal;
+    private final int[][] fullyRestrictedOrdinalsByPrefix;
+    private final int[][] partiallyRestrictedOrdinalsByPrefix;
+
+    private CartRestrictionIndex(Map<String, Integer> ordinalsByItemId, ZipCodeRangeSet[] restrictionsByOrdinal,
+                                 int[][] fullyRestrictedOrdinalsByPrefix, int[][] partiallyRestrictedOrdinalsByPrefix) {
+        this.ordinalsByItemId = ordinalsByItemId;
+        this.restrictionsByOrdinal = restrictionsByOrdinal;
+        this.fullyRestrictedOrdinalsByPrefix = fullyRestrictedOrdinalsByPrefix;
+        this.partiallyRestrictedOrdinalsByPrefix = partiallyRestrictedOrdinalsByPrefix;
+    }
+
+    /**
+     * @param catalog restrictions of every item
+     * @return index over the current content of catalog
+     */
+    public static CartRestrictionIndex of(@NonNull IRestrictionCatalog catalog) {
+        Map<String, Integer> ordinalsByItemId = new HashMap<>();
+        ZipCodeRangeSet[] restrictionsByOrdinal = new ZipCodeRangeSet[catalog.getItemIds().size()];
+        OrdinalList[] fullyRestricted = new OrdinalList[prefixCount];
+        OrdinalList[] partiallyRestricted = new OrdinalList[prefixCount];
+        /* interned sets are shared by many items, so each distinct set is classified once */
+        Map<ZipCodeRangeSet, PrefixCoverage> coverageBySet = new IdentityHashMap<>();
+
+        int ordinal = 0;
+        for (String itemId : catalog.getItemIds()) {
+            ZipCodeRangeSet restrictions = catalog.getRestrictions(itemId);
+            if (ordinal == restrictionsByOrdinal.length) {
+                restrictionsByOrdinal = Arrays.copyOf(restrictionsByOrdinal, ordinal * 2 + 1);
+            }
+            ordinalsByItemId.put(itemId, ordinal);
+            restrictionsByOrdinal[ordinal] = restrictions;
+
+            PrefixCoverage coverage = coverageBySet.get(restrictions);
+            if (coverage == null) {
+                coverage = new PrefixCoverage(restrictions);
+                coverageBySet.put(restrictions, coverage);
+            }
+            for (int prefix : coverage.fullPrefixes) {
+                add(fullyRestricted, prefix, ordinal);
+            }
+            for (int prefix : coverage.partialPrefixes) {
+                add(partiallyRestricted, prefix, ordinal);
+            }
+            ordinal++;
+        }
+        return new CartRestrictionIndex(ordinalsByItemId, Arrays.copyOf(restrictionsByOrdinal, ordinal),
+                toArrays(fullyRestricted), toArrays(partiallyRestricted));
+    }
+
+    /**
+     * @param cartItemIds identifiers of the items in the cart
+     * @param zipCode A 5 digit positive integer
+     * @return positions in cartItemIds of the items that cannot be shipped to zipCode
+     */
+    public BitSet getBlockedItems(@NonNull List<String> cartItemIds, int zipCode) {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        int prefixOffset = ZipCode.prefixOf(zipCode) - ZipCode.minPrefix;
+        int[] fullyRestrictedOrdinals = fullyRestrictedOrdinalsByPrefix[prefixOffset];
+        int[] partiallyRestrictedOrdinals = partiallyRestrictedOrdinalsByPrefix[prefixOffset];
+        BitSet blockedItems = new BitSet(cartItemIds.size());
+        if (fullyRestrictedOrdinals.length == 0 && partiallyRestrictedOrdinals.length == 0) {
+            return blockedItems;
+        }
+        for (int position = 0; position < cartItemIds.size(); position++) {
+            Integer ordinal = ordinalsByItemId.get(cartItemIds.get(position));
+            if (ordinal == null) {
+                continue;
+            }
+            if (Arrays.binarySearch(fullyRestrictedOrdinals, ordinal) >= 0
+                    || (Arrays.binarySearch(partiallyRestrictedOrdinals, ordinal) >= 0
+                    && restrictionsByOrdinal[ordinal].contains(zipCode))) {
+                blockedItems.set(position);
+            }
+        }
+        return blockedItems;
+    }
+
+    /**
+     * @return number of indexed items
+     */
+    public int size() {
+        return restrictionsByOrdinal.length;
+    }
+
+    private static void add(OrdinalList[] ordinalsByPrefix, int prefix, int ordinal) {
+        int prefixOffset = prefix - ZipCode.minPrefix;
+        if (ordinalsByPrefix[prefixOffset] == null) {
+            ordinalsByPrefix[prefixOffset] = new OrdinalList();
+        }
+        ordinalsByPrefix[prefixOffset].add(ordinal);
+    }
+
+    private static int[][] toArrays(OrdinalList[] ordinalsByPrefix) {
+        int[][] arrays = new int[ordinalsByPrefix.length][];
+        for (int index = 0; index < ordinalsByPrefix.length; index++) {
+            arrays[index] = ordinalsByPrefix[index] == null ? noItems : ordinalsByPrefix[index].toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * Prefixes touched by a set of ranges, split into fully and partially covered ones.
+     */
+    private static final class PrefixCoverage {
+
+        private final int[] fullPrefixes;
+        private final int[] partialPrefixes;
+
+        private PrefixCoverage(ZipCodeRangeSet restrictions) {
+            OrdinalList full = new OrdinalList();
+            OrdinalList partial = new OrdinalList();
+            int currentPrefix = -1;
+            int coveredInPrefix = 0;
+            for (int index = 0; index < restrictions.size(); index++) {
+                int lower = restrictions.lowerAt(index);
+                int upper = restrictions.upperAt(index);
+                for (int prefix = ZipCode.prefixOf(lower); prefix <= ZipCode.prefixOf(upper); prefix++) {
+                    if (prefix != currentPrefix) {
+                        classify(currentPrefix, coveredInPrefix, full, partial);
+                        currentPrefix = prefix;
+                        coveredInPrefix = 0;
+                    }
+                    coveredInPrefix += Math.min(upper, prefix * 100 + 99) - Math.max(lower, prefix * 100) + 1;
+                }
+            }
+            classify(currentPrefix, coveredInPrefix, full, partial);
+            this.fullPrefixes = full.toArray();
+            this.partialPrefixes = partial.toArray();
+        }
+
+        private static void classify(int prefix, int coveredInPrefix, OrdinalList full, OrdinalList partial) {
+            if (prefix < 0) {
+                return;
+            }
+            if (coveredInPrefix == 100) {
+                full.add(prefix);
+            } else {
+                partial.add(prefix);
+            }
+        }
+    }
+
+    /**
+     * Growable int array, appended in increasing order.
+     */
+    private static final class OrdinalList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import lombok.NonNull;
+
+import java.util.Set;
+
+public interface IRestrictionCatalog {
+
+    /**
+     * @param itemId identifier of the item
+     * @param zipCode A 5 digit positive integer
+     * @return true if none of the item's restricted ranges contains zipCode, else false
+     */
+    boolean canShip(@NonNull String itemId, int zipCode);
+
+    /**
+     * @param itemId identifier of the item
+     * @return consolidated ranges the item cannot be shipped to, empty when the item is not restricted
+     */
+    ZipCodeRangeSet getRestrictions(@NonNull String itemId);
+
+    /**
+     * @return identifiers of every restricted item
+     */
+    Set<String> getItemIds();
+}
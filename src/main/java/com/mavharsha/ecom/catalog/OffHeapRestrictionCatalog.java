@@ -0,0 +1,322 @@
+package com.mavharsha.ecom.catalog;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable {@link IRestrictionCatalog} held outside the Java heap, in a single direct or file mapped
+ * {@link ByteBuffer}, so that the heap it uses does not grow with the number of items and the collector never
+ * scans it. Built by an {@link OffHeapRestrictionCatalogBuilder}, it can be written to disk and mapped back.
+ * <pre>
+ * header : magic | version | itemCount | setCount | slotCount | rangeCount | keyLength | reserved (ints)
+ *          | crc32 of everything after the header (long)
+ * slots  : slotCount x (item ordinal + 1, 0 when free), an open addressing table over the item hashes
+ * items  : itemCount x (hash of the itemId | offset of its UTF-8 key | key length | set ordinal)
+ * sets   : setCount x (first range ordinal | range count), identical sets stored once
+ * ranges : rangeCount x (lowerRange | upperRange), sorted and consolidated within each set
+ * keys   : keyLength bytes of UTF-8 itemIds
+ * </pre>
+ * Lookups hash the itemId, compare it against the stored key and binary search the ranges in place; they do not
+ * allocate for ASCII itemIds. Reads use absolute positions only, so the catalog is safe to share between threads.
+ */
+public final class OffHeapRestrictionCatalog implements IRestrictionCatalog {
+
+    public static final int magic = 0x5A524354;
+    public static final int version = 1;
+    public static final int headerSize = 40;
+
+    public static final String errorNotACatalog = "File is not a restriction catalog.";
+    public static final String errorUnsupportedVersion = "Unsupported restriction catalog version.";
+    public static final String errorCorruptedCatalog = "Restriction catalog is corrupted.";
+
+    static final int slotSize = 4;
+    static final int itemSize = 16;
+    static final int setSize = 8;
+    static final int rangeSize = 8;
+
+    private final ByteBuffer buffer;
+    private final int itemCount;
+    private final int setCount;
+    private final int slotMask;
+    private final int itemsOffset;
+    private final int setsOffset;
+    private final int rangesOffset;
+    private final int keysOffset;
+
+    /**
+     * @param buffer complete catalog, header included, as laid out by {@link OffHeapRestrictionCatalogBuilder}
+     * @throws IllegalArgumentException when the buffer is not a valid catalog
+     */
+    OffHeapRestrictionCatalog(ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.capacity() >= headerSize && buffer.getInt(0) == magic, errorNotACatalog);
+        Preconditions.checkArgument(buffer.getInt(4) == version, errorUnsupportedVersion);
+        this.buffer = buffer;
+        this.itemCount = buffer.getInt(8);
+        this.setCount = buffer.getInt(12);
+        int slotCount = buffer.getInt(16);
+        int rangeCount = buffer.getInt(20);
+        int keyLength = buffer.getInt(24);
+        Preconditions.checkArgument(itemCount >= 0 && setCount >= 0 && rangeCount >= 0 && keyLength >= 0
+                && Integer.bitCount(slotCount) == 1 && slotCount > itemCount, errorCorruptedCatalog);
+        long size = layoutSize(itemCount, setCount, slotCount, rangeCount, keyLength);
+        Preconditions.checkArgument(size == buffer.capacity(), errorCorruptedCatalog);
+        this.slotMask = slotCount - 1;
+        this.itemsOffset = headerSize + slotCount * slotSize;
+        this.setsOffset = itemsOffset + itemCount * itemSize;
+        this.rangesOffset = setsOffset + setCount * setSize;
+        this.keysOffset = rangesOffset + rangeCount * rangeSize;
+    }
+
+    /**
+     * Maps a catalog written by {@link #write(Path)} and verifies its checksum.
+     * @param filePath location of the catalog
+     * @return the catalog, served off the mapped file
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid catalog
+     */
+    public static OffHeapRestrictionCatalog open(@NonNull Path filePath) throws IOException {
+        return open(filePath, true);
+    }
+
+    /**
+     * @param filePath location of the catalog
+     * @param verifyChecksum false to skip reading the whole file on open
+     * @return the catalog, served off the mapped file
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid catalog
+     */
+    public static OffHeapRestrictionCatalog open(@NonNull Path filePath, boolean verifyChecksum) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() >= headerSize, errorNotACatalog);
+            Preconditions.checkArgument(channel.size() <= Integer.MAX_VALUE, errorCorruptedCatalog);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        OffHeapRestrictionCatalog catalog = new OffHeapRestrictionCatalog(buffer);
+        if (verifyChecksum) {
+            Preconditions.checkArgument(buffer.getLong(32) == checksum(buffer), errorCorruptedCatalog);
+        }
+        return catalog;
+    }
+
+    /**
+     * Writes the catalog to a temporary file and moves it into place, so readers never see a partial file.
+     * @param filePath destination of the catalog, replaced if it exists
+     * @throws IOException when the file cannot be written
+     */
+    public void write(@NonNull Path filePath) throws IOException {
+        ByteBuffer content = buffer.duplicate();
+        content.clear();
+        Path temporaryPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public boolean canShip(@NonNull String itemId, int zipCode) {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        int ordinal = ordinalOf(itemId);
+        if (ordinal < 0) {
+            return true;
+        }
+        int set = setsOffset + buffer.getInt(itemsOffset + ordinal * itemSize + 12) * setSize;
+        int low = buffer.getInt(set);
+        int high = low + buffer.getInt(set + 4) - 1;
+        /* last range whose lower bound is not above zipCode */
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getInt(rangesOffset + middle * rangeSize) <= zipCode) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high < buffer.getInt(set) || buffer.getInt(rangesOffset + high * rangeSize + 4) < zipCode;
+    }
+
+    @Override
+    public ZipCodeRangeSet getRestrictions(@NonNull String itemId) {
+        int ordinal = ordinalOf(itemId);
+        if (ordinal < 0) {
+            return ZipCodeRangeSet.empty();
+        }
+        int set = setsOffset + buffer.getInt(itemsOffset + ordinal * itemSize + 12) * setSize;
+        int first = buffer.getInt(set);
+        int[] lows = new int[buffer.getInt(set + 4)];
+        int[] highs = new int[lows.length];
+        for (int index = 0; index < lows.length; index++) {
+            lows[index] = buffer.getInt(rangesOffset + (first + index) * rangeSize);
+            highs[index] = buffer.getInt(rangesOffset + (first + index) * rangeSize + 4);
+        }
+        return ZipCodeRangeSet.ofConsolidated(lows, highs);
+    }
+
+    /**
+     * @return view of the itemIds, decoded from the buffer while iterating
+     */
+    @Override
+    public Set<String> getItemIds() {
+        return new AbstractSet<String>() {
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+
+                    private int ordinal;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ordinal < itemCount;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return keyOf(ordinal++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return itemCount;
+            }
+
+            @Override
+            public boolean contains(Object itemId) {
+                return itemId instanceof String && ordinalOf((String) itemId) >= 0;
+            }
+        };
+    }
+
+    /**
+     * @return number of restricted items
+     */
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * @return number of distinct restriction sets, shared by the items that have the same restrictions
+     */
+    public int getDistinctSetCount() {
+        return setCount;
+    }
+
+    /**
+     * @return off-heap bytes held by the catalog
+     */
+    public int getSizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return read-only view of the whole catalog, header included
+     */
+    ByteBuffer getBuffer() {
+        ByteBuffer content = buffer.asReadOnlyBuffer();
+        content.clear();
+        return content;
+    }
+
+    static long layoutSize(int itemCount, int setCount, int slotCount, int rangeCount, int keyLength) {
+        return headerSize + (long) slotCount * slotSize + (long) itemCount * itemSize + (long) setCount * setSize
+                + (long) rangeCount * rangeSize + keyLength;
+    }
+
+    /**
+     * @return first slot probed for the hash, spreading the high bits like {@link java.util.HashMap} does
+     */
+    static int slotOf(int hash, int slotMask) {
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+
+    static long checksum(ByteBuffer catalog) {
+        ByteBuffer content = catalog.duplicate();
+        content.clear();
+        content.position(headerSize);
+        CRC32 crc32 = new CRC32();
+        crc32.update(content);
+        return crc32.getValue();
+    }
+
+    private int ordinalOf(String itemId) {
+        int hash = itemId.hashCode();
+        for (int slot = slotOf(hash, slotMask); ; slot = (slot + 1) & slotMask) {
+            int entry = buffer.getInt(headerSize + slot * slotSize);
+            if (entry == 0) {
+                return -1;
+            }
+            int item = itemsOffset + (entry - 1) * itemSize;
+            if (buffer.getInt(item) == hash && keyEquals(itemId, buffer.getInt(item + 4), buffer.getInt(item + 8))) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Compares ASCII itemIds char by char against the stored bytes; only other itemIds are encoded.
+     */
+    private boolean keyEquals(String itemId, int keyOffset, int keyLength) {
+        boolean ascii = true;
+        for (int index = 0; index < itemId.length() && ascii; index++) {
+            ascii = itemId.charAt(index) < 0x80;
+        }
+        if (ascii) {
+            if (keyLength != itemId.length()) {
+                return false;
+            }
+            for (int index = 0; index < keyLength; index++) {
+                if (buffer.get(keysOffset + keyOffset + index) != itemId.charAt(index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        byte[] key = itemId.getBytes(StandardCharsets.UTF_8);
+        if (key.length != keyLength) {
+            return false;
+        }
+        for (int index = 0; index < keyLength; index++) {
+            if (buffer.get(keysOffset + keyOffset + index) != key[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String keyOf(int ordinal) {
+        int item = itemsOffset + ordinal * itemSize;
+        byte[] key = new byte[buffer.getInt(item + 8)];
+        ByteBuffer keys = buffer.duplicate();
+        keys.clear();
+        keys.position(keysOffset + buffer.getInt(item + 4));
+        keys.get(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+}
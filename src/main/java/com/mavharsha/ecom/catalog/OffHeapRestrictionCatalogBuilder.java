@@ -0,0 +1,130 @@
+package com.mavharsha.ecom.catalog;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects per item restrictions and lays them out as an {@link OffHeapRestrictionCatalog}. Items with identical
+ * restrictions share a single copy of the ranges. The builder itself lives on the heap until {@link #build()}.
+ */
+public class OffHeapRestrictionCatalogBuilder {
+
+    public static final String errorTooLarge = "Restriction catalog should be smaller than 2 GB.";
+
+    private final Map<String, ZipCodeRangeSet> restrictionsByItemId = new LinkedHashMap<>();
+
+    /**
+     * Replaces the restrictions of an item.
+     * @param itemId identifier of the item
+     * @param restrictions consolidated ranges the item cannot be shipped to, empty lifts every restriction
+     * @return this builder
+     */
+    public OffHeapRestrictionCatalogBuilder put(@NonNull String itemId, @NonNull ZipCodeRangeSet restrictions) {
+        if (restrictions.isEmpty()) {
+            restrictionsByItemId.remove(itemId);
+        } else {
+            restrictionsByItemId.put(itemId, restrictions);
+        }
+        return this;
+    }
+
+    /**
+     * @param catalog catalog whose items are all copied, e.g. a {@link RestrictionCatalog}
+     * @return this builder
+     */
+    public OffHeapRestrictionCatalogBuilder putAll(@NonNull IRestrictionCatalog catalog) {
+        for (String itemId : catalog.getItemIds()) {
+            put(itemId, catalog.getRestrictions(itemId));
+        }
+        return this;
+    }
+
+    /**
+     * @return number of restricted items so far
+     */
+    public int getCount() {
+        return restrictionsByItemId.size();
+    }
+
+    /**
+     * @return a catalog in a new direct buffer
+     * @throws IllegalArgumentException when the catalog would not fit a single buffer
+     */
+    public OffHeapRestrictionCatalog build() {
+        int itemCount = restrictionsByItemId.size();
+        Map<ZipCodeRangeSet, Integer> setOrdinals = new HashMap<>();
+        List<ZipCodeRangeSet> distinctSets = new ArrayList<>();
+        List<byte[]> keys = new ArrayList<>(itemCount);
+        long rangeCount = 0;
+        long keyLength = 0;
+        for (Map.Entry<String, ZipCodeRangeSet> entry : restrictionsByItemId.entrySet()) {
+            if (!setOrdinals.containsKey(entry.getValue())) {
+                setOrdinals.put(entry.getValue(), distinctSets.size());
+                distinctSets.add(entry.getValue());
+                rangeCount += entry.getValue().size();
+            }
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            keyLength += key.length;
+        }
+        Preconditions.checkArgument(itemCount < (1 << 28) && rangeCount <= Integer.MAX_VALUE
+                && keyLength <= Integer.MAX_VALUE, errorTooLarge);
+        /* at most half full, so probes stay short */
+        int slotCount = Integer.highestOneBit(Math.max(1, itemCount) * 2 - 1) << 1;
+        long size = OffHeapRestrictionCatalog.layoutSize(itemCount, distinctSets.size(), slotCount, (int) rangeCount,
+                (int) keyLength);
+        Preconditions.checkArgument(size <= Integer.MAX_VALUE, errorTooLarge);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        buffer.putInt(OffHeapRestrictionCatalog.magic).putInt(OffHeapRestrictionCatalog.version).putInt(itemCount)
+                .putInt(distinctSets.size()).putInt(slotCount).putInt((int) rangeCount).putInt((int) keyLength)
+                .putInt(0).putLong(0);
+
+        int slotsOffset = OffHeapRestrictionCatalog.headerSize;
+        int itemsOffset = slotsOffset + slotCount * OffHeapRestrictionCatalog.slotSize;
+        int ordinal = 0;
+        int keyOffset = 0;
+        for (Map.Entry<String, ZipCodeRangeSet> entry : restrictionsByItemId.entrySet()) {
+            int hash = entry.getKey().hashCode();
+            int slot = OffHeapRestrictionCatalog.slotOf(hash, slotCount - 1);
+            while (buffer.getInt(slotsOffset + slot * OffHeapRestrictionCatalog.slotSize) != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            buffer.putInt(slotsOffset + slot * OffHeapRestrictionCatalog.slotSize, ordinal + 1);
+
+            byte[] key = keys.get(ordinal);
+            int item = itemsOffset + ordinal * OffHeapRestrictionCatalog.itemSize;
+            buffer.putInt(item, hash).putInt(item + 4, keyOffset).putInt(item + 8, key.length)
+                    .putInt(item + 12, setOrdinals.get(entry.getValue()));
+            keyOffset += key.length;
+            ordinal++;
+        }
+
+        buffer.position(itemsOffset + itemCount * OffHeapRestrictionCatalog.itemSize);
+        int firstRange = 0;
+        for (ZipCodeRangeSet set : distinctSets) {
+            buffer.putInt(firstRange).putInt(set.size());
+            firstRange += set.size();
+        }
+        for (ZipCodeRangeSet set : distinctSets) {
+            for (int index = 0; index < set.size(); index++) {
+                buffer.putInt(set.lowerAt(index)).putInt(set.upperAt(index));
+            }
+        }
+        for (byte[] key : keys) {
+            buffer.put(key);
+        }
+        buffer.putLong(32, OffHeapRestrictionCatalog.checksum(buffer));
+        buffer.clear();
+        return new OffHeapRestrictionCatalog(buffer);
+    }
+}
@@ -0,0 +1,115 @@
+package com.mavharsha.ecom.catalog;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per item restrictions, following the README: an item cannot be shipped to any zipCode in its ranges. Every
+ * distinct consolidated set is interned by content, so items sharing the same restrictions share one
+ * {@link ZipCodeRangeSet} instance and each item costs a single reference.
+ */
+public class RestrictionCatalog implements IRestrictionCatalog {
+
+    private final Map<String, ZipCodeRangeSet> restrictionsByItemId;
+    private final Interner<ZipCodeRangeSet> restrictionSetInterner;
+
+    public RestrictionCatalog() {
+        this.restrictionsByItemId = new ConcurrentHashMap<>();
+        this.restrictionSetInterner = Interners.newWeakInterner();
+    }
+
+    /**
+     * Replaces the restrictions of an item.
+     * @param itemId identifier of the item
+     * @param restrictions consolidated ranges the item cannot be shipped to, empty lifts every restriction
+     * @return the interned set now held for the item
+     */
+    public ZipCodeRangeSet putRestrictions(@NonNull String itemId, @NonNull ZipCodeRangeSet restrictions) {
+        if (restrictions.isEmpty()) {
+            restrictionsByItemId.remove(itemId);
+            return ZipCodeRangeSet.empty();
+        }
+        ZipCodeRangeSet internedRestrictions = restrictionSetInterner.intern(restrictions);
+        restrictionsByItemId.put(itemId, internedRestrictions);
+        return internedRestrictions;
+    }
+
+    /**
+     * Replaces the restrictions of an item with the union of several sets of ranges, e.g. one per source.
+     * @param itemId identifier of the item
+     * @param listsOfZipCodeRanges sets of ranges the item cannot be shipped to, in any order, possibly overlapping
+     * @return the interned set now held for the item
+     */
+    public ZipCodeRangeSet putRestrictions(@NonNull String itemId,
+                                           @NonNull Collection<List<ZipCodeRange>> listsOfZipCodeRanges) {
+        List<ZipCodeRange> allZipCodeRanges = new ArrayList<>();
+        for (List<ZipCodeRange> listOfZipCodeRanges : listsOfZipCodeRanges) {
+            allZipCodeRanges.addAll(listOfZipCodeRanges);
+        }
+        return putRestrictions(itemId, ZipCodeRangeSet.of(allZipCodeRanges));
+    }
+
+    /**
+     * Replaces the restrictions of an item with the union of the ranges read from every dataSource.
+     * @param itemId identifier of the item
+     * @param zipCodeRangeDAOs dataSources of ranges the item cannot be shipped to
+     * @return the interned set now held for the item
+     * @throws IOException when a data source is incorrect
+     */
+    public ZipCodeRangeSet loadRestrictions(@NonNull String itemId, @NonNull IZipCodeRangeDAO... zipCodeRangeDAOs)
+            throws IOException {
+        List<List<ZipCodeRange>> listsOfZipCodeRanges = new ArrayList<>();
+        for (IZipCodeRangeDAO zipCodeRangeDAO : zipCodeRangeDAOs) {
+            listsOfZipCodeRanges.add(zipCodeRangeDAO.getListOfZipCodeRanges());
+        }
+        return putRestrictions(itemId, listsOfZipCodeRanges);
+    }
+
+    /**
+     * @param itemId identifier of the item
+     * @return true if the item had restrictions, else false
+     */
+    public boolean removeRestrictions(@NonNull String itemId) {
+        return restrictionsByItemId.remove(itemId) != null;
+    }
+
+    @Override
+    public boolean canShip(@NonNull String itemId, int zipCode) {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        ZipCodeRangeSet restrictions = restrictionsByItemId.get(itemId);
+        return restrictions == null || !restrictions.contains(zipCode);
+    }
+
+    @Override
+    public ZipCodeRangeSet getRestrictions(@NonNull String itemId) {
+        ZipCodeRangeSet restrictions = restrictionsByItemId.get(itemId);
+        return restrictions == null ? ZipCodeRangeSet.empty() : restrictions;
+    }
+
+    @Override
+    public Set<String> getItemIds() {
+        return Collections.unmodifiableSet(restrictionsByItemId.keySet());
+    }
+
+    /**
+     * @return number of restricted items
+     */
+    public int size() {
+        return restrictionsByItemId.size();
+    }
+}
@@ -0,0 +1,330 @@
+package com.mavharsha.ecom.catalog;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSets;
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link IRestrictionCatalog} over a file split in one segment per ZIP3 prefix. Opening reads only the header
+ * and the segment index; a segment is read on the first lookup of one of its zipCodes and kept in a cache bounded
+ * in bytes, least recently used first out. Memory therefore follows the prefixes a process actually serves, not
+ * the size of the catalog.
+ * <pre>
+ * header   : magic (int) | version (int) | segmentCount (int) | itemCount (int) | itemsOffset (long)
+ *            | itemsLength (long)
+ * index    : segmentCount x (offset (long) | length (int) | reserved (int)), one per prefix from
+ *            {@link ZipCode#minPrefix}, length 0 for prefixes without restrictions
+ * segments : every item restricted in the prefix and its ranges clipped to the prefix, laid out as an
+ *            {@link OffHeapRestrictionCatalog}
+ * items    : itemCount x (length (int) | UTF-8 itemId)
+ * </pre>
+ */
+public class SegmentedRestrictionCatalog implements IRestrictionCatalog, Closeable {
+
+    public static final int magic = 0x5A525347;
+    public static final int version = 1;
+    public static final int headerSize = 32;
+    public static final int indexEntrySize = 16;
+    public static final long defaultMaxCachedBytes = 64L << 20;
+
+    public static final String errorNotASegmentedCatalog = "File is not a segmented restriction catalog.";
+    public static final String errorUnsupportedVersion = "Unsupported segmented restriction catalog version.";
+    public static final String errorCorruptedCatalog = "Segmented restriction catalog is corrupted.";
+
+    private static final int segmentCount = ZipCode.maxPrefix - ZipCode.minPrefix + 1;
+    private static final OffHeapRestrictionCatalog emptySegment = new OffHeapRestrictionCatalogBuilder().build();
+
+    private final FileChannel channel;
+    private final long[] segmentOffsets;
+    private final int[] segmentLengths;
+    private final int itemCount;
+    private final long itemsOffset;
+    private final long itemsLength;
+    private final LoadingCache<Integer, OffHeapRestrictionCatalog> segments;
+
+    private SegmentedRestrictionCatalog(FileChannel channel, long maxCachedBytes) throws IOException {
+        ByteBuffer header = read(channel, 0, headerSize + segmentCount * indexEntrySize);
+        Preconditions.checkArgument(header.getInt(0) == magic, errorNotASegmentedCatalog);
+        Preconditions.checkArgument(header.getInt(4) == version, errorUnsupportedVersion);
+        Preconditions.checkArgument(header.getInt(8) == segmentCount, errorCorruptedCatalog);
+        this.channel = channel;
+        this.itemCount = header.getInt(12);
+        this.itemsOffset = header.getLong(16);
+        this.itemsLength = header.getLong(24);
+        this.segmentOffsets = new long[segmentCount];
+        this.segmentLengths = new int[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            segmentOffsets[segment] = header.getLong(headerSize + segment * indexEntrySize);
+            segmentLengths[segment] = header.getInt(headerSize + segment * indexEntrySize + 8);
+            Preconditions.checkArgument(segmentLengths[segment] >= 0
+                    && segmentOffsets[segment] + segmentLengths[segment] <= channel.size(), errorCorruptedCatalog);
+        }
+        Preconditions.checkArgument(itemsOffset + itemsLength == channel.size(), errorCorruptedCatalog);
+        this.segments = CacheBuilder.newBuilder()
+                .maximumWeight(maxCachedBytes)
+                .weigher((Integer segment, OffHeapRestrictionCatalog catalog) -> catalog.getSizeInBytes())
+                .recordStats()
+                .build(new CacheLoader<Integer, OffHeapRestrictionCatalog>() {
+                    @Override
+                    public OffHeapRestrictionCatalog load(Integer segment) throws IOException {
+                        return loadSegment(segment);
+                    }
+                });
+    }
+
+    /**
+     * @param filePath location of a catalog written by {@link #write(IRestrictionCatalog, Path)}
+     * @return the catalog, caching up to {@link #defaultMaxCachedBytes} of segments
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid catalog
+     */
+    public static SegmentedRestrictionCatalog open(@NonNull Path filePath) throws IOException {
+        return open(filePath, defaultMaxCachedBytes);
+    }
+
+    /**
+     * @param filePath location of a catalog written by {@link #write(IRestrictionCatalog, Path)}
+     * @param maxCachedBytes bytes of segments kept in memory
+     * @return the catalog, with no segment loaded yet
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid catalog
+     */
+    public static SegmentedRestrictionCatalog open(@NonNull Path filePath, long maxCachedBytes) throws IOException {
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        try {
+            Preconditions.checkArgument(channel.size() >= headerSize + segmentCount * indexEntrySize,
+                    errorNotASegmentedCatalog);
+            return new SegmentedRestrictionCatalog(channel, maxCachedBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a catalog by prefix and writes it to a temporary file moved into place, so readers never see a
+     * partial file.
+     * @param catalog restrictions to be written
+     * @param filePath destination of the catalog, replaced if it exists
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(@NonNull IRestrictionCatalog catalog, @NonNull Path filePath) throws IOException {
+        OffHeapRestrictionCatalogBuilder[] builders = new OffHeapRestrictionCatalogBuilder[segmentCount];
+        List<byte[]> keys = new ArrayList<>();
+        int[] lows = new int[16];
+        int[] highs = new int[16];
+        for (String itemId : catalog.getItemIds()) {
+            ZipCodeRangeSet restrictions = catalog.getRestrictions(itemId);
+            if (restrictions.isEmpty()) {
+                continue;
+            }
+            keys.add(itemId.getBytes(StandardCharsets.UTF_8));
+            int count = 0;
+            int currentPrefix = -1;
+            for (int index = 0; index < restrictions.size(); index++) {
+                int lowerRange = restrictions.lowerAt(index);
+                int upperRange = restrictions.upperAt(index);
+                for (int prefix = ZipCode.prefixOf(lowerRange); prefix <= ZipCode.prefixOf(upperRange); prefix++) {
+                    if (prefix != currentPrefix && count > 0) {
+                        putSegment(builders, currentPrefix, itemId, lows, highs, count);
+                        count = 0;
+                    }
+                    currentPrefix = prefix;
+                    if (count == lows.length) {
+                        lows = Arrays.copyOf(lows, count * 2);
+                        highs = Arrays.copyOf(highs, count * 2);
+                    }
+                    lows[count] = Math.max(lowerRange, prefix * 100);
+                    highs[count] = Math.min(upperRange, prefix * 100 + 99);
+                    count++;
+                }
+            }
+            putSegment(builders, currentPrefix, itemId, lows, highs, count);
+        }
+
+        Path temporaryPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try (FileChannel output = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer index = ByteBuffer.allocate(segmentCount * indexEntrySize);
+            long offset = headerSize + index.capacity();
+            output.position(offset);
+            for (OffHeapRestrictionCatalogBuilder builder : builders) {
+                int length = 0;
+                if (builder != null) {
+                    ByteBuffer segment = builder.build().getBuffer();
+                    length = segment.remaining();
+                    writeFully(output, segment);
+                }
+                index.putLong(offset).putInt(length).putInt(0);
+                offset += length;
+            }
+            long itemsOffset = offset;
+            ByteBuffer items = ByteBuffer.allocate(1 << 16);
+            for (byte[] key : keys) {
+                if (items.remaining() < Integer.BYTES + key.length) {
+                    items.flip();
+                    writeFully(output, items);
+                    items = ByteBuffer.allocate(Math.max(items.capacity(), Integer.BYTES + key.length));
+                }
+                items.putInt(key.length).put(key);
+                offset += Integer.BYTES + key.length;
+            }
+            items.flip();
+            writeFully(output, items);
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(magic).putInt(version).putInt(segmentCount).putInt(keys.size()).putLong(itemsOffset)
+                    .putLong(offset - itemsOffset);
+            header.flip();
+            index.flip();
+            output.position(0);
+            writeFully(output, header);
+            writeFully(output, index);
+            output.force(true);
+        }
+        Files.move(temporaryPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public boolean canShip(@NonNull String itemId, int zipCode) {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        return segment(ZipCode.prefixOf(zipCode) - ZipCode.minPrefix).canShip(itemId, zipCode);
+    }
+
+    /**
+     * Reads every segment the item is restricted in, through the cache.
+     */
+    @Override
+    public ZipCodeRangeSet getRestrictions(@NonNull String itemId) {
+        List<ZipCodeRangeSet> segmentRestrictions = new ArrayList<>();
+        for (int segment = 0; segment < segmentCount; segment++) {
+            ZipCodeRangeSet restrictions = segment(segment).getRestrictions(itemId);
+            if (!restrictions.isEmpty()) {
+                segmentRestrictions.add(restrictions);
+            }
+        }
+        /* ranges were clipped at prefix boundaries, the union joins them back */
+        return ZipCodeRangeSets.union(segmentRestrictions);
+    }
+
+    /**
+     * Reads the item section of the file, which is not cached.
+     */
+    @Override
+    public Set<String> getItemIds() {
+        try {
+            Preconditions.checkState(itemsLength <= Integer.MAX_VALUE, errorCorruptedCatalog);
+            ByteBuffer items = read(channel, itemsOffset, (int) itemsLength);
+            ImmutableSet.Builder<String> itemIds = ImmutableSet.builder();
+            for (int item = 0; item < itemCount; item++) {
+                byte[] key = new byte[items.getInt()];
+                items.get(key);
+                itemIds.add(new String(key, StandardCharsets.UTF_8));
+            }
+            return itemIds.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of restricted items
+     */
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * @return segments currently held in memory
+     */
+    public long getCachedSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return hits, misses, loads and evictions of the segment cache
+     */
+    public CacheStats getCacheStats() {
+        return segments.stats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments.invalidateAll();
+        channel.close();
+    }
+
+    private OffHeapRestrictionCatalog segment(int segment) {
+        if (segmentLengths[segment] == 0) {
+            return emptySegment;
+        }
+        try {
+            return segments.getUnchecked(segment);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private OffHeapRestrictionCatalog loadSegment(int segment) throws IOException {
+        ByteBuffer buffer = read(channel, segmentOffsets[segment], segmentLengths[segment]);
+        OffHeapRestrictionCatalog catalog = new OffHeapRestrictionCatalog(buffer);
+        Preconditions.checkArgument(buffer.getLong(32) == OffHeapRestrictionCatalog.checksum(buffer),
+                errorCorruptedCatalog);
+        return catalog;
+    }
+
+    private static void putSegment(OffHeapRestrictionCatalogBuilder[] builders, int prefix, String itemId,
+                                   int[] lows, int[] highs, int count) {
+        int segment = prefix - ZipCode.minPrefix;
+        if (builders[segment] == null) {
+            builders[segment] = new OffHeapRestrictionCatalogBuilder();
+        }
+        builders[segment].put(itemId, ZipCodeRangeSet.ofConsolidated(Arrays.copyOf(lows, count),
+                Arrays.copyOf(highs, count)));
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(errorCorruptedCatalog);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel output, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.mavharsha.ecom.changelog;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.MutableZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.snapshot.MappedZipCodeRangeSnapshot;
+import com.mavharsha.ecom.snapshot.ZipCodeRangeSnapshot;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, incrementally updated set of ranges: every add or lift is appended to a log before it is acknowledged,
+ * and a compaction folds the log into a new consolidated {@link ZipCodeRangeSnapshot}. Opening the directory maps
+ * the latest snapshot and replays only the log written since, so a restart never re-reads the original rules.
+ * <p>
+ * Files of one directory, for generation g:
+ * <pre>
+ * snapshot-g.bin : every change logged before generation g, consolidated (absent for generation 0)
+ * changes-g.log  : magic (int) | version (int) | generation (long), then
+ *                  16 byte records of operation (int) | lowerRange (int) | upperRange (int) | crc32 of the 12 (int)
+ * </pre>
+ * A compaction starts changes-(g+1).log, writes snapshot-(g+1).bin from the state at that instant, and only then
+ * deletes the files of generation g; a crash at any point leaves a directory that replays to the same state. A log
+ * is only given its name once its header is durable, and a torn record at the end of the last log, from a crash
+ * during an append, is dropped on open, as is a last log with a torn header.
+ * <p>
+ * Appends are group committed: concurrent appenders share one fsync, issued by whichever of them gets there first.
+ * Changes are visible to readers as soon as they are appended, before their fsync completes. A failed write or fsync
+ * fails the log: every later read, change, sync and compaction throws, and reopening the directory recovers the
+ * changes that were made durable.
+ */
+public class ZipCodeRangeChangeLog implements IZipCodeRangeDAO, Closeable {
+
+    public static final int magic = 0x5A52434C;
+    public static final int version = 1;
+    public static final int headerSize = 16;
+    public static final int recordSize = 16;
+
+    public static final String errorClosed = "Change log is closed.";
+    public static final String errorNotAChangeLog = "File is not a ZipCodeRange change log.";
+    public static final String errorFailed = "Change log failed to write, reopen it to recover its durable changes.";
+
+    static final int operationAdd = 1;
+    static final int operationRemove = 2;
+
+    private static final Pattern snapshotName = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final Pattern logName = Pattern.compile("changes-(\\d+)\\.log");
+    private static final long flushIntervalMillis = 100;
+    private static final long closeTimeoutSeconds = 30;
+
+    private final Path directory;
+    private final boolean syncOnAppend;
+    private final MutableZipCodeRangeSet zipCodeRangeSet;
+    private final ScheduledExecutorService backgroundExecutor;
+    /* lock order: compactionLock, then flushLock, then appendLock */
+    private final Object compactionLock = new Object();
+    private final Object flushLock = new Object();
+    private final Object appendLock = new Object();
+
+    /* guarded by appendLock */
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(64 * recordSize);
+    private long appendedSequence;
+    private long recordsSinceSnapshot;
+    private boolean closed;
+    /* set under flushLock and appendLock, the first failed write or fsync */
+    private volatile IOException failure;
+    /* guarded by flushLock and appendLock, readable under either */
+    private FileChannel logChannel;
+    private long generation;
+    /* written under flushLock */
+    private ByteBuffer flushingRecords = ByteBuffer.allocate(64 * recordSize);
+    private volatile long durableSequence;
+
+    private ZipCodeRangeChangeLog(Path directory, boolean syncOnAppend, MutableZipCodeRangeSet zipCodeRangeSet,
+                                  FileChannel logChannel, long generation, long recordsSinceSnapshot) {
+        this.directory = directory;
+        this.syncOnAppend = syncOnAppend;
+        this.zipCodeRangeSet = zipCodeRangeSet;
+        this.logChannel = logChannel;
+        this.generation = generation;
+        this.recordsSinceSnapshot = recordsSinceSnapshot;
+        this.backgroundExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-change-log-%d").setDaemon(true).build());
+        if (!syncOnAppend) {
+            backgroundExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens the change log of a directory, with every append durable before it returns.
+     * @param directory directory of the snapshots and logs, created if missing
+     * @return the change log, recovered to its last durable state
+     * @throws IOException when the files cannot be read or written
+     */
+    public static ZipCodeRangeChangeLog open(@NonNull Path directory) throws IOException {
+        return open(directory, true);
+    }
+
+    /**
+     * @param directory directory of the snapshots and logs, created if missing
+     * @param syncOnAppend true for appends that return once durable, false for appends flushed in the background
+     * every {@value #flushIntervalMillis} ms, on {@link #sync()} and on {@link #close()}
+     * @return the change log, recovered to its last durable state
+     * @throws IOException when the files cannot be read or written
+     */
+    public static ZipCodeRangeChangeLog open(@NonNull Path directory, boolean syncOnAppend) throws IOException {
+        Files.createDirectories(directory);
+        TreeSet<Long> snapshotGenerations = new TreeSet<>();
+        TreeSet<Long> logGenerations = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher snapshotMatcher = snapshotName.matcher(file.getFileName().toString());
+                Matcher logMatcher = logName.matcher(file.getFileName().toString());
+                if (snapshotMatcher.matches()) {
+                    snapshotGenerations.add(Long.parseLong(snapshotMatcher.group(1)));
+                } else if (logMatcher.matches()) {
+                    logGenerations.add(Long.parseLong(logMatcher.group(1)));
+                }
+            }
+        }
+
+        long snapshotGeneration = snapshotGenerations.isEmpty() ? 0 : snapshotGenerations.last();
+        MutableZipCodeRangeSet zipCodeRangeSet;
+        if (snapshotGeneration == 0) {
+            zipCodeRangeSet = new MutableZipCodeRangeSet();
+        } else {
+            MappedZipCodeRangeSnapshot snapshot = ZipCodeRangeSnapshot.open(snapshotPath(directory,
+                    snapshotGeneration));
+            zipCodeRangeSet = new MutableZipCodeRangeSet(snapshot.toZipCodeRangeSet());
+        }
+
+        long generation = Math.max(snapshotGeneration, logGenerations.isEmpty() ? 0 : logGenerations.last());
+        long recordsSinceSnapshot = 0;
+        boolean tornHeader = false;
+        for (long logGeneration : logGenerations.tailSet(snapshotGeneration)) {
+            long replayed = replay(logPath(directory, logGeneration), logGeneration, zipCodeRangeSet,
+                    logGeneration == generation);
+            if (replayed < 0) {
+                tornHeader = true;
+            } else {
+                recordsSinceSnapshot += replayed;
+            }
+        }
+        FileChannel logChannel;
+        if (logGenerations.contains(generation) && !tornHeader) {
+            logChannel = FileChannel.open(logPath(directory, generation), StandardOpenOption.WRITE);
+            logChannel.position(logChannel.size());
+        } else {
+            logChannel = createLog(directory, generation);
+        }
+        deleteBefore(directory, snapshotGeneration);
+        return new ZipCodeRangeChangeLog(directory, syncOnAppend, zipCodeRangeSet, logChannel, generation,
+                recordsSinceSnapshot);
+    }
+
+    /**
+     * Adds a range, merging it with the ranges it overlaps or touches.
+     * @param lowerRange lower bound, inclusive
+     * @param upperRange upper bound, inclusive
+     * @throws IllegalArgumentException when the bounds are not 5 digit zipCodes in order
+     * @throws IOException when the change cannot be made durable
+     */
+    public void add(int lowerRange, int upperRange) throws IOException {
+        append(operationAdd, lowerRange, upperRange);
+    }
+
+    /**
+     * Lifts a range, splitting the ranges it cuts through.
+     * @param lowerRange lower bound, inclusive
+     * @param upperRange upper bound, inclusive
+     * @throws IllegalArgumentException when the bounds are not 5 digit zipCodes in order
+     * @throws IOException when the change cannot be made durable
+     */
+    public void remove(int lowerRange, int upperRange) throws IOException {
+        append(operationRemove, lowerRange, upperRange);
+    }
+
+    /**
+     * Makes every change appended so far durable.
+     * @throws IOException when the log cannot be written
+     */
+    public void sync() throws IOException {
+        long sequence;
+        synchronized (appendLock) {
+            sequence = appendedSequence;
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * @return current state, consolidated
+     * @throws IOException when the log failed, as the state may hold changes that were never made durable
+     */
+    public ZipCodeRangeSet getZipCodeRangeSet() throws IOException {
+        checkNotFailed();
+        return zipCodeRangeSet.snapshot();
+    }
+
+    /**
+     * @throws IOException when the log failed, as the state may hold changes that were never made durable
+     */
+    @Override
+    public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException {
+        return getZipCodeRangeSet().toZipCodeRanges();
+    }
+
+    /**
+     * @return changes a restart would replay on top of the latest snapshot
+     */
+    public long getRecordsSinceSnapshot() {
+        synchronized (appendLock) {
+            return recordsSinceSnapshot;
+        }
+    }
+
+    /**
+     * Folds the log into a new snapshot. Appends are only held up while the log is switched, not while the
+     * snapshot is written.
+     * @throws IOException when the snapshot or the new log cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            ZipCodeRangeSet compactedSet;
+            long compactedGeneration;
+            synchronized (flushLock) {
+                synchronized (appendLock) {
+                    Preconditions.checkState(!closed, errorClosed);
+                    checkNotFailed();
+                    flush();
+                    compactedSet = zipCodeRangeSet.snapshot();
+                    compactedGeneration = generation + 1;
+                    FileChannel compactedLogChannel = createLog(directory, compactedGeneration);
+                    logChannel.close();
+                    logChannel = compactedLogChannel;
+                    generation = compactedGeneration;
+                    recordsSinceSnapshot = 0;
+                }
+            }
+            ZipCodeRangeSnapshot.write(compactedSet, snapshotPath(directory, compactedGeneration));
+            deleteBefore(directory, compactedGeneration);
+        }
+    }
+
+    /**
+     * Compacts in the background whenever enough changes have piled up.
+     * @param period time between two checks
+     * @param unit unit of period
+     * @param minRecords changes since the last snapshot that trigger a compaction
+     */
+    public void startCompaction(long period, @NonNull TimeUnit unit, long minRecords) {
+        backgroundExecutor.scheduleWithFixedDelay(() -> {
+            if (getRecordsSinceSnapshot() >= minRecords) {
+                try {
+                    compact();
+                } catch (IOException | IllegalStateException e) {
+                    /* the log is still complete, the next run tries again */
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Lets the background work in progress finish, makes the pending changes durable and closes the log.
+     * @throws IOException when the pending changes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        /* not interrupted: an interrupt during a write or fsync would close the log channel under the flusher */
+        backgroundExecutor.shutdown();
+        try {
+            backgroundExecutor.awaitTermination(closeTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (compactionLock) {
+            synchronized (flushLock) {
+                synchronized (appendLock) {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        checkNotFailed();
+                        flush();
+                    } finally {
+                        closed = true;
+                        logChannel.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private void append(int operation, int lowerRange, int upperRange) throws IOException {
+        long sequence;
+        synchronized (appendLock) {
+            Preconditions.checkState(!closed, errorClosed);
+            checkNotFailed();
+            /* applied first, so that invalid bounds throw before anything is logged */
+            if (operation == operationAdd) {
+                zipCodeRangeSet.add(lowerRange, upperRange);
+            } else {
+                zipCodeRangeSet.remove(lowerRange, upperRange);
+            }
+            if (pendingRecords.remaining() < recordSize) {
+                ByteBuffer grownRecords = ByteBuffer.allocate(pendingRecords.capacity() * 2);
+                pendingRecords.flip();
+                grownRecords.put(pendingRecords);
+                pendingRecords = grownRecords;
+            }
+            putRecord(pendingRecords, operation, lowerRange, upperRange);
+            recordsSinceSnapshot++;
+            sequence = ++appendedSequence;
+        }
+        if (syncOnAppend) {
+            awaitDurable(sequence);
+        }
+    }
+
+    /**
+     * Group commit: the first appender in writes and forces every record pending at that time, the others find
+     * their record already durable once they get the lock. A failure fails the log rather than dropping the records
+     * it could not write, and never advances durableSequence past them.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        synchronized (flushLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long flushedSequence;
+            FileChannel channel;
+            synchronized (appendLock) {
+                Preconditions.checkState(!closed, errorClosed);
+                checkNotFailed();
+                ByteBuffer records = pendingRecords;
+                pendingRecords = flushingRecords;
+                pendingRecords.clear();
+                flushingRecords = records;
+                flushedSequence = appendedSequence;
+                channel = logChannel;
+            }
+            flushingRecords.flip();
+            try {
+                while (flushingRecords.hasRemaining()) {
+                    channel.write(flushingRecords);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (appendLock) {
+                    failure = e;
+                }
+                throw e;
+            }
+            durableSequence = flushedSequence;
+        }
+    }
+
+    /**
+     * Writes and forces the pending records; the caller holds flushLock and appendLock.
+     */
+    private void flush() throws IOException {
+        pendingRecords.flip();
+        try {
+            while (pendingRecords.hasRemaining()) {
+                logChannel.write(pendingRecords);
+            }
+            logChannel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        pendingRecords.clear();
+        durableSequence = appendedSequence;
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException(errorFailed, failure);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            sync();
+        } catch (IOException | IllegalStateException e) {
+            /* retried on the next run, and reported by sync() or close() */
+        }
+    }
+
+    /**
+     * @return records replayed, or -1 if the header of the last log is torn and the log should be created again
+     */
+    private static long replay(Path logPath, long generation, MutableZipCodeRangeSet zipCodeRangeSet,
+                               boolean truncateTornTail) throws IOException {
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            if (truncateTornTail && header.hasRemaining()) {
+                /* from a crash while the header was written, by a version that did not write it aside first */
+                return -1;
+            }
+            Preconditions.checkArgument(!header.hasRemaining() && header.getInt(0) == magic
+                    && header.getInt(4) == version && header.getLong(8) == generation, errorNotAChangeLog);
+
+            ByteBuffer records = ByteBuffer.allocate(1024 * recordSize);
+            long validLength = headerSize;
+            long replayed = 0;
+            boolean torn = false;
+            while (!torn && channel.read(records) >= 0) {
+                records.flip();
+                while (records.remaining() >= recordSize) {
+                    int operation = records.getInt();
+                    int lowerRange = records.getInt();
+                    int upperRange = records.getInt();
+                    if (records.getInt() != checksum(operation, lowerRange, upperRange)) {
+                        torn = true;
+                        break;
+                    }
+                    if (operation == operationAdd) {
+                        zipCodeRangeSet.add(lowerRange, upperRange);
+                    } else {
+                        zipCodeRangeSet.remove(lowerRange, upperRange);
+                    }
+                    validLength += recordSize;
+                    replayed++;
+                }
+                records.compact();
+            }
+            if (truncateTornTail && channel.size() > validLength) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+            return replayed;
+        }
+    }
+
+    /**
+     * Writes the header under a temporary name and only then renames the log, so a crash never leaves a log
+     * without its full header.
+     */
+    private static FileChannel createLog(Path directory, long generation) throws IOException {
+        Path logPath = logPath(directory, generation);
+        Path temporaryPath = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(magic).putInt(version).putLong(generation);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, logPath, StandardCopyOption.ATOMIC_MOVE);
+        FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    /**
+     * Deletes the snapshots and logs older than a generation, once its snapshot is in place.
+     */
+    private static void deleteBefore(Path directory, long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher snapshotMatcher = snapshotName.matcher(file.getFileName().toString());
+                Matcher logMatcher = logName.matcher(file.getFileName().toString());
+                if ((snapshotMatcher.matches() && Long.parseLong(snapshotMatcher.group(1)) < generation)
+                        || (logMatcher.matches() && Long.parseLong(logMatcher.group(1)) < generation)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void putRecord(ByteBuffer records, int operation, int lowerRange, int upperRange) {
+        records.putInt(operation).putInt(lowerRange).putInt(upperRange)
+                .putInt(checksum(operation, lowerRange, upperRange));
+    }
+
+    private static int checksum(int operation, int lowerRange, int upperRange) {
+        CRC32 crc32 = new CRC32();
+        for (int value : new int[]{operation, lowerRange, upperRange}) {
+            crc32.update(value >>> 24);
+            crc32.update(value >>> 16);
+            crc32.update(value >>> 8);
+            crc32.update(value);
+        }
+        return (int) crc32.getValue();
+    }
+
+    static Path snapshotPath(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    static Path logPath(Path directory, long generation) {
+        return directory.resolve("changes-" + generation + ".log");
+    }
+}
@@ -0,0 +1,178 @@
+package com.mavharsha.ecom.dao;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.index.ZipCodeRangeSets;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Combines several data sources, e.g. carrier embargoes, hazmat and state law feeds, into one. Every call loads
+ * all the sources concurrently and consolidates each one on its own thread as it streams in; each consolidated
+ * source is then merged into the result as soon as it completes. A load therefore takes about as long as the
+ * slowest source, not the sum of all of them.
+ * <p>
+ * A source that fails or exceeds the timeout can fall back to the ranges of its last successful load, so one
+ * flaky feed does not take the others down. Timed out loads are interrupted, so a source that hangs does not keep
+ * a load thread busy beyond its timeout as long as it responds to interrupts.
+ */
+public class CompositeZipCodeRangeDAO implements IZipCodeRangeDAO, Closeable {
+
+    public static final long defaultTimeoutMillis = 30_000;
+
+    public static final String errorNoSources = "At least one source should be given.";
+    public static final String errorTimeout = "Timeout should be positive.";
+
+    private final List<IZipCodeRangeDAO> sources;
+    private final long timeoutNanos;
+    private final boolean fallBackToLastKnownGood;
+    private final AtomicReferenceArray<ZipCodeRangeSet> lastKnownGood;
+    private final AtomicReferenceArray<Exception> lastFailures;
+    private final ExecutorService loadExecutor;
+    private final ScheduledExecutorService timeoutExecutor;
+
+    /**
+     * Times sources out after {@link #defaultTimeoutMillis} and falls back to their last known good ranges.
+     * @param sources data sources, queried on every load
+     */
+    public CompositeZipCodeRangeDAO(@NonNull List<? extends IZipCodeRangeDAO> sources) {
+        this(sources, defaultTimeoutMillis, TimeUnit.MILLISECONDS, true);
+    }
+
+    /**
+     * @param sources data sources, queried on every load
+     * @param timeout time given to each source
+     * @param unit unit of timeout
+     * @param fallBackToLastKnownGood true to use the ranges of the last successful load of a source that fails or
+     * times out, false to fail the whole load
+     */
+    public CompositeZipCodeRangeDAO(@NonNull List<? extends IZipCodeRangeDAO> sources, long timeout,
+                                    @NonNull TimeUnit unit, boolean fallBackToLastKnownGood) {
+        Preconditions.checkArgument(!sources.isEmpty(), errorNoSources);
+        Preconditions.checkArgument(timeout > 0, errorTimeout);
+        this.sources = ImmutableList.copyOf(sources);
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.fallBackToLastKnownGood = fallBackToLastKnownGood;
+        this.lastKnownGood = new AtomicReferenceArray<>(sources.size());
+        this.lastFailures = new AtomicReferenceArray<>(sources.size());
+        this.loadExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-source-load-%d").setDaemon(true).build());
+        this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-source-timeout-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Loads every source again.
+     * @return consolidated union of the ranges of all the sources
+     * @throws IOException when a source fails or times out and has no last known good ranges to fall back to
+     */
+    @Override
+    public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException {
+        AtomicReference<ZipCodeRangeSet> merged = new AtomicReference<>(ZipCodeRangeSet.empty());
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[sources.size()];
+        for (int sourceIndex = 0; sourceIndex < sources.size(); sourceIndex++) {
+            int source = sourceIndex;
+            loads[source] = loadWithTimeout(source)
+                    .handle((zipCodeRangeSet, failure) -> settle(source, zipCodeRangeSet, failure))
+                    .thenAccept(zipCodeRangeSet -> merged.accumulateAndGet(zipCodeRangeSet, ZipCodeRangeSets::union));
+        }
+        try {
+            CompletableFuture.allOf(loads).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        return merged.get().toZipCodeRanges();
+    }
+
+    /**
+     * @param sourceIndex position of the source in the list given at construction
+     * @return why the last load of that source failed, or null if it succeeded or never ran
+     */
+    public Exception getLastFailure(int sourceIndex) {
+        return lastFailures.get(sourceIndex);
+    }
+
+    /**
+     * Stops the load and timeout threads; loads still running are interrupted.
+     */
+    @Override
+    public void close() {
+        loadExecutor.shutdownNow();
+        timeoutExecutor.shutdownNow();
+    }
+
+    private ZipCodeRangeSet load(int sourceIndex) {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder(ZipCodeRangeSetBuilder.defaultSweepThreshold);
+        try {
+            sources.get(sourceIndex).readZipCodeRanges(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Java 8 has no CompletableFuture#orTimeout, so the timeout is a task racing the load, which interrupts the load
+     * when it wins. A CompletableFuture cannot interrupt its task, so the load runs as a plain Future.
+     */
+    private CompletableFuture<ZipCodeRangeSet> loadWithTimeout(int sourceIndex) {
+        CompletableFuture<ZipCodeRangeSet> timedLoad = new CompletableFuture<>();
+        Future<?> load = loadExecutor.submit(() -> {
+            try {
+                timedLoad.complete(load(sourceIndex));
+            } catch (RuntimeException | Error e) {
+                timedLoad.completeExceptionally(e);
+            }
+        });
+        ScheduledFuture<?> timeout = timeoutExecutor.schedule(() -> {
+            if (timedLoad.completeExceptionally(new TimeoutException("Source " + sourceIndex
+                    + " did not load within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms."))) {
+                load.cancel(true);
+            }
+        }, timeoutNanos, TimeUnit.NANOSECONDS);
+        timedLoad.whenComplete((zipCodeRangeSet, failure) -> timeout.cancel(false));
+        return timedLoad;
+    }
+
+    private ZipCodeRangeSet settle(int sourceIndex, ZipCodeRangeSet zipCodeRangeSet, Throwable failure) {
+        if (failure == null) {
+            lastKnownGood.set(sourceIndex, zipCodeRangeSet);
+            lastFailures.set(sourceIndex, null);
+            return zipCodeRangeSet;
+        }
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        lastFailures.set(sourceIndex, cause instanceof Exception ? (Exception) cause : new Exception(cause));
+        ZipCodeRangeSet fallback = fallBackToLastKnownGood ? lastKnownGood.get(sourceIndex) : null;
+        if (fallback == null) {
+            throw new CompletionException(new IOException("Source " + sourceIndex
+                    + " failed and has no last known good ranges to fall back to.", cause));
+        }
+        return fallback;
+    }
+}
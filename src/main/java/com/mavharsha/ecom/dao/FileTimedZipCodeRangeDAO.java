@@ -0,0 +1,120 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.TimedZipCodeRange;
+import com.mavharsha.ecom.util.FileUtil;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import lombok.NonNull;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads timed ranges from a JSON array in the format of {@link FileZipCodeRangeDAO}, where every object may also
+ * have ISO-8601 {@code "effectiveFrom"} and {@code "effectiveTo"} instants, e.g.
+ * <code>{"lowerRange": {"code": 94100}, "upperRange": {"code": 94199}, "effectiveFrom": "2026-12-24T00:00:00Z",
+ * "effectiveTo": "2026-12-27T00:00:00Z"}</code>. A missing or null instant leaves that side unbounded. The file is
+ * read again on every call.
+ */
+public class FileTimedZipCodeRangeDAO implements ITimedZipCodeRangeDAO {
+
+    private static final JsonReader.Options rangeNames = JsonReader.Options.of("lowerRange", "upperRange",
+            "effectiveFrom", "effectiveTo");
+    private static final JsonReader.Options codeNames = JsonReader.Options.of("code");
+
+    private final Path filePath;
+
+    /**
+     * @param filePath path of a file on the filesystem
+     */
+    public FileTimedZipCodeRangeDAO(@NonNull Path filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * @return timed ranges read from the input file
+     * @throws IOException when the file cannot be read or is not well formed
+     */
+    @Override
+    public List<TimedZipCodeRange> getListOfTimedZipCodeRanges() throws IOException {
+        List<TimedZipCodeRange> timedZipCodeRanges = new ArrayList<>();
+        try (InputStream inputStream = FileUtil.openFile(filePath);
+             BufferedSource source = Okio.buffer(Okio.source(inputStream));
+             JsonReader reader = JsonReader.of(source)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                timedZipCodeRanges.add(readTimedZipCodeRange(reader));
+            }
+            reader.endArray();
+        }
+        return Collections.unmodifiableList(timedZipCodeRanges);
+    }
+
+    private static TimedZipCodeRange readTimedZipCodeRange(JsonReader reader) throws IOException {
+        int lowerRange = -1;
+        int upperRange = -1;
+        Instant effectiveFrom = null;
+        Instant effectiveTo = null;
+        String path = reader.getPath();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(rangeNames)) {
+                case 0:
+                    lowerRange = readCode(reader);
+                    break;
+                case 1:
+                    upperRange = readCode(reader);
+                    break;
+                case 2:
+                    effectiveFrom = readInstant(reader);
+                    break;
+                case 3:
+                    effectiveTo = readInstant(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (lowerRange < 0 || upperRange < 0) {
+            throw new JsonDataException("Expected lowerRange and upperRange at " + path);
+        }
+        return new TimedZipCodeRange(lowerRange, upperRange, effectiveFrom, effectiveTo);
+    }
+
+    private static Instant readInstant(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            return reader.nextNull();
+        }
+        String path = reader.getPath();
+        try {
+            return Instant.parse(reader.nextString());
+        } catch (DateTimeParseException e) {
+            throw new JsonDataException("Expected an ISO-8601 instant at " + path, e);
+        }
+    }
+
+    private static int readCode(JsonReader reader) throws IOException {
+        int code = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.selectName(codeNames) == 0) {
+                code = reader.nextInt();
+            } else {
+                reader.skipName();
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return code;
+    }
+}
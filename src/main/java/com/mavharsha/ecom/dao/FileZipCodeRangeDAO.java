@@ -1,44 +1,143 @@
 package com.mavharsha.ecom.dao;
 
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
 import com.mavharsha.ecom.model.ZipCodeRange;
 import com.mavharsha.ecom.util.FileUtil;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.Moshi;
-import com.squareup.moshi.Types;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import lombok.NonNull;
+import okio.BufferedSource;
+import okio.Okio;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * Reads ranges from a JSON array of <code>{"lowerRange": {"code": 94133}, "upperRange": {"code": 94133}}</code>
+ * objects, either a classpath resource or a file on the filesystem. The file is parsed as a stream, so
+ * {@link #readZipCodeRanges(IZipCodeRangeSink)} runs in constant memory whatever the size of the file.
+ */
 public class FileZipCodeRangeDAO implements IZipCodeRangeDAO {
 
+    private static final JsonReader.Options rangeNames = JsonReader.Options.of("lowerRange", "upperRange");
+    private static final JsonReader.Options codeNames = JsonReader.Options.of("code");
+
     private String fileName;
-    private List<ZipCodeRange> listOfZipCodeRanges;
+    private Path filePath;
+    private volatile List<ZipCodeRange> listOfZipCodeRanges;
 
     public FileZipCodeRangeDAO() {
         this("ListOfShippingZipCodeRanges.json");
     }
 
+    /**
+     * @param fileName name of a classpath resource
+     */
     public FileZipCodeRangeDAO(String fileName) {
         this.fileName = fileName;
-        this.listOfZipCodeRanges = new ArrayList<>();
     }
 
     /**
-     * @return list Of ZipCodeRanges read from the input file
+     * @param filePath path of a file on the filesystem
+     */
+    public FileZipCodeRangeDAO(@NonNull Path filePath) {
+        this.fileName = filePath.toString();
+        this.filePath = filePath;
+    }
+
+    /**
+     * @return list Of ZipCodeRanges read from the input file, read once on first use
      * @throws IOException
      */
     @Override
     public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException {
-        if (listOfZipCodeRanges.size() == 0) {
-            String json = FileUtil.readFileFromResource(this.fileName);
-            Moshi moshi = new Moshi.Builder().build();
-            Type type = Types.newParameterizedType(List.class, ZipCodeRange.class);
-            JsonAdapter<List<ZipCodeRange>> adapter = moshi.adapter(type);
-            listOfZipCodeRanges = adapter.fromJson(json);
+        List<ZipCodeRange> zipCodeRanges = listOfZipCodeRanges;
+        if (zipCodeRanges == null) {
+            synchronized (this) {
+                zipCodeRanges = listOfZipCodeRanges;
+                if (zipCodeRanges == null) {
+                    List<ZipCodeRange> readZipCodeRanges = new ArrayList<>();
+                    readZipCodeRanges((lowerRange, upperRange) ->
+                            readZipCodeRanges.add(new ZipCodeRange(lowerRange, upperRange)));
+                    zipCodeRanges = Collections.unmodifiableList(readZipCodeRanges);
+                    listOfZipCodeRanges = zipCodeRanges;
+                }
+            }
+        }
+        return zipCodeRanges;
+    }
+
+    /**
+     * Streams every range of the input file into sink, without keeping them in memory.
+     * @param sink receiver of the ranges
+     * @throws IOException when the file cannot be read or is not well formed
+     */
+    @Override
+    public void readZipCodeRanges(@NonNull IZipCodeRangeSink sink) throws IOException {
+        try (InputStream inputStream = filePath == null ? FileUtil.openResource(fileName) : FileUtil.openFile(filePath);
+             BufferedSource source = Okio.buffer(Okio.source(inputStream))) {
+            readZipCodeRanges(source, sink);
+        }
+    }
+
+    /**
+     * Streams every range of a JSON array in the format of the input file into sink, e.g. the answer of
+     * {@code GET /ranges}. The source is read to the end of the array but not closed.
+     * @param source JSON array of ranges
+     * @param sink receiver of the ranges
+     * @throws IOException when the source cannot be read or is not well formed
+     */
+    public static void readZipCodeRanges(@NonNull BufferedSource source, @NonNull IZipCodeRangeSink sink)
+            throws IOException {
+        JsonReader reader = JsonReader.of(source);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            readZipCodeRange(reader, sink);
+        }
+        reader.endArray();
+    }
+
+    private static void readZipCodeRange(JsonReader reader, IZipCodeRangeSink sink) throws IOException {
+        int lowerRange = -1;
+        int upperRange = -1;
+        String path = reader.getPath();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(rangeNames)) {
+                case 0:
+                    lowerRange = readCode(reader);
+                    break;
+                case 1:
+                    upperRange = readCode(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (lowerRange < 0 || upperRange < 0) {
+            throw new JsonDataException("Expected lowerRange and upperRange at " + path);
+        }
+        sink.accept(lowerRange, upperRange);
+    }
+
+    private static int readCode(JsonReader reader) throws IOException {
+        int code = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.selectName(codeNames) == 0) {
+                code = reader.nextInt();
+            } else {
+                reader.skipName();
+                reader.skipValue();
+            }
         }
-        return Collections.unmodifiableList(listOfZipCodeRanges);
+        reader.endObject();
+        return code;
     }
 }
@@ -0,0 +1,15 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.TimedZipCodeRange;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface ITimedZipCodeRangeDAO {
+
+    /**
+     * @return every range of the data source with its effective period, past, current and future
+     * @throws IOException when data source is incorrect
+     */
+    List<TimedZipCodeRange> getListOfTimedZipCodeRanges() throws IOException;
+}
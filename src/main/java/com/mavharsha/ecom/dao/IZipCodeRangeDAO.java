@@ -1,5 +1,6 @@
 package com.mavharsha.ecom.dao;
 
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
 import com.mavharsha.ecom.model.ZipCodeRange;
 
 import java.io.IOException;
@@ -7,4 +8,18 @@ import java.util.List;
 
 public interface IZipCodeRangeDAO {
     public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException;
+
+    /**
+     * Emits every range of the data source into sink. Implementations able to stream should override this to
+     * avoid materialising the whole list.
+     * @param sink receiver of the ranges
+     * @throws IOException when data source is incorrect
+     */
+    public default void readZipCodeRanges(IZipCodeRangeSink sink) throws IOException {
+        List<ZipCodeRange> listOfZipCodeRanges = getListOfZipCodeRanges();
+        for (int index = 0; index < listOfZipCodeRanges.size(); index++) {
+            ZipCodeRange zipCodeRange = listOfZipCodeRanges.get(index);
+            sink.accept(zipCodeRange.getLowerRange().getCode(), zipCodeRange.getUpperRange().getCode());
+        }
+    }
 }
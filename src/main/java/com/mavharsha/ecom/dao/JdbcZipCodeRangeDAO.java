@@ -0,0 +1,221 @@
+package com.mavharsha.ecom.dao;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads ranges from the two integer columns of a table. Rows are streamed with a tuned fetch size straight into
+ * consolidation, so no list of the raw ranges is ever built, and the table is queried again on every call.
+ * <p>
+ * When ordered, rows are read as {@code ORDER BY lower, upper} in pages, each page starting after the last row of
+ * the previous one (keyset paging), and merged online as they arrive; no in-memory sort is needed, and an index
+ * on {@code (lower, upper)} keeps every page cheap. Otherwise the table is read in one unordered scan and
+ * consolidated by a {@link ZipCodeRangeSetBuilder}.
+ */
+public class JdbcZipCodeRangeDAO implements IZipCodeRangeDAO {
+
+    public static final int defaultFetchSize = 10_000;
+    public static final int defaultPageSize = 100_000;
+
+    public static final String errorIdentifier = "Table and column names should be plain SQL identifiers.";
+    public static final String errorFetchSize = "Fetch size and page size should be positive.";
+
+    private static final Pattern identifier = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final DataSource dataSource;
+    private final String tableName;
+    private final String scanQuery;
+    private final String pageQuery;
+    private final boolean ordered;
+    private final int fetchSize;
+    private final int pageSize;
+
+    /**
+     * Reads the table ordered, with {@link #defaultFetchSize} and {@link #defaultPageSize}.
+     * @param dataSource connections to the database
+     * @param tableName table of the ranges
+     * @param lowerColumn integer column of the lower bounds
+     * @param upperColumn integer column of the upper bounds
+     */
+    public JdbcZipCodeRangeDAO(@NonNull DataSource dataSource, @NonNull String tableName,
+                               @NonNull String lowerColumn, @NonNull String upperColumn) {
+        this(dataSource, tableName, lowerColumn, upperColumn, true, defaultFetchSize, defaultPageSize);
+    }
+
+    /**
+     * @param dataSource connections to the database
+     * @param tableName table of the ranges
+     * @param lowerColumn integer column of the lower bounds
+     * @param upperColumn integer column of the upper bounds
+     * @param ordered true to read in keyset pages ordered by lower and upper bounds, false for one unordered scan
+     * @param fetchSize rows fetched per round trip
+     * @param pageSize rows per page when ordered
+     */
+    public JdbcZipCodeRangeDAO(@NonNull DataSource dataSource, @NonNull String tableName,
+                               @NonNull String lowerColumn, @NonNull String upperColumn, boolean ordered,
+                               int fetchSize, int pageSize) {
+        for (String name : Arrays.asList(tableName, lowerColumn, upperColumn)) {
+            Preconditions.checkArgument(identifier.matcher(name).matches(), errorIdentifier);
+        }
+        Preconditions.checkArgument(fetchSize > 0 && pageSize > 0, errorFetchSize);
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.scanQuery = "SELECT " + lowerColumn + ", " + upperColumn + " FROM " + tableName;
+        this.pageQuery = scanQuery + " WHERE " + lowerColumn + " > ? OR (" + lowerColumn + " = ? AND "
+                + upperColumn + " > ?) ORDER BY " + lowerColumn + ", " + upperColumn;
+        this.ordered = ordered;
+        this.fetchSize = fetchSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return consolidated ranges of the table
+     * @throws IOException when the table cannot be read or holds an invalid range
+     */
+    @Override
+    public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException {
+        return getZipCodeRangeSet().toZipCodeRanges();
+    }
+
+    /**
+     * Emits the consolidated ranges of the table, in order.
+     * @param sink receiver of the ranges
+     * @throws IOException when the table cannot be read or holds an invalid range
+     */
+    @Override
+    public void readZipCodeRanges(@NonNull IZipCodeRangeSink sink) throws IOException {
+        ZipCodeRangeSet zipCodeRangeSet = getZipCodeRangeSet();
+        for (int index = 0; index < zipCodeRangeSet.size(); index++) {
+            sink.accept(zipCodeRangeSet.lowerAt(index), zipCodeRangeSet.upperAt(index));
+        }
+    }
+
+    /**
+     * @return consolidated ranges of the table
+     * @throws IOException when the table cannot be read or holds an invalid range
+     */
+    public ZipCodeRangeSet getZipCodeRangeSet() throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            /* some drivers, e.g. PostgreSQL, only honour the fetch size inside a transaction */
+            connection.setAutoCommit(false);
+            try {
+                return ordered ? readOrdered(connection) : readUnordered(connection);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Cannot read ranges from " + tableName + ".", e);
+        }
+    }
+
+    private ZipCodeRangeSet readUnordered(Connection connection) throws SQLException, IOException {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder(ZipCodeRangeSetBuilder.defaultSweepThreshold);
+        try (PreparedStatement statement = prepare(connection, scanQuery);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                builder.add(lowerOf(resultSet), upperOf(resultSet));
+            }
+        }
+        return builder.build();
+    }
+
+    private ZipCodeRangeSet readOrdered(Connection connection) throws SQLException, IOException {
+        OnlineMerge merge = new OnlineMerge();
+        try (PreparedStatement statement = prepare(connection, pageQuery)) {
+            statement.setMaxRows(pageSize);
+            /* keys below every valid zipCode, so the first page starts at the first row */
+            int lastLower = Integer.MIN_VALUE;
+            int lastUpper = Integer.MIN_VALUE;
+            int rowCount;
+            do {
+                statement.setInt(1, lastLower);
+                statement.setInt(2, lastLower);
+                statement.setInt(3, lastUpper);
+                rowCount = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        lastLower = lowerOf(resultSet);
+                        lastUpper = upperOf(resultSet);
+                        merge.add(lastLower, lastUpper);
+                        rowCount++;
+                    }
+                }
+            } while (rowCount == pageSize);
+        }
+        return merge.toZipCodeRangeSet();
+    }
+
+    private PreparedStatement prepare(Connection connection, String query) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    private int lowerOf(ResultSet resultSet) throws SQLException, IOException {
+        return validCode(resultSet, 1);
+    }
+
+    private int upperOf(ResultSet resultSet) throws SQLException, IOException {
+        int upper = validCode(resultSet, 2);
+        if (upper < resultSet.getInt(1)) {
+            throw new IOException("Expected lower bound not above upper bound in " + tableName + ", got ["
+                    + resultSet.getInt(1) + ", " + upper + "].");
+        }
+        return upper;
+    }
+
+    private int validCode(ResultSet resultSet, int column) throws SQLException, IOException {
+        int code = resultSet.getInt(column);
+        if (resultSet.wasNull() || !ZipCode.isValidCode(code)) {
+            throw new IOException("Expected 5 digit zipCodes in " + tableName + ", got "
+                    + resultSet.getString(column) + ".");
+        }
+        return code;
+    }
+
+    /**
+     * Merges ranges arriving sorted by lower bound into consolidated arrays, in one pass.
+     */
+    private static final class OnlineMerge {
+
+        private int[] lows = new int[16];
+        private int[] highs = new int[16];
+        private int count;
+
+        void add(int lower, int upper) {
+            if (count > 0 && lower <= highs[count - 1] + 1) {
+                highs[count - 1] = Math.max(highs[count - 1], upper);
+                return;
+            }
+            if (count == lows.length) {
+                lows = Arrays.copyOf(lows, count * 2);
+                highs = Arrays.copyOf(highs, count * 2);
+            }
+            lows[count] = lower;
+            highs[count] = upper;
+            count++;
+        }
+
+        ZipCodeRangeSet toZipCodeRangeSet() {
+            return ZipCodeRangeSet.ofConsolidated(Arrays.copyOf(lows, count), Arrays.copyOf(highs, count));
+        }
+    }
+}
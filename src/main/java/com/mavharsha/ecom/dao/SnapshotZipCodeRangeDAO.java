@@ -0,0 +1,56 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.snapshot.MappedZipCodeRangeSnapshot;
+import com.mavharsha.ecom.snapshot.ZipCodeRangeSnapshot;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads already consolidated ranges from a memory mapped {@link ZipCodeRangeSnapshot}, skipping JSON parsing on
+ * start up. {@link #getSnapshot()} serves lookups directly off the mapped file.
+ */
+public class SnapshotZipCodeRangeDAO implements IZipCodeRangeDAO {
+
+    private final Path filePath;
+    private volatile MappedZipCodeRangeSnapshot snapshot;
+
+    /**
+     * @param filePath location of a snapshot written with {@link ZipCodeRangeSnapshot#write}
+     */
+    public SnapshotZipCodeRangeDAO(@NonNull Path filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * @return the mapped snapshot, opened on first use
+     * @throws IOException when the snapshot cannot be read
+     */
+    public MappedZipCodeRangeSnapshot getSnapshot() throws IOException {
+        MappedZipCodeRangeSnapshot mappedSnapshot = snapshot;
+        if (mappedSnapshot == null) {
+            synchronized (this) {
+                mappedSnapshot = snapshot;
+                if (mappedSnapshot == null) {
+                    mappedSnapshot = ZipCodeRangeSnapshot.open(filePath);
+                    snapshot = mappedSnapshot;
+                }
+            }
+        }
+        return mappedSnapshot;
+    }
+
+    @Override
+    public List<ZipCodeRange> getListOfZipCodeRanges() throws IOException {
+        return getSnapshot().toZipCodeRanges();
+    }
+
+    @Override
+    public void readZipCodeRanges(@NonNull IZipCodeRangeSink sink) throws IOException {
+        getSnapshot().readZipCodeRanges(sink);
+    }
+}
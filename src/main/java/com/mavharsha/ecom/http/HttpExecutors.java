@@ -0,0 +1,28 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for the request handlers. The build targets Java 8, so virtual threads are looked up reflectively and
+ * used only when the running JDK provides them.
+ */
+final class HttpExecutors {
+
+    private HttpExecutors() {}
+
+    /**
+     * @return a virtual thread per task executor on JDK 21 and later, else a cached pool of daemon threads
+     */
+    static ExecutorService newPerRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            /* older JDK, or virtual threads still a disabled preview feature */
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("zipcode-http-%d").setDaemon(true).build());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.mavharsha.ecom.metrics.LatencyHistogram;
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local load test of a {@link ShippingHttpServer}: a fixed number of connections send single lookups of random
+ * zipCodes back to back, and the latencies are reported as percentiles.
+ */
+public class HttpLoadTestClient {
+
+    public static final String errorRequestCount = "Request count should be positive.";
+    public static final String errorConcurrency = "Concurrency should be positive.";
+
+    private final String lookupUrl;
+
+    /**
+     * @param baseUrl server root, e.g. http://localhost:8080
+     */
+    public HttpLoadTestClient(@NonNull String baseUrl) {
+        this.lookupUrl = (baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl)
+                + "/ship?zipCode=";
+    }
+
+    /**
+     * @param requestCount lookups to send in total
+     * @param concurrency lookups in flight at any time
+     * @return latencies and throughput of the run
+     * @throws InterruptedException if interrupted while waiting for the lookups
+     */
+    public LoadTestReport run(int requestCount, int concurrency) throws InterruptedException {
+        Preconditions.checkArgument(requestCount > 0, errorRequestCount);
+        Preconditions.checkArgument(concurrency > 0, errorConcurrency);
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        AtomicLong errorCount = new AtomicLong();
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int worker = 0; worker < concurrency; worker++) {
+            int from = (int) ((long) requestCount * worker / concurrency);
+            int to = (int) ((long) requestCount * (worker + 1) / concurrency);
+            workers.add(executorService.submit(() -> {
+                for (int request = from; request < to; request++) {
+                    long requestStart = System.nanoTime();
+                    if (!lookup(ThreadLocalRandom.current().nextInt(ZipCode.minCode, ZipCode.maxCode + 1))) {
+                        errorCount.incrementAndGet();
+                    }
+                    latencyHistogram.record(System.nanoTime() - requestStart);
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+        return new LoadTestReport(latencyHistogram, errorCount.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * @return true if the server answered 200; the body is drained so that the connection is kept alive
+     */
+    private boolean lookup(int zipCode) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(lookupUrl + zipCode).openConnection();
+            int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    ByteStreams.exhaust(body);
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param args base url of the server, then optionally the request count and the concurrency
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: <base url> [requests] [concurrency]");
+            System.exit(2);
+        }
+        int requestCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        HttpLoadTestClient client = new HttpLoadTestClient(args[0]);
+        /* warm up the server and the connections before measuring */
+        client.run(Math.max(1, requestCount / 10), concurrency);
+        System.out.println(client.run(requestCount, concurrency));
+    }
+}
@@ -0,0 +1,183 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.squareup.moshi.JsonReader;
+import lombok.NonNull;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link IShippingService} answered by a remote {@link ShippingHttpServer}. Batches are sent in requests of at
+ * most {@link ShippingHttpServer#maxBatchSize} zipCodes; connections are kept alive by the JDK.
+ */
+public class HttpShippingClient implements IShippingService {
+
+    public static final String errorResultLength = "Result arrays should be at least as long as zipCodes.";
+
+    private static final JsonReader.Options statusNames = JsonReader.Options.of("status");
+    private static final JsonReader.Options statuses = JsonReader.Options.of("SHIPPABLE", "NOT_SHIPPABLE",
+            "INVALID");
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl url of the server, e.g. {@code http://localhost:8080}
+     */
+    public HttpShippingClient(@NonNull String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * The server only exposes consolidated ranges, so this is the same as
+     * {@link #getConsolidatedShippableZipCodeRanges()}.
+     */
+    @Override
+    public List<ZipCodeRange> getListZipCodeRanges() throws IOException {
+        return getConsolidatedShippableZipCodeRanges();
+    }
+
+    @Override
+    public List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException {
+        HttpURLConnection connection = open("/ranges", "GET");
+        List<ZipCodeRange> zipCodeRanges = new ArrayList<>();
+        try (BufferedSource source = Okio.buffer(Okio.source(responseBody(connection)))) {
+            FileZipCodeRangeDAO.readZipCodeRanges(source, (lowerRange, upperRange) ->
+                    zipCodeRanges.add(new ZipCodeRange(lowerRange, upperRange)));
+        }
+        return Collections.unmodifiableList(zipCodeRanges);
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException {
+        return canBeShippedToZipCode(zipCode.getCode());
+    }
+
+    /**
+     * @throws IllegalArgumentException when zipCode is not a 5 digit positive integer, checked before any request
+     * @throws IOException when the server cannot be reached or cannot answer
+     */
+    @Override
+    public boolean canBeShippedToZipCode(int zipCode) throws IOException {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        HttpURLConnection connection = open("/ship?zipCode=" + zipCode, "GET");
+        try (BufferedSource source = Okio.buffer(Okio.source(responseBody(connection)));
+             JsonReader reader = JsonReader.of(source)) {
+            int status = -1;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.selectName(statusNames) == 0) {
+                    status = reader.selectString(statuses);
+                } else {
+                    reader.skipName();
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (status < 0) {
+                throw new IOException("Unexpected answer from " + connection.getURL());
+            }
+            return status == 0;
+        }
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException {
+        boolean[] shippableCodes = new boolean[zipCodes.length];
+        boolean[] invalidCodes = new boolean[zipCodes.length];
+        int shippableCount = canBeShippedToZipCodes(zipCodes, shippableCodes, invalidCodes, false);
+        for (int position = 0; position < zipCodes.length; position++) {
+            shippable.set(position, shippableCodes[position]);
+            invalid.set(position, invalidCodes[position]);
+        }
+        return shippableCount;
+    }
+
+    /**
+     * @param parallel ignored; the server decides how to evaluate a batch
+     * @throws IOException when the server cannot be reached or cannot answer
+     */
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable,
+                                      @NonNull boolean[] invalid, boolean parallel) throws IOException {
+        Preconditions.checkArgument(shippable.length >= zipCodes.length && invalid.length >= zipCodes.length,
+                errorResultLength);
+        int shippableCount = 0;
+        for (int from = 0; from < zipCodes.length; from += ShippingHttpServer.maxBatchSize) {
+            shippableCount += lookup(zipCodes, from, Math.min(zipCodes.length, from + ShippingHttpServer.maxBatchSize),
+                    shippable, invalid);
+        }
+        return shippableCount;
+    }
+
+    private int lookup(int[] zipCodes, int from, int to, boolean[] shippable, boolean[] invalid)
+            throws IOException {
+        StringBuilder request = new StringBuilder((to - from) * 6);
+        for (int position = from; position < to; position++) {
+            request.append(position == from ? "" : ",").append(zipCodes[position]);
+        }
+        HttpURLConnection connection = open("/ship/batch", "POST");
+        connection.setDoOutput(true);
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(request.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        int shippableCount = 0;
+        try (BufferedSource source = Okio.buffer(Okio.source(responseBody(connection)));
+             JsonReader reader = JsonReader.of(source)) {
+            reader.beginArray();
+            for (int position = from; position < to; position++) {
+                int status = reader.hasNext() ? reader.selectString(statuses) : -1;
+                if (status < 0) {
+                    throw new IOException("Unexpected answer from " + connection.getURL());
+                }
+                shippable[position] = status == 0;
+                invalid[position] = status == 2;
+                shippableCount += status == 0 ? 1 : 0;
+            }
+            reader.endArray();
+        }
+        return shippableCount;
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    /**
+     * @throws IOException unless the server answered 200; the error body is drained to keep the connection alive
+     */
+    private static InputStream responseBody(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status != 200) {
+            try (InputStream body = connection.getErrorStream()) {
+                if (body != null) {
+                    ByteStreams.exhaust(body);
+                }
+            }
+            throw new IOException("Server answered " + status + " to " + connection.getURL());
+        }
+        return connection.getInputStream();
+    }
+}
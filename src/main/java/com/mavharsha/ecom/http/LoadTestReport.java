@@ -0,0 +1,100 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.metrics.LatencyHistogram;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link HttpLoadTestClient} or {@link com.mavharsha.ecom.workload.LoadDriver} run. Latencies are
+ * kept in a {@link LatencyHistogram}, so a report takes the same memory whatever the length of the run.
+ */
+public class LoadTestReport {
+
+    public static final String errorPercentile = "Percentile should be between 0 and 100.";
+
+    private final LatencyHistogram latencyHistogram;
+    private final long errorCount;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+
+    /**
+     * @param latencyHistogram latency of every request, successful or not
+     * @param errorCount requests that failed or did not answer 200
+     * @param elapsedNanos duration of the whole run
+     */
+    public LoadTestReport(@NonNull LatencyHistogram latencyHistogram, long errorCount, long elapsedNanos) {
+        this(latencyHistogram, errorCount, elapsedNanos, -1);
+    }
+
+    /**
+     * @param latencyHistogram latency of every request, successful or not
+     * @param errorCount requests that failed
+     * @param elapsedNanos duration of the whole run
+     * @param allocatedBytes bytes allocated by the sending threads while running, -1 if unknown
+     */
+    public LoadTestReport(@NonNull LatencyHistogram latencyHistogram, long errorCount, long elapsedNanos,
+                          long allocatedBytes) {
+        this.latencyHistogram = latencyHistogram;
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public long getRequestCount() {
+        return latencyHistogram.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return bytes allocated by the sending threads while running, -1 if unknown
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return bytes allocated per request, NaN if unknown
+     */
+    public double getAllocatedBytesPerRequest() {
+        long requestCount = getRequestCount();
+        return allocatedBytes < 0 || requestCount == 0 ? Double.NaN : allocatedBytes / (double) requestCount;
+    }
+
+    /**
+     * @return requests per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getRequestCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9 for the p999
+     * @return the latency that percentile of the requests did not exceed, within the precision of
+     * {@link LatencyHistogram}; 0 when there were no requests
+     */
+    public long getLatencyNanos(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, errorPercentile);
+        return latencyHistogram.getValueAtPercentile(percentile);
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    @Override
+    public String toString() {
+        String report = String.format("%d requests, %d errors, %.0f req/s, p50 %.3f us, p99 %.3f us, p999 %.3f us, "
+                        + "max %.3f us", getRequestCount(), errorCount, getThroughput(), getLatencyNanos(50) / 1e3,
+                getLatencyNanos(99) / 1e3, getLatencyNanos(99.9) / 1e3, latencyHistogram.getMax() / 1e3);
+        return allocatedBytes < 0 ? report : report + String.format(", %.1f B/request", getAllocatedBytesPerRequest());
+    }
+}
@@ -0,0 +1,327 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.io.ByteStreams;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.squareup.moshi.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import okio.Buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Embedded HTTP front end of an {@link IShippingService}, on the JDK's built-in server.
+ * <ul>
+ * <li>{@code GET /ship?zipCode=94133} answers {@code {"status":"SHIPPABLE"}} or {@code {"status":"NOT_SHIPPABLE"}},
+ * and 400 for an invalid zipCode.</li>
+ * <li>{@code POST /ship/batch} takes zipCodes as a JSON array, or separated by whitespace or commas, and answers
+ * a JSON array of {@code "SHIPPABLE"}, {@code "NOT_SHIPPABLE"} or {@code "INVALID"}, in request order.</li>
+ * <li>{@code GET /ranges} answers the consolidated ranges in the format of the input file.</li>
+ * </ul>
+ * Single lookups answer pre-serialised bodies, and the ranges are serialised once per set of rules. Requests run on
+ * virtual threads when the JDK has them. A failure of the service answers 503 for an unavailable data source and 500
+ * for anything else.
+ */
+public class ShippingHttpServer implements Closeable {
+
+    public static final int maxBatchSize = 1 << 20;
+
+    /* room for maxBatchSize zipCodes with generous separators */
+    private static final int maxRequestLength = 16 * maxBatchSize;
+
+    private static final String noDelayProperty = "sun.net.httpserver.nodelay";
+
+    private static final String lookupPath = "/ship";
+    private static final String batchPath = "/ship/batch";
+    private static final String rangesPath = "/ranges";
+    private static final String zipCodeParameter = "zipCode=";
+
+    private static final byte[] shippableBody = bytes("{\"status\":\"SHIPPABLE\"}");
+    private static final byte[] notShippableBody = bytes("{\"status\":\"NOT_SHIPPABLE\"}");
+    private static final byte[] invalidZipCodeBody = bytes("{\"error\":\"Expected a zipCode between 10000 and 99999.\"}");
+    private static final byte[] batchTooLargeBody = bytes("{\"error\":\"Expected at most " + maxBatchSize
+            + " zipCodes.\"}");
+    private static final byte[] unavailableBody = bytes("{\"error\":\"Shipping rules are unavailable.\"}");
+    private static final byte[] internalErrorBody = bytes("{\"error\":\"Shipping rules could not be evaluated.\"}");
+    private static final byte[] shippableElement = bytes("\"SHIPPABLE\"");
+    private static final byte[] notShippableElement = bytes("\"NOT_SHIPPABLE\"");
+    private static final byte[] invalidElement = bytes("\"INVALID\"");
+    private static final byte[] emptyBody = new byte[0];
+
+    private final IShippingService shippingService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile RangesBody rangesBody;
+
+    /**
+     * Binds the server; it does not answer until {@link #start()}.
+     *
+     * @param shippingService service the lookups are answered from
+     * @param address address to listen on, port 0 for any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public ShippingHttpServer(@NonNull IShippingService shippingService, @NonNull InetSocketAddress address)
+            throws IOException {
+        this.shippingService = shippingService;
+        this.server = HttpServer.create(address, 0);
+        this.executor = HttpExecutors.newPerRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(lookupPath, answerErrors(this::handleLookup));
+        server.createContext(batchPath, answerErrors(this::handleBatch));
+        server.createContext(rangesPath, answerErrors(this::handleRanges));
+    }
+
+    /**
+     * Turns on TCP_NODELAY for every JDK HTTP server of the process, through the {@code sun.net.httpserver.nodelay}
+     * system property. Without it, small keep-alive responses wait ~40ms on Nagle and delayed acknowledgements. The
+     * JDK reads the property once, when the first server is created, so call this before creating any server; a
+     * value already set, e.g. on the command line, is kept.
+     */
+    public static void enableNoDelay() {
+        if (System.getProperty(noDelayProperty) == null) {
+            System.setProperty(noDelayProperty, "true");
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and interrupts the running ones.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleLookup(HttpExchange exchange) throws IOException {
+        if (!accept(exchange, lookupPath, "GET")) {
+            return;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        int zipCode = query != null && query.startsWith(zipCodeParameter)
+                ? parseCode(query, zipCodeParameter.length(), query.length()) : -1;
+        if (!ZipCode.isValidCode(zipCode)) {
+            send(exchange, 400, invalidZipCodeBody);
+            return;
+        }
+        boolean shippable;
+        try {
+            /* any other failure of the service, e.g. rules that do not load, is answered 500 by answerErrors */
+            shippable = shippingService.canBeShippedToZipCode(zipCode);
+        } catch (IOException e) {
+            send(exchange, 503, unavailableBody);
+            return;
+        }
+        send(exchange, 200, shippable ? shippableBody : notShippableBody);
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!accept(exchange, batchPath, "POST")) {
+            return;
+        }
+        byte[] request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = ByteStreams.toByteArray(ByteStreams.limit(body, maxRequestLength + 1));
+        }
+        int[] zipCodes = request.length > maxRequestLength ? null : parseCodes(request);
+        if (zipCodes == null) {
+            send(exchange, 413, batchTooLargeBody);
+            return;
+        }
+        boolean[] shippable = new boolean[zipCodes.length];
+        boolean[] invalid = new boolean[zipCodes.length];
+        try {
+            shippingService.canBeShippedToZipCodes(zipCodes, shippable, invalid, false);
+        } catch (IOException e) {
+            send(exchange, 503, unavailableBody);
+            return;
+        }
+
+        int length = 2 + Math.max(0, zipCodes.length - 1);
+        for (int position = 0; position < zipCodes.length; position++) {
+            length += element(shippable[position], invalid[position]).length;
+        }
+        byte[] response = new byte[length];
+        int offset = 0;
+        response[offset++] = '[';
+        for (int position = 0; position < zipCodes.length; position++) {
+            if (position > 0) {
+                response[offset++] = ',';
+            }
+            byte[] element = element(shippable[position], invalid[position]);
+            System.arraycopy(element, 0, response, offset, element.length);
+            offset += element.length;
+        }
+        response[offset] = ']';
+        send(exchange, 200, response);
+    }
+
+    private void handleRanges(HttpExchange exchange) throws IOException {
+        if (!accept(exchange, rangesPath, "GET")) {
+            return;
+        }
+        List<ZipCodeRange> zipCodeRanges;
+        try {
+            zipCodeRanges = shippingService.getConsolidatedShippableZipCodeRanges();
+        } catch (IOException e) {
+            send(exchange, 503, unavailableBody);
+            return;
+        }
+        RangesBody body = rangesBody;
+        if (body == null || body.zipCodeRanges != zipCodeRanges) {
+            /* the services hand out the same list until their rules change */
+            body = new RangesBody(zipCodeRanges, serialize(zipCodeRanges));
+            rangesBody = body;
+        }
+        send(exchange, 200, body.json);
+    }
+
+    /**
+     * Answers 500 when handler fails unexpectedly, unless it already answered.
+     */
+    private static HttpHandler answerErrors(HttpHandler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (RuntimeException e) {
+                if (exchange.getResponseCode() == -1) {
+                    send(exchange, 500, internalErrorBody);
+                } else {
+                    exchange.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Answers 404 for unknown paths below the context and 405 for other methods.
+     */
+    private static boolean accept(HttpExchange exchange, String path, String method) throws IOException {
+        if (!path.equals(exchange.getRequestURI().getPath())) {
+            send(exchange, 404, emptyBody);
+            return false;
+        }
+        if (!method.equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", method);
+            send(exchange, 405, emptyBody);
+            return false;
+        }
+        return true;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(body);
+        }
+    }
+
+    private static byte[] element(boolean shippable, boolean invalid) {
+        return invalid ? invalidElement : shippable ? shippableElement : notShippableElement;
+    }
+
+    /**
+     * @return -1 unless the characters between from and to are at most 9 digits
+     */
+    private static int parseCode(String text, int from, int to) {
+        if (from == to || to - from > 9) {
+            return -1;
+        }
+        int code = 0;
+        for (int index = from; index < to; index++) {
+            char character = text.charAt(index);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            code = code * 10 + (character - '0');
+        }
+        return code;
+    }
+
+    /**
+     * @return the zipCodes of the request, tokens that are not a number as -1, or null past {@link #maxBatchSize}
+     */
+    private static int[] parseCodes(byte[] request) {
+        int[] zipCodes = new int[Math.min(maxBatchSize, request.length / 2 + 1)];
+        int count = 0;
+        int code = 0;
+        int digits = 0;
+        boolean malformed = false;
+        for (int index = 0; index <= request.length; index++) {
+            byte character = index < request.length ? request[index] : (byte) ' ';
+            if (character >= '0' && character <= '9') {
+                code = code * 10 + (character - '0');
+                digits++;
+            } else if (character == ',' || character == ' ' || character == '\n' || character == '\r'
+                    || character == '\t' || character == '[' || character == ']') {
+                if (digits > 0 || malformed) {
+                    if (count == maxBatchSize) {
+                        return null;
+                    }
+                    zipCodes[count++] = malformed || digits > 9 ? -1 : code;
+                    code = 0;
+                    digits = 0;
+                    malformed = false;
+                }
+            } else {
+                malformed = true;
+            }
+        }
+        return Arrays.copyOf(zipCodes, count);
+    }
+
+    private static byte[] serialize(List<ZipCodeRange> zipCodeRanges) throws IOException {
+        Buffer buffer = new Buffer();
+        JsonWriter writer = JsonWriter.of(buffer);
+        writer.beginArray();
+        for (ZipCodeRange zipCodeRange : zipCodeRanges) {
+            writer.beginObject();
+            writer.name("lowerRange").beginObject().name("code").value(zipCodeRange.getLowerRange().getCode())
+                    .endObject();
+            writer.name("upperRange").beginObject().name("code").value(zipCodeRange.getUpperRange().getCode())
+                    .endObject();
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.close();
+        return buffer.readByteArray();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class RangesBody {
+
+        private final List<ZipCodeRange> zipCodeRanges;
+        private final byte[] json;
+
+        private RangesBody(List<ZipCodeRange> zipCodeRanges, byte[] json) {
+            this.zipCodeRanges = zipCodeRanges;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Dense bitmap over the whole 5 digit domain ({@link ZipCode#minCode} to {@link ZipCode#maxCode}), one bit per
+ * zipCode (~11 KB). Built once from a list of ranges and answers lookups in constant time without allocating.
+ */
+@ToString
+@EqualsAndHashCode
+public class BitSetZipCodeIndex implements IZipCodeIndex {
+
+    private static final int domainSize = ZipCode.maxCode - ZipCode.minCode + 1;
+
+    private final BitSet zipCodes;
+
+    /**
+     * @param listOfZipCodeRanges ranges to be indexed, in any order and possibly overlapping
+     */
+    public BitSetZipCodeIndex(@NonNull List<ZipCodeRange> listOfZipCodeRanges) {
+        this.zipCodes = new BitSet(domainSize);
+        for (int index = 0; index < listOfZipCodeRanges.size(); index++) {
+            ZipCodeRange zipCodeRange = listOfZipCodeRanges.get(index);
+            zipCodes.set(zipCodeRange.getLowerRange().getCode() - ZipCode.minCode,
+                    zipCodeRange.getUpperRange().getCode() - ZipCode.minCode + 1);
+        }
+    }
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @return true if zipCode is in one of the indexed ranges, false if not or if it is not a valid zipCode
+     */
+    @Override
+    public boolean contains(int zipCode) {
+        return ZipCode.isValidCode(zipCode) && zipCodes.get(zipCode - ZipCode.minCode);
+    }
+
+    /**
+     * @return number of zipCodes covered by the index
+     */
+    public int cardinality() {
+        return zipCodes.cardinality();
+    }
+
+    /**
+     * @return memory held by the bitmap
+     */
+    @Override
+    public long getSizeInBytes() {
+        return zipCodes.size() / Byte.SIZE;
+    }
+}
@@ -0,0 +1,305 @@
+package com.mavharsha.ecom.index;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index specialised for one small set of ranges: a class generated at runtime whose {@code contains} is a balanced
+ * tree of comparisons against the range boundaries, with the boundaries as bytecode constants. There is no array
+ * to load and no loop, so the JIT compiles it to straight-line code and can inline it into its callers, which it
+ * does for methods under ~325 bytes of bytecode, i.e. up to ~16 ranges.
+ * <p>
+ * The tree still branches on the zipCode, so with random lookups it beats a binary search over a
+ * {@link ZipCodeRangeSet} at every size but only keeps up with the single bit read of a {@link BitSetZipCodeIndex}
+ * for a handful of ranges (see {@code CompiledIndexBenchmark}). {@link #of(List)} therefore only compiles sets of
+ * at most {@link #defaultMaxRangeCount} ranges and falls back to a {@link BitSetZipCodeIndex} for larger ones; the
+ * method grows by ~18 bytes per range, and as the JIT does not compile methods over 8000 bytes at all, no more
+ * than {@link #maxRangeCount} ranges are ever compiled. Every compiled class has its own class loader, so it is
+ * unloaded once its index is no longer used.
+ */
+public abstract class CompiledZipCodeIndex implements IZipCodeIndex {
+
+    public static final int defaultMaxRangeCount = 8;
+    public static final int maxRangeCount = 256;
+
+    public static final String errorTooManyRanges = "At most " + maxRangeCount + " ranges can be compiled.";
+
+    private static final String superName = CompiledZipCodeIndex.class.getName().replace('.', '/');
+    private static final String generatedNamePrefix = superName.substring(0, superName.lastIndexOf('/') + 1)
+            + "GeneratedZipCodeIndex";
+    private static final AtomicLong generatedCount = new AtomicLong();
+
+    /* set once, right after construction and before the index is handed out */
+    private int rangeCount;
+    private long sizeInBytes;
+
+    protected CompiledZipCodeIndex() {
+    }
+
+    /**
+     * @param listOfShippableZipCodes consolidated ranges
+     * @return a compiled index if there are at most {@link #defaultMaxRangeCount} ranges, else a
+     * {@link BitSetZipCodeIndex}
+     */
+    public static IZipCodeIndex of(@NonNull List<ZipCodeRange> listOfShippableZipCodes) {
+        return of(listOfShippableZipCodes, defaultMaxRangeCount);
+    }
+
+    /**
+     * @param listOfZipCodeRanges ranges to be indexed, in any order and possibly overlapping
+     * @param maxCompiledRangeCount largest number of consolidated ranges to compile, at most {@link #maxRangeCount}
+     * @return a compiled index if there are at most maxCompiledRangeCount consolidated ranges, else a
+     * {@link BitSetZipCodeIndex}
+     */
+    public static IZipCodeIndex of(@NonNull List<ZipCodeRange> listOfZipCodeRanges, int maxCompiledRangeCount) {
+        Preconditions.checkArgument(maxCompiledRangeCount <= maxRangeCount, errorTooManyRanges);
+        ZipCodeRangeSet zipCodeRangeSet = ZipCodeRangeSet.of(listOfZipCodeRanges);
+        return zipCodeRangeSet.size() <= maxCompiledRangeCount ? compile(zipCodeRangeSet)
+                : new BitSetZipCodeIndex(listOfZipCodeRanges);
+    }
+
+    /**
+     * @param zipCodeRangeSet ranges to be compiled
+     * @return an index answering exactly as zipCodeRangeSet does
+     * @throws IllegalArgumentException when there are more than {@link #maxRangeCount} ranges
+     */
+    public static CompiledZipCodeIndex compile(@NonNull ZipCodeRangeSet zipCodeRangeSet) {
+        Preconditions.checkArgument(zipCodeRangeSet.size() <= maxRangeCount, errorTooManyRanges);
+        /* the count of boundaries at or below a zipCode is odd exactly inside a range */
+        int[] boundaries = new int[zipCodeRangeSet.size() * 2];
+        for (int index = 0; index < zipCodeRangeSet.size(); index++) {
+            boundaries[2 * index] = zipCodeRangeSet.lowerAt(index);
+            boundaries[2 * index + 1] = zipCodeRangeSet.upperAt(index) + 1;
+        }
+        String className = generatedNamePrefix + generatedCount.incrementAndGet();
+        byte[] classFile = new ClassWriter(className, boundaries).toByteArray();
+        try {
+            Class<?> generatedClass = new GeneratedClassLoader(CompiledZipCodeIndex.class.getClassLoader())
+                    .define(className.replace('/', '.'), classFile);
+            CompiledZipCodeIndex index = (CompiledZipCodeIndex) generatedClass.getDeclaredConstructor().newInstance();
+            index.rangeCount = zipCodeRangeSet.size();
+            index.sizeInBytes = classFile.length;
+            return index;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @return true if zipCode is in one of the compiled ranges, false if not or if it is not a valid zipCode
+     */
+    @Override
+    public abstract boolean contains(int zipCode);
+
+    /**
+     * @return number of compiled ranges
+     */
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    /**
+     * @return size of the generated class file
+     */
+    @Override
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledZipCodeIndex(rangeCount=" + rangeCount + ")";
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+
+    /**
+     * Writes a minimal class file extending {@link CompiledZipCodeIndex}, with a no-arg constructor and
+     * {@code contains}. Version 50 class files need no stack map frames, so branches are plain offsets.
+     */
+    private static final class ClassWriter {
+
+        private static final int classVersion = 50;
+        private static final int accPublic = 0x0001;
+        private static final int accFinal = 0x0010;
+        private static final int accSuper = 0x0020;
+
+        private static final int constantUtf8 = 1;
+        private static final int constantInteger = 3;
+        private static final int constantClass = 7;
+        private static final int constantMethodRef = 10;
+        private static final int constantNameAndType = 12;
+
+        private static final int opIconst0 = 0x03;
+        private static final int opIconst1 = 0x04;
+        private static final int opSipush = 0x11;
+        private static final int opLdcW = 0x13;
+        private static final int opIload1 = 0x1b;
+        private static final int opAload0 = 0x2a;
+        private static final int opIfIcmpge = 0xa2;
+        private static final int opIreturn = 0xac;
+        private static final int opReturn = 0xb1;
+        private static final int opInvokespecial = 0xb7;
+
+        private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+        private final DataOutputStream constants = new DataOutputStream(constantPool);
+        private final Map<Integer, Integer> integerConstants = new HashMap<>();
+        private int constantCount = 1;
+        private final String className;
+        private final int[] boundaries;
+        private byte[] code = new byte[64];
+        private int codeLength;
+
+        private ClassWriter(String className, int[] boundaries) {
+            this.className = className;
+            this.boundaries = boundaries;
+        }
+
+        private byte[] toByteArray() {
+            try {
+                int thisClass = addClass(className);
+                int superClass = addClass(superName);
+                int constructorName = addUtf8("<init>");
+                int constructorDescriptor = addUtf8("()V");
+                int superConstructor = add(constantMethodRef, superClass,
+                        add(constantNameAndType, constructorName, constructorDescriptor));
+                int containsName = addUtf8("contains");
+                int containsDescriptor = addUtf8("(I)Z");
+                int codeName = addUtf8("Code");
+
+                /* the tree first, as it adds the integer constants to the pool */
+                emitTree(0, boundaries.length);
+                byte[] containsCode = Arrays.copyOf(code, codeLength);
+                byte[] constructorCode = {(byte) opAload0, (byte) opInvokespecial, (byte) (superConstructor >> 8),
+                        (byte) superConstructor, (byte) opReturn};
+
+                ByteArrayOutputStream classFile = new ByteArrayOutputStream(256 + constantPool.size()
+                        + containsCode.length);
+                DataOutputStream output = new DataOutputStream(classFile);
+                output.writeInt(0xCAFEBABE);
+                output.writeShort(0);
+                output.writeShort(classVersion);
+                output.writeShort(constantCount);
+                constantPool.writeTo(output);
+                output.writeShort(accPublic | accFinal | accSuper);
+                output.writeShort(thisClass);
+                output.writeShort(superClass);
+                output.writeShort(0);
+                output.writeShort(0);
+                output.writeShort(2);
+                writeMethod(output, constructorName, constructorDescriptor, codeName, 1, 1, constructorCode);
+                writeMethod(output, containsName, containsDescriptor, codeName, 2, 2, containsCode);
+                output.writeShort(0);
+                output.flush();
+                return classFile.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Emits the code answering for zipCodes with between fromCount and toCount boundaries at or below them.
+         */
+        private void emitTree(int fromCount, int toCount) throws IOException {
+            if (fromCount == toCount) {
+                emit(fromCount % 2 == 1 ? opIconst1 : opIconst0);
+                emit(opIreturn);
+                return;
+            }
+            int middleCount = (fromCount + toCount + 1) / 2;
+            emit(opIload1);
+            emitConstant(boundaries[middleCount - 1]);
+            int branch = codeLength;
+            emit(opIfIcmpge);
+            emit(0);
+            emit(0);
+            emitTree(fromCount, middleCount - 1);
+            int offset = codeLength - branch;
+            code[branch + 1] = (byte) (offset >> 8);
+            code[branch + 2] = (byte) offset;
+            emitTree(middleCount, toCount);
+        }
+
+        private void emitConstant(int value) throws IOException {
+            if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                emit(opSipush);
+                emit(value >> 8);
+                emit(value);
+                return;
+            }
+            Integer constant = integerConstants.get(value);
+            if (constant == null) {
+                constants.writeByte(constantInteger);
+                constants.writeInt(value);
+                constant = constantCount++;
+                integerConstants.put(value, constant);
+            }
+            emit(opLdcW);
+            emit(constant >> 8);
+            emit(constant);
+        }
+
+        private void emit(int value) {
+            if (codeLength == code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[codeLength++] = (byte) value;
+        }
+
+        private int addUtf8(String value) throws IOException {
+            constants.writeByte(constantUtf8);
+            constants.writeUTF(value);
+            return constantCount++;
+        }
+
+        private int addClass(String name) throws IOException {
+            int nameIndex = addUtf8(name);
+            return add(constantClass, nameIndex);
+        }
+
+        private int add(int tag, int... indexes) throws IOException {
+            constants.writeByte(tag);
+            for (int index : indexes) {
+                constants.writeShort(index);
+            }
+            return constantCount++;
+        }
+
+        private static void writeMethod(DataOutputStream output, int name, int descriptor, int codeName,
+                                        int maxStack, int maxLocals, byte[] code) throws IOException {
+            output.writeShort(accPublic);
+            output.writeShort(name);
+            output.writeShort(descriptor);
+            output.writeShort(1);
+            output.writeShort(codeName);
+            output.writeInt(12 + code.length);
+            output.writeShort(maxStack);
+            output.writeShort(maxLocals);
+            output.writeInt(code.length);
+            output.write(code);
+            output.writeShort(0);
+            output.writeShort(0);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mavharsha.ecom.index;
+
+public interface IZipCodeIndex {
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @return true if zipCode is covered by the index, else false. Never throws for out of domain values.
+     */
+    boolean contains(int zipCode);
+
+    /**
+     * @return memory held by the index, -1 if unknown
+     */
+    default long getSizeInBytes() {
+        return -1;
+    }
+}
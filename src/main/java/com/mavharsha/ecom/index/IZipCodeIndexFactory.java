@@ -0,0 +1,28 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+
+import java.util.List;
+
+/**
+ * Builds the lookup index of a service from its consolidated ranges.
+ */
+@FunctionalInterface
+public interface IZipCodeIndexFactory {
+
+    /**
+     * Constant time lookups whatever the number of ranges.
+     */
+    IZipCodeIndexFactory bitSet = BitSetZipCodeIndex::new;
+
+    /**
+     * Generated straight-line code for small sets of ranges, a bitmap for the others.
+     */
+    IZipCodeIndexFactory compiled = CompiledZipCodeIndex::of;
+
+    /**
+     * @param listOfShippableZipCodes consolidated ranges
+     * @return index of the ranges
+     */
+    IZipCodeIndex create(List<ZipCodeRange> listOfShippableZipCodes);
+}
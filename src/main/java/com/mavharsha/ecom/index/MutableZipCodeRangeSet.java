@@ -0,0 +1,160 @@
+package com.mavharsha.ecom.index;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consolidated set of ranges that can be updated one range at a time, for restrictions being added or lifted
+ * without re-reading and re-consolidating every range. Ranges are kept in a {@link TreeMap} from lowerBound to
+ * upperBound and are always disjoint and non adjacent, so the set stays the minimum number of ranges.
+ * {@link #add} and {@link #remove} take amortised O(log n).
+ * <p>
+ * Updates are synchronized. Lookups should go through {@link #snapshot()}, an immutable {@link ZipCodeRangeSet}
+ * cached until the next update.
+ */
+public class MutableZipCodeRangeSet {
+
+    private final TreeMap<Integer, Integer> upperRangeByLowerRange;
+    private volatile ZipCodeRangeSet snapshot;
+
+    public MutableZipCodeRangeSet() {
+        this(ZipCodeRangeSet.empty());
+    }
+
+    /**
+     * @param zipCodeRangeSet initial content of the set
+     */
+    public MutableZipCodeRangeSet(@NonNull ZipCodeRangeSet zipCodeRangeSet) {
+        this.upperRangeByLowerRange = new TreeMap<>();
+        for (int index = 0; index < zipCodeRangeSet.size(); index++) {
+            upperRangeByLowerRange.put(zipCodeRangeSet.lowerAt(index), zipCodeRangeSet.upperAt(index));
+        }
+        this.snapshot = zipCodeRangeSet;
+    }
+
+    /**
+     * Adds a range, merging it with every range it overlaps or touches.
+     * @param lowerRange lowerBound of the range, inclusive
+     * @param upperRange upperBound of the range, inclusive
+     * @return this set
+     */
+    public synchronized MutableZipCodeRangeSet add(int lowerRange, int upperRange) {
+        validateRange(lowerRange, upperRange);
+        Map.Entry<Integer, Integer> floorRange = upperRangeByLowerRange.floorEntry(lowerRange);
+        if (floorRange != null && floorRange.getValue() >= lowerRange - 1) {
+            if (floorRange.getValue() >= upperRange) {
+                return this;
+            }
+            lowerRange = floorRange.getKey();
+            upperRangeByLowerRange.remove(lowerRange);
+        }
+        Map.Entry<Integer, Integer> nextRange;
+        while ((nextRange = upperRangeByLowerRange.ceilingEntry(lowerRange)) != null
+                && nextRange.getKey() <= upperRange + 1) {
+            upperRange = Math.max(upperRange, nextRange.getValue());
+            upperRangeByLowerRange.remove(nextRange.getKey());
+        }
+        upperRangeByLowerRange.put(lowerRange, upperRange);
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * @param zipCodeRange A ZipCodeRange
+     * @return this set
+     */
+    public MutableZipCodeRangeSet add(@NonNull ZipCodeRange zipCodeRange) {
+        return add(zipCodeRange.getLowerRange().getCode(), zipCodeRange.getUpperRange().getCode());
+    }
+
+    /**
+     * Removes every zipCode of a range, trimming or splitting the ranges it overlaps.
+     * @param lowerRange lowerBound of the range, inclusive
+     * @param upperRange upperBound of the range, inclusive
+     * @return this set
+     */
+    public synchronized MutableZipCodeRangeSet remove(int lowerRange, int upperRange) {
+        validateRange(lowerRange, upperRange);
+        Map.Entry<Integer, Integer> floorRange = upperRangeByLowerRange.floorEntry(lowerRange);
+        if (floorRange != null && floorRange.getValue() >= lowerRange) {
+            removeOverlap(floorRange, lowerRange, upperRange);
+        }
+        Map.Entry<Integer, Integer> nextRange;
+        while ((nextRange = upperRangeByLowerRange.ceilingEntry(lowerRange)) != null
+                && nextRange.getKey() <= upperRange) {
+            removeOverlap(nextRange, lowerRange, upperRange);
+        }
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * @param zipCodeRange A ZipCodeRange
+     * @return this set
+     */
+    public MutableZipCodeRangeSet remove(@NonNull ZipCodeRange zipCodeRange) {
+        return remove(zipCodeRange.getLowerRange().getCode(), zipCodeRange.getUpperRange().getCode());
+    }
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @return true if zipCode falls in one of the ranges, else false
+     */
+    public synchronized boolean contains(int zipCode) {
+        Map.Entry<Integer, Integer> floorRange = upperRangeByLowerRange.floorEntry(zipCode);
+        return floorRange != null && floorRange.getValue() >= zipCode;
+    }
+
+    /**
+     * @return number of consolidated ranges
+     */
+    public synchronized int size() {
+        return upperRangeByLowerRange.size();
+    }
+
+    /**
+     * @return immutable copy of the current ranges, shared until the next update
+     */
+    public ZipCodeRangeSet snapshot() {
+        ZipCodeRangeSet currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            synchronized (this) {
+                currentSnapshot = snapshot;
+                if (currentSnapshot == null) {
+                    int[] lows = new int[upperRangeByLowerRange.size()];
+                    int[] highs = new int[lows.length];
+                    int index = 0;
+                    for (Map.Entry<Integer, Integer> range : upperRangeByLowerRange.entrySet()) {
+                        lows[index] = range.getKey();
+                        highs[index] = range.getValue();
+                        index++;
+                    }
+                    currentSnapshot = lows.length == 0 ? ZipCodeRangeSet.empty() : new ZipCodeRangeSet(lows, highs);
+                    snapshot = currentSnapshot;
+                }
+            }
+        }
+        return currentSnapshot;
+    }
+
+    private void removeOverlap(Map.Entry<Integer, Integer> range, int lowerRange, int upperRange) {
+        upperRangeByLowerRange.remove(range.getKey());
+        if (range.getKey() < lowerRange) {
+            upperRangeByLowerRange.put(range.getKey(), lowerRange - 1);
+        }
+        if (range.getValue() > upperRange) {
+            upperRangeByLowerRange.put(upperRange + 1, range.getValue());
+        }
+    }
+
+    private static void validateRange(int lowerRange, int upperRange) {
+        Preconditions.checkArgument(ZipCode.isValidCode(lowerRange) && ZipCode.isValidCode(upperRange),
+                ZipCode.errorZipCodeFiveDigits);
+        Preconditions.checkArgument(lowerRange <= upperRange, ZipCodeRange.errorZipCodeLowerGreaterThanUpper);
+    }
+}
@@ -0,0 +1,196 @@
+package com.mavharsha.ecom.index;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, consolidated set of zipCode ranges held as two parallel sorted int arrays. Ranges never overlap or
+ * touch, so the set is the minimum number of ranges representing the same zipCodes. Lookups are a binary search
+ * over primitives and never allocate.
+ */
+@EqualsAndHashCode
+public final class ZipCodeRangeSet implements IZipCodeIndex {
+
+    public static final String errorNotConsolidated = "Ranges should be sorted, disjoint and non adjacent.";
+
+    private static final ZipCodeRangeSet emptySet = new ZipCodeRangeSet(new int[0], new int[0]);
+
+    private final int[] lows;
+    private final int[] highs;
+
+    /**
+     * Trusted constructor, arrays must already be sorted, disjoint and non adjacent and are not copied.
+     */
+    ZipCodeRangeSet(int[] lows, int[] highs) {
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+    public static ZipCodeRangeSet empty() {
+        return emptySet;
+    }
+
+    /**
+     * @param listOfZipCodeRanges ranges in any order, possibly overlapping
+     * @return consolidated set of the ranges
+     */
+    public static ZipCodeRangeSet of(@NonNull List<ZipCodeRange> listOfZipCodeRanges) {
+        long[] packedRanges = new long[listOfZipCodeRanges.size()];
+        for (int index = 0; index < packedRanges.length; index++) {
+            ZipCodeRange zipCodeRange = listOfZipCodeRanges.get(index);
+            packedRanges[index] = pack(zipCodeRange.getLowerRange().getCode(), zipCodeRange.getUpperRange().getCode());
+        }
+        return ofPacked(packedRanges, packedRanges.length);
+    }
+
+    /**
+     * @param lows lower bounds of already consolidated ranges
+     * @param highs upper bounds of already consolidated ranges
+     * @return set over copies of the arrays
+     * @throws IllegalArgumentException when the ranges are not valid, sorted, disjoint and non adjacent
+     */
+    public static ZipCodeRangeSet ofConsolidated(@NonNull int[] lows, @NonNull int[] highs) {
+        Preconditions.checkArgument(lows.length == highs.length, errorNotConsolidated);
+        for (int index = 0; index < lows.length; index++) {
+            Preconditions.checkArgument(ZipCode.isValidCode(lows[index]) && ZipCode.isValidCode(highs[index]),
+                    ZipCode.errorZipCodeFiveDigits);
+            Preconditions.checkArgument(lows[index] <= highs[index], ZipCodeRange.errorZipCodeLowerGreaterThanUpper);
+            Preconditions.checkArgument(index == 0 || lows[index] > highs[index - 1] + 1, errorNotConsolidated);
+        }
+        return lows.length == 0 ? emptySet : new ZipCodeRangeSet(lows.clone(), highs.clone());
+    }
+
+    /**
+     * Sorts the first count entries of packedRanges in place and merges them into a set.
+     * @param packedRanges ranges encoded with {@link #pack(int, int)}
+     * @param count number of entries of packedRanges in use
+     * @return consolidated set of the ranges
+     */
+    static ZipCodeRangeSet ofPacked(long[] packedRanges, int count) {
+        if (count == 0) {
+            return emptySet;
+        }
+        Arrays.sort(packedRanges, 0, count);
+        int[] lows = new int[count];
+        int[] highs = new int[count];
+        int size = 0;
+        lows[0] = lowerOf(packedRanges[0]);
+        highs[0] = upperOf(packedRanges[0]);
+        for (int index = 1; index < count; index++) {
+            int lower = lowerOf(packedRanges[index]);
+            int upper = upperOf(packedRanges[index]);
+            if (lower <= highs[size] + 1) {
+                highs[size] = Math.max(highs[size], upper);
+            } else {
+                size++;
+                lows[size] = lower;
+                highs[size] = upper;
+            }
+        }
+        size++;
+        return new ZipCodeRangeSet(Arrays.copyOf(lows, size), Arrays.copyOf(highs, size));
+    }
+
+    /**
+     * Encodes a range into a long whose natural order is the order of {@link ZipCodeRange#compareTo(ZipCodeRange)}.
+     */
+    static long pack(int lower, int upper) {
+        return ((long) lower << 32) | upper;
+    }
+
+    static int lowerOf(long packedRange) {
+        return (int) (packedRange >>> 32);
+    }
+
+    static int upperOf(long packedRange) {
+        return (int) packedRange;
+    }
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @return true if zipCode falls in one of the ranges, else false
+     */
+    @Override
+    public boolean contains(int zipCode) {
+        int low = 0;
+        int high = lows.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (zipCode < lows[middle]) {
+                high = middle - 1;
+            } else if (zipCode > highs[middle]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of consolidated ranges
+     */
+    public int size() {
+        return lows.length;
+    }
+
+    public boolean isEmpty() {
+        return lows.length == 0;
+    }
+
+    /**
+     * @param index position of the range, 0 based
+     * @return lower bound of the range at index
+     */
+    public int lowerAt(int index) {
+        Preconditions.checkElementIndex(index, lows.length);
+        return lows[index];
+    }
+
+    /**
+     * @param index position of the range, 0 based
+     * @return upper bound of the range at index
+     */
+    public int upperAt(int index) {
+        Preconditions.checkElementIndex(index, highs.length);
+        return highs[index];
+    }
+
+    /**
+     * @return number of zipCodes covered by the set
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int index = 0; index < lows.length; index++) {
+            cardinality += highs[index] - lows[index] + 1;
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return the set as sorted ZipCodeRanges
+     */
+    public List<ZipCodeRange> toZipCodeRanges() {
+        ImmutableList.Builder<ZipCodeRange> builder = ImmutableList.builder();
+        for (int index = 0; index < lows.length; index++) {
+            builder.add(new ZipCodeRange(lows[index], highs[index]));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ZipCodeRangeSet(");
+        for (int index = 0; index < lows.length; index++) {
+            builder.append('[').append(lows[index]).append(", ").append(highs[index]).append(']');
+        }
+        return builder.append(')').toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.mavharsha.ecom.index;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+
+import java.util.Arrays;
+
+/**
+ * Consolidates ranges in O(n + domain) with a sweep over the 5 digit domain. Every added range only records the
+ * furthest upper bound reached from its lower bound, so adding never sorts or allocates and {@link #build()} is a
+ * single pass over the domain. Builders are reusable through {@link #reset()} but are not thread safe.
+ * <p>
+ * A builder created with a sweep threshold first buffers ranges as packed longs and sorts them on build, which is
+ * cheaper than a sweep for small sets, and only switches to the sweep once the threshold is reached.
+ */
+public class ZipCodeRangeSetBuilder implements IZipCodeRangeSink {
+
+    private static final int domainSize = ZipCode.maxCode - ZipCode.minCode + 1;
+
+    /**
+     * Number of ranges from which sorting them costs about as much as a sweep over the domain.
+     */
+    public static final int defaultSweepThreshold = domainSize / 16;
+
+    private final int sweepThreshold;
+    /* reach[lower - minCode] holds (furthest upper - minCode + 1) of ranges starting at lower, 0 when none */
+    private int[] reach;
+    private boolean sweeping;
+    private long[] packedRanges;
+    private int count;
+
+    /**
+     * Builder that always sweeps.
+     */
+    public ZipCodeRangeSetBuilder() {
+        this(0);
+    }
+
+    /**
+     * @param sweepThreshold number of ranges sorted in memory before switching to a sweep, 0 to always sweep
+     */
+    public ZipCodeRangeSetBuilder(int sweepThreshold) {
+        Preconditions.checkArgument(sweepThreshold >= 0, "Sweep threshold cannot be negative.");
+        this.sweepThreshold = sweepThreshold;
+        this.sweeping = sweepThreshold == 0;
+        this.reach = sweeping ? new int[domainSize] : null;
+        this.packedRanges = sweeping ? null : new long[Math.min(sweepThreshold, 16)];
+    }
+
+    /**
+     * @param lowerRange lowerBound of the range, inclusive
+     * @param upperRange upperBound of the range, inclusive
+     * @return this builder
+     * @throws IllegalArgumentException when the bounds are not 5 digit zipCodes or lowerRange is greater than upperRange
+     */
+    public ZipCodeRangeSetBuilder add(int lowerRange, int upperRange) {
+        Preconditions.checkArgument(ZipCode.isValidCode(lowerRange) && ZipCode.isValidCode(upperRange),
+                ZipCode.errorZipCodeFiveDigits);
+        Preconditions.checkArgument(lowerRange <= upperRange, ZipCodeRange.errorZipCodeLowerGreaterThanUpper);
+        if (!sweeping) {
+            if (count < sweepThreshold) {
+                if (count == packedRanges.length) {
+                    packedRanges = Arrays.copyOf(packedRanges, Math.min(count * 2, sweepThreshold));
+                }
+                packedRanges[count++] = ZipCodeRangeSet.pack(lowerRange, upperRange);
+                return this;
+            }
+            startSweeping();
+        }
+        int offset = lowerRange - ZipCode.minCode;
+        int end = upperRange - ZipCode.minCode + 1;
+        if (reach[offset] < end) {
+            reach[offset] = end;
+        }
+        count++;
+        return this;
+    }
+
+    /**
+     * @param zipCodeRange A ZipCodeRange
+     * @return this builder
+     */
+    public ZipCodeRangeSetBuilder add(ZipCodeRange zipCodeRange) {
+        return add(zipCodeRange.getLowerRange().getCode(), zipCodeRange.getUpperRange().getCode());
+    }
+
+    @Override
+    public void accept(int lowerRange, int upperRange) {
+        add(lowerRange, upperRange);
+    }
+
+    /**
+     * @return number of ranges added since creation or the last reset
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return consolidated set of every range added so far, adjacent ranges are joined
+     */
+    public ZipCodeRangeSet build() {
+        if (count == 0) {
+            return ZipCodeRangeSet.empty();
+        }
+        if (!sweeping) {
+            return ZipCodeRangeSet.ofPacked(packedRanges, count);
+        }
+        int[] lows = new int[Math.min(count, domainSize / 2 + 1)];
+        int[] highs = new int[lows.length];
+        int size = 0;
+        int runStart = -1;
+        int runEnd = -1;
+        for (int offset = 0; offset < domainSize; offset++) {
+            int end = reach[offset];
+            if (end == 0) {
+                continue;
+            }
+            if (offset > runEnd) {
+                if (runStart >= 0) {
+                    lows[size] = runStart + ZipCode.minCode;
+                    highs[size] = runEnd + ZipCode.minCode - 1;
+                    size++;
+                }
+                runStart = offset;
+                runEnd = end;
+            } else if (end > runEnd) {
+                runEnd = end;
+            }
+        }
+        lows[size] = runStart + ZipCode.minCode;
+        highs[size] = runEnd + ZipCode.minCode - 1;
+        size++;
+        return new ZipCodeRangeSet(Arrays.copyOf(lows, size), Arrays.copyOf(highs, size));
+    }
+
+    /**
+     * Clears every range added so far, so the builder can be reused without reallocating.
+     * @return this builder
+     */
+    public ZipCodeRangeSetBuilder reset() {
+        if (sweeping && count > 0) {
+            Arrays.fill(reach, 0);
+        }
+        sweeping = sweepThreshold == 0;
+        count = 0;
+        return this;
+    }
+
+    private void startSweeping() {
+        if (reach == null) {
+            reach = new int[domainSize];
+        }
+        sweeping = true;
+        int bufferedCount = count;
+        count = 0;
+        for (int index = 0; index < bufferedCount; index++) {
+            add(ZipCodeRangeSet.lowerOf(packedRanges[index]), ZipCodeRangeSet.upperOf(packedRanges[index]));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Set algebra over consolidated {@link ZipCodeRangeSet}s, for combining restrictions from several sources. Bounds
+ * are inclusive, as for {@link com.mavharsha.ecom.model.ZipCodeRange}. Every operation is a linear merge of the
+ * already sorted inputs, the union of k sets uses a heap and runs in O(total ranges * log k).
+ */
+public final class ZipCodeRangeSets {
+
+    private ZipCodeRangeSets() {}
+
+    /**
+     * @return zipCodes in first or in second
+     */
+    public static ZipCodeRangeSet union(@NonNull ZipCodeRangeSet first, @NonNull ZipCodeRangeSet second) {
+        RangeAppender appender = new RangeAppender(first.size() + second.size());
+        int firstIndex = 0;
+        int secondIndex = 0;
+        while (firstIndex < first.size() || secondIndex < second.size()) {
+            if (secondIndex == second.size()
+                    || (firstIndex < first.size() && first.lowerAt(firstIndex) <= second.lowerAt(secondIndex))) {
+                appender.append(first.lowerAt(firstIndex), first.upperAt(firstIndex));
+                firstIndex++;
+            } else {
+                appender.append(second.lowerAt(secondIndex), second.upperAt(secondIndex));
+                secondIndex++;
+            }
+        }
+        return appender.toZipCodeRangeSet();
+    }
+
+    /**
+     * @param zipCodeRangeSets sets to combine, e.g. one per source
+     * @return zipCodes in any of the sets
+     */
+    public static ZipCodeRangeSet union(@NonNull Collection<ZipCodeRangeSet> zipCodeRangeSets) {
+        ZipCodeRangeSet[] sets = zipCodeRangeSets.toArray(new ZipCodeRangeSet[0]);
+        if (sets.length == 0) {
+            return ZipCodeRangeSet.empty();
+        }
+        if (sets.length == 1) {
+            return sets[0];
+        }
+        int totalSize = 0;
+        for (ZipCodeRangeSet set : sets) {
+            totalSize += set.size();
+        }
+        int[] positions = new int[sets.length];
+        /* min heap of set indexes, ordered by the lowerBound of each set's next range */
+        int[] heap = new int[sets.length];
+        int heapSize = 0;
+        for (int setIndex = 0; setIndex < sets.length; setIndex++) {
+            if (!sets[setIndex].isEmpty()) {
+                heap[heapSize++] = setIndex;
+            }
+        }
+        for (int index = heapSize / 2 - 1; index >= 0; index--) {
+            siftDown(heap, heapSize, index, sets, positions);
+        }
+        RangeAppender appender = new RangeAppender(totalSize);
+        while (heapSize > 0) {
+            int setIndex = heap[0];
+            ZipCodeRangeSet set = sets[setIndex];
+            appender.append(set.lowerAt(positions[setIndex]), set.upperAt(positions[setIndex]));
+            positions[setIndex]++;
+            if (positions[setIndex] == set.size()) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, sets, positions);
+        }
+        return appender.toZipCodeRangeSet();
+    }
+
+    /**
+     * @return zipCodes in both first and second
+     */
+    public static ZipCodeRangeSet intersection(@NonNull ZipCodeRangeSet first, @NonNull ZipCodeRangeSet second) {
+        RangeAppender appender = new RangeAppender(first.size() + second.size());
+        int firstIndex = 0;
+        int secondIndex = 0;
+        while (firstIndex < first.size() && secondIndex < second.size()) {
+            int lower = Math.max(first.lowerAt(firstIndex), second.lowerAt(secondIndex));
+            int upper = Math.min(first.upperAt(firstIndex), second.upperAt(secondIndex));
+            if (lower <= upper) {
+                appender.append(lower, upper);
+            }
+            if (first.upperAt(firstIndex) < second.upperAt(secondIndex)) {
+                firstIndex++;
+            } else {
+                secondIndex++;
+            }
+        }
+        return appender.toZipCodeRangeSet();
+    }
+
+    /**
+     * @return zipCodes in first and not in second
+     */
+    public static ZipCodeRangeSet difference(@NonNull ZipCodeRangeSet first, @NonNull ZipCodeRangeSet second) {
+        RangeAppender appender = new RangeAppender(first.size() + second.size());
+        int secondIndex = 0;
+        for (int firstIndex = 0; firstIndex < first.size(); firstIndex++) {
+            int lower = first.lowerAt(firstIndex);
+            int upper = first.upperAt(firstIndex);
+            while (secondIndex < second.size() && second.upperAt(secondIndex) < lower) {
+                secondIndex++;
+            }
+            int index = secondIndex;
+            while (index < second.size() && second.lowerAt(index) <= upper && lower <= upper) {
+                if (second.lowerAt(index) > lower) {
+                    appender.append(lower, second.lowerAt(index) - 1);
+                }
+                lower = second.upperAt(index) + 1;
+                index++;
+            }
+            if (lower <= upper) {
+                appender.append(lower, upper);
+            }
+        }
+        return appender.toZipCodeRangeSet();
+    }
+
+    /**
+     * @return zipCodes of the 5 digit domain, {@link ZipCode#minCode} to {@link ZipCode#maxCode}, not in set
+     */
+    public static ZipCodeRangeSet complement(@NonNull ZipCodeRangeSet set) {
+        RangeAppender appender = new RangeAppender(set.size() + 1);
+        int lower = ZipCode.minCode;
+        for (int index = 0; index < set.size(); index++) {
+            if (set.lowerAt(index) > lower) {
+                appender.append(lower, set.lowerAt(index) - 1);
+            }
+            lower = set.upperAt(index) + 1;
+        }
+        if (lower <= ZipCode.maxCode) {
+            appender.append(lower, ZipCode.maxCode);
+        }
+        return appender.toZipCodeRangeSet();
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int index, ZipCodeRangeSet[] sets, int[] positions) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && nextLower(heap[left], sets, positions) < nextLower(heap[smallest], sets, positions)) {
+                smallest = left;
+            }
+            if (right < heapSize && nextLower(heap[right], sets, positions) < nextLower(heap[smallest], sets, positions)) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            int setIndex = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = setIndex;
+            index = smallest;
+        }
+    }
+
+    private static int nextLower(int setIndex, ZipCodeRangeSet[] sets, int[] positions) {
+        return sets[setIndex].lowerAt(positions[setIndex]);
+    }
+
+    /**
+     * Collects ranges appended in increasing lowerBound order, merging the ones that overlap or touch.
+     */
+    private static final class RangeAppender {
+
+        private int[] lows;
+        private int[] highs;
+        private int size;
+
+        private RangeAppender(int capacity) {
+            this.lows = new int[Math.max(capacity, 1)];
+            this.highs = new int[lows.length];
+        }
+
+        private void append(int lower, int upper) {
+            if (size > 0 && lower <= highs[size - 1] + 1) {
+                highs[size - 1] = Math.max(highs[size - 1], upper);
+                return;
+            }
+            if (size == lows.length) {
+                lows = Arrays.copyOf(lows, size * 2);
+                highs = Arrays.copyOf(highs, size * 2);
+            }
+            lows[size] = lower;
+            highs[size] = upper;
+            size++;
+        }
+
+        private ZipCodeRangeSet toZipCodeRangeSet() {
+            return size == 0 ? ZipCodeRangeSet.empty()
+                    : new ZipCodeRangeSet(Arrays.copyOf(lows, size), Arrays.copyOf(highs, size));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mavharsha.ecom.metrics;
+
+/**
+ * Receives timings from the shipping services. Callbacks run on the loading and lookup threads, so implementations
+ * should be lock-free and must not throw.
+ */
+public interface IShippingMetricsListener {
+
+    /**
+     * Default listener. Services compare against it before reading the clock, so lookups are not timed at all.
+     */
+    IShippingMetricsListener disabled = new IShippingMetricsListener() {
+
+        @Override
+        public void onLoad(long elapsedNanos, int rangeCount) {
+        }
+
+        @Override
+        public void onLoadFailure(Exception failure) {
+        }
+
+        @Override
+        public void onConsolidation(long elapsedNanos, int rangeCount, int consolidatedRangeCount,
+                                    long indexSizeInBytes) {
+        }
+
+        @Override
+        public void onLookup(long elapsedNanos) {
+        }
+
+        @Override
+        public void onBatchLookup(long elapsedNanos, int zipCodeCount) {
+        }
+    };
+
+    /**
+     * @param elapsedNanos time spent reading the data source
+     * @param rangeCount ranges read
+     */
+    void onLoad(long elapsedNanos, int rangeCount);
+
+    /**
+     * @param failure why the data source could not be read or consolidated
+     */
+    void onLoadFailure(Exception failure);
+
+    /**
+     * @param elapsedNanos time spent consolidating and indexing the ranges
+     * @param rangeCount ranges before consolidation
+     * @param consolidatedRangeCount ranges after consolidation
+     * @param indexSizeInBytes memory held by the lookup index
+     */
+    void onConsolidation(long elapsedNanos, int rangeCount, int consolidatedRangeCount, long indexSizeInBytes);
+
+    /**
+     * @param elapsedNanos time spent in the index for one zipCode
+     */
+    void onLookup(long elapsedNanos);
+
+    /**
+     * @param elapsedNanos time spent in the index for the whole batch
+     * @param zipCodeCount zipCodes in the batch
+     */
+    void onBatchLookup(long elapsedNanos, int zipCodeCount);
+}
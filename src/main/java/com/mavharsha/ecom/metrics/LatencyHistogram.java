@@ -0,0 +1,127 @@
+package com.mavharsha.ecom.metrics;
+
+import com.google.common.base.Preconditions;
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non negative values, e.g. latencies in nanoseconds. Like an HDR histogram, values are
+ * counted in log-linear buckets: every power of two is split in {@link #subBucketCount} equal buckets, so any
+ * recorded value is reported within ~3% whatever its magnitude, in a fixed ~15 KB. Recording is one atomic
+ * increment per value, and never allocates.
+ */
+public class LatencyHistogram {
+
+    public static final String errorPercentile = "Percentile should be between 0 and 100.";
+
+    private static final int subBucketBits = 5;
+    private static final int subBucketCount = 1 << subBucketBits;
+    /* values below subBucketCount get a bucket each, then subBucketCount buckets per power of two up to 2^63 */
+    private static final int bucketCount = (Long.SIZE - subBucketBits) * subBucketCount;
+
+    private final AtomicLongArray counts;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(bucketCount);
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * @param value value to count, negative values are counted as 0
+     */
+    public void record(long value) {
+        long recordedValue = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(recordedValue));
+        sum.add(recordedValue);
+        max.accumulate(recordedValue);
+    }
+
+    /**
+     * Adds every value recorded by other, e.g. to merge histograms kept per thread so that recording threads
+     * never contend on the same counters.
+     * @param other histogram to add, which should not be recorded to concurrently for an exact sum
+     */
+    public void add(@NonNull LatencyHistogram other) {
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            long count = other.counts.get(bucket);
+            if (count != 0) {
+                counts.addAndGet(bucket, count);
+            }
+        }
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    /**
+     * @return values recorded so far
+     */
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            count += counts.get(bucket);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return mean of the recorded values, 0 if none
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : sum.sum() / (double) count;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9 for the p999
+     * @return the highest value of the bucket holding that percentile, never above the max; 0 if nothing was
+     * recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, errorPercentile);
+        long[] snapshot = new long[bucketCount];
+        long count = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            count += snapshot[bucket];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return (shift + 1) * subBucketCount + (int) (value >>> shift) - subBucketCount;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < subBucketCount) {
+            return bucket;
+        }
+        int shift = bucket / subBucketCount - 1;
+        long lowestValue = (long) (bucket % subBucketCount + subBucketCount) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.mavharsha.ecom.metrics;
+
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link IShippingMetricsListener} that keeps lock-free counters, latency histograms and the gauges of the last
+ * load, and publishes them as an MBean.
+ */
+public class ShippingMetrics implements IShippingMetricsListener, ShippingMetricsMBean {
+
+    public static final String objectNamePrefix = "com.mavharsha.ecom:type=ShippingMetrics,name=";
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder batchLookupZipCodeCount = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram consolidationLatency = new LatencyHistogram();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLookupLatency = new LatencyHistogram();
+    private volatile int rangeCount;
+    private volatile int consolidatedRangeCount;
+    private volatile long indexSizeInBytes;
+
+    @Override
+    public void onLoad(long elapsedNanos, int rangeCount) {
+        loadCount.increment();
+        loadLatency.record(elapsedNanos);
+        this.rangeCount = rangeCount;
+    }
+
+    @Override
+    public void onLoadFailure(Exception failure) {
+        loadFailureCount.increment();
+    }
+
+    @Override
+    public void onConsolidation(long elapsedNanos, int rangeCount, int consolidatedRangeCount,
+                                long indexSizeInBytes) {
+        consolidationLatency.record(elapsedNanos);
+        this.consolidatedRangeCount = consolidatedRangeCount;
+        this.indexSizeInBytes = indexSizeInBytes;
+    }
+
+    @Override
+    public void onLookup(long elapsedNanos) {
+        lookupLatency.record(elapsedNanos);
+    }
+
+    @Override
+    public void onBatchLookup(long elapsedNanos, int zipCodeCount) {
+        batchLookupZipCodeCount.add(zipCodeCount);
+        batchLookupLatency.record(elapsedNanos);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server.
+     * @param name distinguishes the services of one JVM, e.g. "default"
+     * @return name the MBean was registered under
+     * @throws JMException if an MBean of that name is already registered
+     */
+    public ObjectName registerMBean(@NonNull String name) throws JMException {
+        ObjectName objectName = new ObjectName(objectNamePrefix + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * @param objectName name returned by {@link #registerMBean(String)}
+     * @throws JMException if no MBean is registered under that name
+     */
+    public static void unregisterMBean(@NonNull ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    public LatencyHistogram getConsolidationLatency() {
+        return consolidationLatency;
+    }
+
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    public LatencyHistogram getBatchLookupLatency() {
+        return batchLookupLatency;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    @Override
+    public long getLookupCount() {
+        /* the histogram already counts them, one less contended write per lookup */
+        return lookupLatency.getCount();
+    }
+
+    @Override
+    public long getBatchLookupZipCodeCount() {
+        return batchLookupZipCodeCount.sum();
+    }
+
+    @Override
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    @Override
+    public int getConsolidatedRangeCount() {
+        return consolidatedRangeCount;
+    }
+
+    @Override
+    public long getIndexSizeInBytes() {
+        return indexSizeInBytes;
+    }
+
+    @Override
+    public long getLoadLatencyP50() {
+        return loadLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLoadLatencyMax() {
+        return loadLatency.getMax();
+    }
+
+    @Override
+    public long getConsolidationLatencyP50() {
+        return consolidationLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getConsolidationLatencyMax() {
+        return consolidationLatency.getMax();
+    }
+
+    @Override
+    public long getLookupLatencyP50() {
+        return lookupLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLookupLatencyP99() {
+        return lookupLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLookupLatencyP999() {
+        return lookupLatency.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getLookupLatencyMax() {
+        return lookupLatency.getMax();
+    }
+
+    @Override
+    public long getBatchLookupLatencyP50() {
+        return batchLookupLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getBatchLookupLatencyP99() {
+        return batchLookupLatency.getValueAtPercentile(99);
+    }
+}
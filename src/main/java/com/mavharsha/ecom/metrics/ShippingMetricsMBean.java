@@ -0,0 +1,41 @@
+package com.mavharsha.ecom.metrics;
+
+/**
+ * JMX view of {@link ShippingMetrics}. Latencies are in nanoseconds.
+ */
+public interface ShippingMetricsMBean {
+
+    long getLoadCount();
+
+    long getLoadFailureCount();
+
+    long getLookupCount();
+
+    long getBatchLookupZipCodeCount();
+
+    int getRangeCount();
+
+    int getConsolidatedRangeCount();
+
+    long getIndexSizeInBytes();
+
+    long getLoadLatencyP50();
+
+    long getLoadLatencyMax();
+
+    long getConsolidationLatencyP50();
+
+    long getConsolidationLatencyMax();
+
+    long getLookupLatencyP50();
+
+    long getLookupLatencyP99();
+
+    long getLookupLatencyP999();
+
+    long getLookupLatencyMax();
+
+    long getBatchLookupLatencyP50();
+
+    long getBatchLookupLatencyP99();
+}
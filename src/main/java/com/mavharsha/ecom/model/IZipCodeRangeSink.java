@@ -0,0 +1,13 @@
+package com.mavharsha.ecom.model;
+
+/**
+ * Receives ranges one at a time as raw bounds, so producers can stream ranges without building ZipCodeRanges.
+ */
+public interface IZipCodeRangeSink {
+
+    /**
+     * @param lowerRange lowerBound of the range, inclusive
+     * @param upperRange upperBound of the range, inclusive
+     */
+    void accept(int lowerRange, int upperRange);
+}
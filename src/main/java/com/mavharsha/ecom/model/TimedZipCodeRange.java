@@ -0,0 +1,71 @@
+package com.mavharsha.ecom.model;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * {@link ZipCodeRange} only in effect from an instant, inclusive, until another, exclusive, e.g. an embargo for a
+ * holiday or a storm. A missing bound means the range has always been, or will always stay, in effect.
+ */
+@ToString
+@EqualsAndHashCode
+public class TimedZipCodeRange {
+
+    public static final String errorEffectiveFromNotBeforeTo = "EffectiveFrom should be before EffectiveTo.";
+
+    private final ZipCodeRange zipCodeRange;
+    private final Instant effectiveFrom;
+    private final Instant effectiveTo;
+
+    public TimedZipCodeRange(int lowerRange, int upperRange, Instant effectiveFrom, Instant effectiveTo) {
+        this(new ZipCodeRange(lowerRange, upperRange), effectiveFrom, effectiveTo);
+    }
+
+    /**
+     * @param zipCodeRange range in effect
+     * @param effectiveFrom first instant in effect, null if always in effect before effectiveTo
+     * @param effectiveTo first instant no longer in effect, null if never ending
+     * @throws IllegalArgumentException if effectiveFrom is not before effectiveTo
+     */
+    public TimedZipCodeRange(@NonNull ZipCodeRange zipCodeRange, Instant effectiveFrom, Instant effectiveTo) {
+        Preconditions.checkArgument(effectiveFrom == null || effectiveTo == null || effectiveFrom.isBefore(effectiveTo),
+                errorEffectiveFromNotBeforeTo);
+        this.zipCodeRange = zipCodeRange;
+        this.effectiveFrom = effectiveFrom;
+        this.effectiveTo = effectiveTo;
+    }
+
+    public ZipCodeRange getZipCodeRange() {
+        return zipCodeRange;
+    }
+
+    /**
+     * @return first instant in effect, null if unbounded
+     */
+    public Instant getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    /**
+     * @return first instant no longer in effect, null if unbounded
+     */
+    public Instant getEffectiveTo() {
+        return effectiveTo;
+    }
+
+    /**
+     * @param instant An instant, null for the beginning of time
+     * @return true if the range is in effect at instant, else false
+     */
+    public boolean isEffectiveAt(Instant instant) {
+        if (instant == null) {
+            return effectiveFrom == null;
+        }
+        return (effectiveFrom == null || !effectiveFrom.isAfter(instant))
+                && (effectiveTo == null || effectiveTo.isAfter(instant));
+    }
+}
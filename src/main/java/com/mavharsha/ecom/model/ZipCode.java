@@ -10,6 +10,10 @@ public class ZipCode implements Comparable<ZipCode> {
 
     private final int code;
     public static final String errorZipCodeFiveDigits = "ZipCode should be 5 digits positive integer.";
+    public static final int minCode = 10000;
+    public static final int maxCode = 99999;
+    public static final int minPrefix = minCode / 100;
+    public static final int maxPrefix = maxCode / 100;
 
     public ZipCode(int code) {
         validateZipCode(code);
@@ -26,7 +30,23 @@ public class ZipCode implements Comparable<ZipCode> {
      * @throws IllegalArgumentException when the number is not a 5 digit positive number
      */
     private void validateZipCode(int code) throws IllegalArgumentException {
-        Preconditions.checkArgument(code > 9999 && code < 100000, errorZipCodeFiveDigits);
+        Preconditions.checkArgument(isValidCode(code), errorZipCodeFiveDigits);
+    }
+
+    /**
+     * @param code An integer
+     * @return true if code is a 5 digit positive integer, else false
+     */
+    public static boolean isValidCode(int code) {
+        return code >= minCode && code <= maxCode;
+    }
+
+    /**
+     * @param code A 5 digit positive integer
+     * @return the 3 digit prefix (ZIP3) of code, e.g. 942 for 94230
+     */
+    public static int prefixOf(int code) {
+        return code / 100;
     }
 
     /**
@@ -5,8 +5,6 @@ import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.ToString;
 
-import java.util.Comparator;
-
 @ToString
 @EqualsAndHashCode
 public class ZipCodeRange implements Comparable<ZipCodeRange> {
@@ -114,8 +112,10 @@ public class ZipCodeRange implements Comparable<ZipCodeRange> {
      * < 0 when this is greater than range
      */
     public int compareTo(ZipCodeRange range) {
-        return Comparator.comparing(ZipCodeRange::getLowerRange)
-                .thenComparing(ZipCodeRange::getUpperRange)
-                .compare(this, range);
+        int compareLowerRange = this.lowerRange.compareTo(range.lowerRange);
+        if (compareLowerRange != 0) {
+            return compareLowerRange;
+        }
+        return this.upperRange.compareTo(range.upperRange);
     }
 }
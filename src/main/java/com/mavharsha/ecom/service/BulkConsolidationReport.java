@@ -0,0 +1,67 @@
+package com.mavharsha.ecom.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link BulkZipCodeRangeConsolidator} run.
+ */
+@ToString
+@EqualsAndHashCode
+public class BulkConsolidationReport {
+
+    private final long setCount;
+    private final long inputRangeCount;
+    private final long outputRangeCount;
+    private final long elapsedNanos;
+    private final int parallelism;
+
+    public BulkConsolidationReport(long setCount, long inputRangeCount, long outputRangeCount, long elapsedNanos,
+                                   int parallelism) {
+        this.setCount = setCount;
+        this.inputRangeCount = inputRangeCount;
+        this.outputRangeCount = outputRangeCount;
+        this.elapsedNanos = elapsedNanos;
+        this.parallelism = parallelism;
+    }
+
+    public long getSetCount() {
+        return setCount;
+    }
+
+    public long getInputRangeCount() {
+        return inputRangeCount;
+    }
+
+    public long getOutputRangeCount() {
+        return outputRangeCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return consolidated sets per second
+     */
+    public double getSetsPerSecond() {
+        return perSecond(setCount);
+    }
+
+    /**
+     * @return input ranges consolidated per second
+     */
+    public double getRangesPerSecond() {
+        return perSecond(inputRangeCount);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
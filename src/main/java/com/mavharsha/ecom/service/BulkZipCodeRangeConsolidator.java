@@ -0,0 +1,130 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Consolidates many independent sets of ranges, e.g. one per item, in parallel on a dedicated {@link ForkJoinPool}.
+ * Every worker reuses its own {@link ZipCodeRangeSetBuilder}, so consolidating a set only allocates its result.
+ */
+public class BulkZipCodeRangeConsolidator implements Closeable {
+
+    /* sets consolidated by a task before it stops splitting */
+    private static final int batchSize = 64;
+
+    private final ForkJoinPool forkJoinPool;
+    private final ThreadLocal<ZipCodeRangeSetBuilder> builders;
+
+    /**
+     * Uses one worker per available processor.
+     */
+    public BulkZipCodeRangeConsolidator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public BulkZipCodeRangeConsolidator(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism should be positive.");
+        this.forkJoinPool = new ForkJoinPool(parallelism);
+        this.builders = ThreadLocal.withInitial(
+                () -> new ZipCodeRangeSetBuilder(ZipCodeRangeSetBuilder.defaultSweepThreshold));
+    }
+
+    /**
+     * Consolidates every set and hands each result to consumer as soon as it is ready. consumer is called from the
+     * worker threads, concurrently and in no particular order.
+     * @param rangeSetsByKey sets of ranges to consolidate, keyed e.g. by item
+     * @param consumer receiver of every consolidated set
+     * @param <K> type of the keys
+     * @return counts and throughput of the run
+     */
+    public <K> BulkConsolidationReport consolidateAll(@NonNull Map<K, ? extends List<ZipCodeRange>> rangeSetsByKey,
+                                                      @NonNull BiConsumer<? super K, ZipCodeRangeSet> consumer) {
+        List<Map.Entry<K, ? extends List<ZipCodeRange>>> entries = new ArrayList<>(rangeSetsByKey.entrySet());
+        LongAdder inputRangeCount = new LongAdder();
+        LongAdder outputRangeCount = new LongAdder();
+        long start = System.nanoTime();
+        forkJoinPool.invoke(new ConsolidationTask<>(entries, 0, entries.size(), consumer, inputRangeCount,
+                outputRangeCount));
+        return new BulkConsolidationReport(entries.size(), inputRangeCount.sum(), outputRangeCount.sum(),
+                System.nanoTime() - start, forkJoinPool.getParallelism());
+    }
+
+    /**
+     * Stops the workers once the running consolidations are done.
+     */
+    @Override
+    public void close() {
+        forkJoinPool.shutdown();
+        try {
+            forkJoinPool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class ConsolidationTask<K> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Map.Entry<K, ? extends List<ZipCodeRange>>> entries;
+        private final int from;
+        private final int to;
+        private final BiConsumer<? super K, ZipCodeRangeSet> consumer;
+        private final LongAdder inputRangeCount;
+        private final LongAdder outputRangeCount;
+
+        private ConsolidationTask(List<Map.Entry<K, ? extends List<ZipCodeRange>>> entries, int from, int to,
+                                  BiConsumer<? super K, ZipCodeRangeSet> consumer, LongAdder inputRangeCount,
+                                  LongAdder outputRangeCount) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+            this.inputRangeCount = inputRangeCount;
+            this.outputRangeCount = outputRangeCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > batchSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ConsolidationTask<>(entries, from, middle, consumer, inputRangeCount, outputRangeCount),
+                        new ConsolidationTask<>(entries, middle, to, consumer, inputRangeCount, outputRangeCount));
+                return;
+            }
+            ZipCodeRangeSetBuilder builder = builders.get();
+            long inputRanges = 0;
+            long outputRanges = 0;
+            for (int index = from; index < to; index++) {
+                Map.Entry<K, ? extends List<ZipCodeRange>> entry = entries.get(index);
+                List<ZipCodeRange> listOfZipCodeRanges = entry.getValue();
+                builder.reset();
+                for (int rangeIndex = 0; rangeIndex < listOfZipCodeRanges.size(); rangeIndex++) {
+                    builder.add(listOfZipCodeRanges.get(rangeIndex));
+                }
+                ZipCodeRangeSet zipCodeRangeSet = builder.build();
+                inputRanges += listOfZipCodeRanges.size();
+                outputRanges += zipCodeRangeSet.size();
+                consumer.accept(entry.getKey(), zipCodeRangeSet);
+            }
+            inputRangeCount.add(inputRanges);
+            outputRangeCount.add(outputRanges);
+        }
+    }
+}
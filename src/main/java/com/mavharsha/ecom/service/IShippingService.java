@@ -5,6 +5,7 @@ import com.mavharsha.ecom.model.ZipCodeRange;
 import lombok.NonNull;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
 
 public interface IShippingService {
@@ -13,4 +14,33 @@ public interface IShippingService {
     List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException;
 
     boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException;
+
+    boolean canBeShippedToZipCode(int zipCode) throws IOException;
+
+    /**
+     * Looks up a batch of zipCodes. Invalid zipCodes are flagged in invalid instead of throwing. Bits at the
+     * positions of zipCodes are always written, so result sets can be reused from one batch to the next.
+     * @param zipCodes zipCodes as raw integers
+     * @param shippable receives a set bit at the position of every zipCode that can be shipped, else a clear bit
+     * @param invalid receives a set bit at the position of every zipCode that is not a 5 digit positive integer, else
+     * a clear bit
+     * @return number of zipCodes that can be shipped
+     * @throws IOException when data source is incorrect
+     */
+    int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException;
+
+    /**
+     * Looks up a batch of zipCodes, optionally split across cores. Invalid zipCodes are flagged in invalid instead
+     * of throwing.
+     * @param zipCodes zipCodes as raw integers
+     * @param shippable receives true at the position of every zipCode that can be shipped, else false
+     * @param invalid receives true at the position of every zipCode that is not a 5 digit positive integer
+     * @param parallel true to split large batches across the common ForkJoinPool
+     * @return number of zipCodes that can be shipped
+     * @throws IllegalArgumentException when a result array is shorter than zipCodes
+     * @throws IOException when data source is incorrect
+     */
+    int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable, @NonNull boolean[] invalid,
+                               boolean parallel) throws IOException;
 }
@@ -0,0 +1,15 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.util.List;
+
+public interface IZipCodeRangeConsolidator {
+
+    /**
+     * @param listOfZipCodeRanges ranges in any order, possibly overlapping
+     * @return sorted list with the minimum number of ranges representing the same zipCodes
+     */
+    List<ZipCodeRange> consolidate(@NonNull List<ZipCodeRange> listOfZipCodeRanges);
+}
@@ -0,0 +1,252 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.metrics.IShippingMetricsListener;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * {@link IShippingService} whose rules can be refreshed while serving. Every load builds a complete, immutable
+ * {@link ShippableZipCodes} off the request threads and publishes it with a single atomic swap, so lookups never
+ * block and never see a half built state. Concurrent first calls trigger exactly one load.
+ */
+public class ReloadableShippingService implements IShippingService, Closeable {
+
+    private final Supplier<IZipCodeRangeDAO> zipCodeRangeDAOFactory;
+    private final IZipCodeRangeConsolidator zipCodeRangeConsolidator;
+    private final IShippingMetricsListener metricsListener;
+    private final AtomicReference<ShippableZipCodes> currentShippableZipCodes;
+    private final ScheduledExecutorService reloadExecutor;
+    private final Object reloadLock;
+    private final AtomicLong reloadCount;
+    private final Path rulesFilePath;
+    private volatile Path watchedFilePath;
+    /* version of watchedFilePath read right before the last successful load */
+    private volatile String loadedVersion;
+    private volatile Exception lastReloadFailure;
+
+    /**
+     * @param zipCodeRangeDAOFactory creates a fresh dataSource for every load, so cached ranges are never reused
+     */
+    public ReloadableShippingService(@NonNull Supplier<IZipCodeRangeDAO> zipCodeRangeDAOFactory) {
+        this(zipCodeRangeDAOFactory, new SortMergeZipCodeRangeConsolidator());
+    }
+
+    /**
+     * @param zipCodeRangeDAOFactory creates a fresh dataSource for every load, so cached ranges are never reused
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     */
+    public ReloadableShippingService(@NonNull Supplier<IZipCodeRangeDAO> zipCodeRangeDAOFactory,
+                                     @NonNull IZipCodeRangeConsolidator zipCodeRangeConsolidator) {
+        this(zipCodeRangeDAOFactory, zipCodeRangeConsolidator, IShippingMetricsListener.disabled);
+    }
+
+    /**
+     * @param zipCodeRangeDAOFactory creates a fresh dataSource for every load, so cached ranges are never reused
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @param metricsListener receives load, consolidation and lookup timings, e.g.
+     * {@link com.mavharsha.ecom.metrics.ShippingMetrics}
+     */
+    public ReloadableShippingService(@NonNull Supplier<IZipCodeRangeDAO> zipCodeRangeDAOFactory,
+                                     @NonNull IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                                     @NonNull IShippingMetricsListener metricsListener) {
+        this(zipCodeRangeDAOFactory, zipCodeRangeConsolidator, metricsListener, null);
+    }
+
+    private ReloadableShippingService(Supplier<IZipCodeRangeDAO> zipCodeRangeDAOFactory,
+                                      IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                                      IShippingMetricsListener metricsListener, Path rulesFilePath) {
+        this.zipCodeRangeDAOFactory = zipCodeRangeDAOFactory;
+        this.zipCodeRangeConsolidator = zipCodeRangeConsolidator;
+        this.metricsListener = metricsListener;
+        this.currentShippableZipCodes = new AtomicReference<>();
+        this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-rules-reload-%d").setDaemon(true).build());
+        this.reloadLock = new Object();
+        this.reloadCount = new AtomicLong();
+        this.rulesFilePath = rulesFilePath;
+        this.watchedFilePath = rulesFilePath;
+    }
+
+    /**
+     * @param filePath JSON rules file, reloaded whenever it changes once {@link #watch(long, TimeUnit)} is called
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @return service over the rules file
+     */
+    public static ReloadableShippingService forFile(@NonNull Path filePath,
+                                                    @NonNull IZipCodeRangeConsolidator zipCodeRangeConsolidator) {
+        return new ReloadableShippingService(() -> new FileZipCodeRangeDAO(filePath), zipCodeRangeConsolidator,
+                IShippingMetricsListener.disabled, filePath);
+    }
+
+    @Override
+    public List<ZipCodeRange> getListZipCodeRanges() throws IOException {
+        return getShippableZipCodes().getListOfZipCodeRanges();
+    }
+
+    @Override
+    public List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException {
+        return getShippableZipCodes().getListOfShippableZipCodes();
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException {
+        return getShippableZipCodes().contains(zipCode.getCode(), metricsListener);
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(int zipCode) throws IOException {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        return getShippableZipCodes().contains(zipCode, metricsListener);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException {
+        return getShippableZipCodes().lookup(zipCodes, shippable, invalid, metricsListener);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable,
+                                      @NonNull boolean[] invalid, boolean parallel) throws IOException {
+        return getShippableZipCodes().lookup(zipCodes, shippable, invalid, parallel, metricsListener);
+    }
+
+    /**
+     * Loads the rules on the calling thread and swaps them in. Lookups keep using the previous rules meanwhile,
+     * and keep using them if the load fails.
+     * @throws IOException when data source is incorrect
+     */
+    public void reload() throws IOException {
+        synchronized (reloadLock) {
+            /* read before the load, so a change made while loading is picked up by the next poll */
+            String version = versionOf(watchedFilePath);
+            ShippableZipCodes reloadedShippableZipCodes;
+            try {
+                reloadedShippableZipCodes = ShippableZipCodes.load(zipCodeRangeDAOFactory.get(),
+                        zipCodeRangeConsolidator, metricsListener);
+            } catch (IOException | RuntimeException e) {
+                lastReloadFailure = e;
+                throw e;
+            }
+            currentShippableZipCodes.set(reloadedShippableZipCodes);
+            loadedVersion = version;
+            lastReloadFailure = null;
+            reloadCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Same as {@link #reload()}, on the background reload thread.
+     * @return completes once the rules are swapped in, or with the failure
+     */
+    public Future<Void> reloadAsync() {
+        return reloadExecutor.submit(() -> {
+            reload();
+            return null;
+        });
+    }
+
+    /**
+     * Polls the rules file given to {@link #forFile} and reloads in the background when it changes.
+     * @param pollInterval time between two polls
+     * @param timeUnit unit of pollInterval
+     * @return this service
+     * @throws IllegalStateException when the service was not created with {@link #forFile}
+     */
+    public ReloadableShippingService watch(long pollInterval, @NonNull TimeUnit timeUnit) {
+        Preconditions.checkState(rulesFilePath != null, "No rules file to watch, use watch(Path, long, TimeUnit).");
+        return watch(rulesFilePath, pollInterval, timeUnit);
+    }
+
+    /**
+     * Polls filePath and reloads in the background when its size or modification time differs from the ones read
+     * by the last successful load.
+     * @param filePath rules file read by the dataSource
+     * @param pollInterval time between two polls
+     * @param timeUnit unit of pollInterval
+     * @return this service
+     */
+    public ReloadableShippingService watch(@NonNull Path filePath, long pollInterval, @NonNull TimeUnit timeUnit) {
+        Preconditions.checkArgument(pollInterval > 0, "Poll interval should be positive.");
+        watchedFilePath = filePath;
+        reloadExecutor.scheduleWithFixedDelay(() -> {
+            String version = versionOf(filePath);
+            if (version != null && !version.equals(loadedVersion)) {
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    /* kept in lastReloadFailure, retried on the next poll */
+                }
+            }
+        }, pollInterval, pollInterval, timeUnit);
+        return this;
+    }
+
+    /**
+     * @return the failure of the last reload, null if it succeeded
+     */
+    public Exception getLastReloadFailure() {
+        return lastReloadFailure;
+    }
+
+    /**
+     * @return number of successful loads, including the first one
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Stops watching the rules file.
+     */
+    @Override
+    public void close() {
+        reloadExecutor.shutdownNow();
+    }
+
+    private ShippableZipCodes getShippableZipCodes() throws IOException {
+        ShippableZipCodes shippableZipCodes = currentShippableZipCodes.get();
+        if (shippableZipCodes == null) {
+            synchronized (reloadLock) {
+                shippableZipCodes = currentShippableZipCodes.get();
+                if (shippableZipCodes == null) {
+                    reload();
+                    shippableZipCodes = currentShippableZipCodes.get();
+                }
+            }
+        }
+        return shippableZipCodes;
+    }
+
+    private static String versionOf(Path filePath) {
+        if (filePath == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
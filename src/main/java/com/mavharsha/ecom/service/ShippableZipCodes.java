@@ -0,0 +1,129 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.IZipCodeIndex;
+import com.mavharsha.ecom.index.IZipCodeIndexFactory;
+import com.mavharsha.ecom.metrics.IShippingMetricsListener;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable result of one load of a data source: its ranges, their consolidation and the lookup index. Services
+ * publish it with a single volatile write, so readers always see a complete state.
+ */
+@ToString
+@EqualsAndHashCode
+final class ShippableZipCodes {
+
+    private final List<ZipCodeRange> listOfZipCodeRanges;
+    private final List<ZipCodeRange> listOfShippableZipCodes;
+    private final IZipCodeIndex indexOfShippableZipCodes;
+
+    private ShippableZipCodes(List<ZipCodeRange> listOfZipCodeRanges, List<ZipCodeRange> listOfShippableZipCodes,
+                              IZipCodeIndex indexOfShippableZipCodes) {
+        this.listOfZipCodeRanges = listOfZipCodeRanges;
+        this.listOfShippableZipCodes = listOfShippableZipCodes;
+        this.indexOfShippableZipCodes = indexOfShippableZipCodes;
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @param metricsListener receives the load and consolidation timings, or the failure
+     * @return ranges of the data source, consolidated and indexed
+     * @throws IOException when data source is incorrect
+     */
+    static ShippableZipCodes load(IZipCodeRangeDAO zipCodeRangeDAO, IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                                  IShippingMetricsListener metricsListener) throws IOException {
+        return load(zipCodeRangeDAO, zipCodeRangeConsolidator, metricsListener, IZipCodeIndexFactory.bitSet);
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @param metricsListener receives the load and consolidation timings, or the failure
+     * @param zipCodeIndexFactory builds the lookup index from the consolidated ranges
+     * @return ranges of the data source, consolidated and indexed
+     * @throws IOException when data source is incorrect
+     */
+    static ShippableZipCodes load(IZipCodeRangeDAO zipCodeRangeDAO, IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                                  IShippingMetricsListener metricsListener, IZipCodeIndexFactory zipCodeIndexFactory)
+            throws IOException {
+        try {
+            long start = System.nanoTime();
+            List<ZipCodeRange> listOfZipCodeRanges = zipCodeRangeDAO.getListOfZipCodeRanges();
+            long loaded = System.nanoTime();
+            metricsListener.onLoad(loaded - start, listOfZipCodeRanges.size());
+
+            List<ZipCodeRange> listOfShippableZipCodes =
+                    ImmutableList.copyOf(zipCodeRangeConsolidator.consolidate(listOfZipCodeRanges));
+            IZipCodeIndex indexOfShippableZipCodes = zipCodeIndexFactory.create(listOfShippableZipCodes);
+            metricsListener.onConsolidation(System.nanoTime() - loaded, listOfZipCodeRanges.size(),
+                    listOfShippableZipCodes.size(), indexOfShippableZipCodes.getSizeInBytes());
+            return new ShippableZipCodes(ImmutableList.copyOf(Ordering.natural().sortedCopy(listOfZipCodeRanges)),
+                    listOfShippableZipCodes, indexOfShippableZipCodes);
+        } catch (IOException | RuntimeException e) {
+            metricsListener.onLoadFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return ranges of the data source, sorted
+     */
+    List<ZipCodeRange> getListOfZipCodeRanges() {
+        return listOfZipCodeRanges;
+    }
+
+    List<ZipCodeRange> getListOfShippableZipCodes() {
+        return listOfShippableZipCodes;
+    }
+
+    IZipCodeIndex getIndexOfShippableZipCodes() {
+        return indexOfShippableZipCodes;
+    }
+
+    /**
+     * @param zipCode A zipCode as a raw integer
+     * @param metricsListener receives the lookup time, unless it is {@link IShippingMetricsListener#disabled}
+     * @return true if zipCode can be shipped, else false
+     */
+    boolean contains(int zipCode, IShippingMetricsListener metricsListener) {
+        if (metricsListener == IShippingMetricsListener.disabled) {
+            return indexOfShippableZipCodes.contains(zipCode);
+        }
+        long start = System.nanoTime();
+        boolean shippable = indexOfShippableZipCodes.contains(zipCode);
+        metricsListener.onLookup(System.nanoTime() - start);
+        return shippable;
+    }
+
+    /**
+     * @see ZipCodeBatchLookup#lookup(IZipCodeIndex, int[], BitSet, BitSet)
+     */
+    int lookup(int[] zipCodes, BitSet shippable, BitSet invalid, IShippingMetricsListener metricsListener) {
+        long start = System.nanoTime();
+        int shippableCount = ZipCodeBatchLookup.lookup(indexOfShippableZipCodes, zipCodes, shippable, invalid);
+        metricsListener.onBatchLookup(System.nanoTime() - start, zipCodes.length);
+        return shippableCount;
+    }
+
+    /**
+     * @see ZipCodeBatchLookup#lookup(IZipCodeIndex, int[], boolean[], boolean[], boolean)
+     */
+    int lookup(int[] zipCodes, boolean[] shippable, boolean[] invalid, boolean parallel,
+               IShippingMetricsListener metricsListener) {
+        long start = System.nanoTime();
+        int shippableCount = ZipCodeBatchLookup.lookup(indexOfShippableZipCodes, zipCodes, shippable, invalid,
+                parallel);
+        metricsListener.onBatchLookup(System.nanoTime() - start, zipCodes.length);
+        return shippableCount;
+    }
+}
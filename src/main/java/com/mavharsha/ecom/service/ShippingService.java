@@ -1,9 +1,10 @@
 package com.mavharsha.ecom.service;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Ordering;
+import com.google.common.base.Preconditions;
 import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
 import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.IZipCodeIndexFactory;
+import com.mavharsha.ecom.metrics.IShippingMetricsListener;
 import com.mavharsha.ecom.model.ZipCode;
 import com.mavharsha.ecom.model.ZipCodeRange;
 import lombok.EqualsAndHashCode;
@@ -11,7 +12,7 @@ import lombok.NonNull;
 import lombok.ToString;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 @ToString
@@ -19,8 +20,10 @@ import java.util.List;
 public class ShippingService implements IShippingService {
 
     private IZipCodeRangeDAO zipCodeRangeDAO;
-    private List<ZipCodeRange> listOfZipCodeRanges;
-    private List<ZipCodeRange> listOfShippableZipCodes;
+    private IZipCodeRangeConsolidator zipCodeRangeConsolidator;
+    private IShippingMetricsListener metricsListener;
+    private IZipCodeIndexFactory zipCodeIndexFactory;
+    private volatile ShippableZipCodes loadedShippableZipCodes;
 
     /**
      * Default constructor, and uses {@link FileZipCodeRangeDAO} as default dataSource
@@ -34,9 +37,43 @@ public class ShippingService implements IShippingService {
      * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
      */
     public ShippingService(IZipCodeRangeDAO zipCodeRangeDAO) {
+        this(zipCodeRangeDAO, new SortMergeZipCodeRangeConsolidator());
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges, e.g.
+     * {@link SweepZipCodeRangeConsolidator} for very large inputs
+     */
+    public ShippingService(IZipCodeRangeDAO zipCodeRangeDAO, IZipCodeRangeConsolidator zipCodeRangeConsolidator) {
+        this(zipCodeRangeDAO, zipCodeRangeConsolidator, IShippingMetricsListener.disabled);
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @param metricsListener receives load, consolidation and lookup timings, e.g.
+     * {@link com.mavharsha.ecom.metrics.ShippingMetrics}
+     */
+    public ShippingService(IZipCodeRangeDAO zipCodeRangeDAO, IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                           @NonNull IShippingMetricsListener metricsListener) {
+        this(zipCodeRangeDAO, zipCodeRangeConsolidator, metricsListener, IZipCodeIndexFactory.bitSet);
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges
+     * @param zipCodeRangeConsolidator algorithm used to consolidate the ZipCodeRanges
+     * @param metricsListener receives load, consolidation and lookup timings
+     * @param zipCodeIndexFactory builds the lookup index, e.g. {@link IZipCodeIndexFactory#compiled} for a small
+     * and stable set of ranges
+     */
+    public ShippingService(IZipCodeRangeDAO zipCodeRangeDAO, IZipCodeRangeConsolidator zipCodeRangeConsolidator,
+                           @NonNull IShippingMetricsListener metricsListener,
+                           @NonNull IZipCodeIndexFactory zipCodeIndexFactory) {
         this.zipCodeRangeDAO = zipCodeRangeDAO;
-        this.listOfZipCodeRanges = new ArrayList<>();
-        this.listOfShippableZipCodes = new ArrayList<>();
+        this.zipCodeRangeConsolidator = zipCodeRangeConsolidator;
+        this.metricsListener = metricsListener;
+        this.zipCodeIndexFactory = zipCodeIndexFactory;
     }
 
 
@@ -46,10 +83,7 @@ public class ShippingService implements IShippingService {
      */
     @Override
     public List<ZipCodeRange> getListZipCodeRanges() throws IOException {
-        if (listOfZipCodeRanges.size() == 0) {
-            listOfZipCodeRanges = Ordering.natural().sortedCopy(zipCodeRangeDAO.getListOfZipCodeRanges());
-        }
-        return ImmutableList.copyOf(listOfZipCodeRanges);
+        return getShippableZipCodes().getListOfZipCodeRanges();
     }
 
     /**
@@ -59,32 +93,7 @@ public class ShippingService implements IShippingService {
      */
     @Override
     public List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException {
-
-        if (listOfShippableZipCodes.size() == 0) {
-
-            List<ZipCodeRange> listOfZipCodeRanges = getListZipCodeRanges();
-
-            if(listOfZipCodeRanges.size() > 0) {
-                listOfShippableZipCodes = new ArrayList<>();
-                int indexOfShippableZipCode = 0;
-                ZipCodeRange currentShippableZipCodeRange, currentZipCodeRange, mergedZipCodeRange;
-                listOfShippableZipCodes.add(indexOfShippableZipCode, listOfZipCodeRanges.get(0));
-
-                for (int index = 1; index < listOfZipCodeRanges.size(); index++) {
-                    currentShippableZipCodeRange = listOfZipCodeRanges.get(indexOfShippableZipCode);
-                    currentZipCodeRange = listOfZipCodeRanges.get(index);
-                    if (currentShippableZipCodeRange.isRangeMergeable(currentZipCodeRange)) {
-                        mergedZipCodeRange = currentShippableZipCodeRange.mergeRange(currentZipCodeRange);
-                        listOfShippableZipCodes.remove(indexOfShippableZipCode);
-                        listOfShippableZipCodes.add(mergedZipCodeRange);
-                    } else {
-                        listOfShippableZipCodes.add(currentZipCodeRange);
-                        indexOfShippableZipCode++;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(listOfShippableZipCodes);
+        return getShippableZipCodes().getListOfShippableZipCodes();
     }
 
     /**
@@ -94,12 +103,52 @@ public class ShippingService implements IShippingService {
      */
     @Override
     public boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException {
-        List<ZipCodeRange> listOfShippableZipCodeRanges = getConsolidatedShippableZipCodeRanges();
-        for (int index = 0; index < listOfShippableZipCodeRanges.size(); index++) {
-            if (listOfShippableZipCodeRanges.get(index).isZipCodeInRange(zipCode)) {
-                return true;
+        return getShippableZipCodes().contains(zipCode.getCode(), metricsListener);
+    }
+
+    /**
+     * Same as {@link #canBeShippedToZipCode(ZipCode)}, without allocating a ZipCode per lookup.
+     * @param zipCode A 5 digit positive integer
+     * @return true if zipCode can be shipped, else false
+     * @throws IllegalArgumentException when zipCode is not a 5 digit positive integer
+     * @throws IOException when data source is incorrect
+     */
+    @Override
+    public boolean canBeShippedToZipCode(int zipCode) throws IOException {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        return getShippableZipCodes().contains(zipCode, metricsListener);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException {
+        return getShippableZipCodes().lookup(zipCodes, shippable, invalid, metricsListener);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable,
+                                      @NonNull boolean[] invalid, boolean parallel) throws IOException {
+        return getShippableZipCodes().lookup(zipCodes, shippable, invalid, parallel, metricsListener);
+    }
+
+    /**
+     * Loads the data source once, on first use. Concurrent first calls wait for that single load, later calls
+     * only read a volatile field.
+     * @return ranges of the data source, consolidated and indexed
+     * @throws IOException when data source is incorrect
+     */
+    private ShippableZipCodes getShippableZipCodes() throws IOException {
+        ShippableZipCodes currentShippableZipCodes = loadedShippableZipCodes;
+        if (currentShippableZipCodes == null) {
+            synchronized (this) {
+                currentShippableZipCodes = loadedShippableZipCodes;
+                if (currentShippableZipCodes == null) {
+                    currentShippableZipCodes = ShippableZipCodes.load(zipCodeRangeDAO, zipCodeRangeConsolidator,
+                            metricsListener, zipCodeIndexFactory);
+                    loadedShippableZipCodes = currentShippableZipCodes;
+                }
             }
         }
-        return false;
+        return currentShippableZipCodes;
     }
 }
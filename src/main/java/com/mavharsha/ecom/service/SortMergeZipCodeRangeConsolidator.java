@@ -0,0 +1,38 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Sorts the ranges and merges overlapping neighbours with {@link ZipCodeRange#mergeRange(ZipCodeRange)}.
+ * O(n log n), allocates a ZipCodeRange per merge.
+ */
+public class SortMergeZipCodeRangeConsolidator implements IZipCodeRangeConsolidator {
+
+    @Override
+    public List<ZipCodeRange> consolidate(@NonNull List<ZipCodeRange> listOfZipCodeRanges) {
+        if (listOfZipCodeRanges.size() == 0) {
+            return ImmutableList.of();
+        }
+        List<ZipCodeRange> sortedZipCodeRanges = Ordering.natural().sortedCopy(listOfZipCodeRanges);
+        ImmutableList.Builder<ZipCodeRange> listOfShippableZipCodes = ImmutableList.builder();
+        ZipCodeRange currentShippableZipCodeRange = sortedZipCodeRanges.get(0);
+        ZipCodeRange currentZipCodeRange;
+
+        for (int index = 1; index < sortedZipCodeRanges.size(); index++) {
+            currentZipCodeRange = sortedZipCodeRanges.get(index);
+            if (currentShippableZipCodeRange.isRangeMergeable(currentZipCodeRange)) {
+                currentShippableZipCodeRange = currentShippableZipCodeRange.mergeRange(currentZipCodeRange);
+            } else {
+                listOfShippableZipCodes.add(currentShippableZipCodeRange);
+                currentShippableZipCodeRange = currentZipCodeRange;
+            }
+        }
+        listOfShippableZipCodes.add(currentShippableZipCodeRange);
+        return listOfShippableZipCodes.build();
+    }
+}
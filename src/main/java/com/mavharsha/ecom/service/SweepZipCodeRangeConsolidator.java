@@ -0,0 +1,24 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Consolidates in O(n + domain) with a {@link ZipCodeRangeSetBuilder} sweep instead of sorting, no allocation per
+ * merge. Adjacent ranges, e.g. [94200,94299] and [94300,94399], are joined as well. Suited to inputs with a very
+ * large number of overlapping ranges.
+ */
+public class SweepZipCodeRangeConsolidator implements IZipCodeRangeConsolidator {
+
+    @Override
+    public List<ZipCodeRange> consolidate(@NonNull List<ZipCodeRange> listOfZipCodeRanges) {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder();
+        for (int index = 0; index < listOfZipCodeRanges.size(); index++) {
+            builder.add(listOfZipCodeRanges.get(index));
+        }
+        return builder.build().toZipCodeRanges();
+    }
+}
@@ -0,0 +1,304 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.dao.ITimedZipCodeRangeDAO;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.index.ZipCodeRangeSets;
+import com.mavharsha.ecom.model.TimedZipCodeRange;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IShippingService} whose shippable ranges minus the embargoes in effect change over time. Every load
+ * precomputes one consolidated {@link ZipCodeRangeSet} per period between two consecutive effective bounds, and a
+ * scheduler swaps in the next one when the clock crosses a bound. Lookups read the current set only and never
+ * look at the time.
+ */
+public class TimedShippingService implements IShippingService, Closeable {
+
+    /* upper bound of the wait for the next bound, so a clock jump or a suspended host is caught up quickly */
+    private static final long maxRefreshDelayNanos = TimeUnit.HOURS.toNanos(1);
+
+    private final IZipCodeRangeDAO zipCodeRangeDAO;
+    private final ITimedZipCodeRangeDAO embargoDAO;
+    private final Clock clock;
+    private final ScheduledExecutorService refreshExecutor;
+    private final Object reloadLock;
+    private volatile Snapshots snapshots;
+    private volatile Snapshot currentSnapshot;
+    private ScheduledFuture<?> nextRefresh;
+
+    /**
+     * @param zipCodeRangeDAO dataSource of the shippable ranges
+     * @param embargoDAO dataSource of the ranges not shippable while in effect
+     */
+    public TimedShippingService(@NonNull IZipCodeRangeDAO zipCodeRangeDAO, @NonNull ITimedZipCodeRangeDAO embargoDAO) {
+        this(zipCodeRangeDAO, embargoDAO, Clock.systemUTC());
+    }
+
+    /**
+     * @param zipCodeRangeDAO dataSource of the shippable ranges
+     * @param embargoDAO dataSource of the ranges not shippable while in effect
+     * @param clock source of the current instant
+     */
+    public TimedShippingService(@NonNull IZipCodeRangeDAO zipCodeRangeDAO, @NonNull ITimedZipCodeRangeDAO embargoDAO,
+                                @NonNull Clock clock) {
+        this.zipCodeRangeDAO = zipCodeRangeDAO;
+        this.embargoDAO = embargoDAO;
+        this.clock = clock;
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-timed-switch-%d").setDaemon(true).build());
+        this.reloadLock = new Object();
+    }
+
+    /**
+     * @return ranges of the data source, sorted
+     * @throws IOException when data source is incorrect
+     */
+    @Override
+    public List<ZipCodeRange> getListZipCodeRanges() throws IOException {
+        getCurrentSnapshot();
+        return snapshots.listOfZipCodeRanges;
+    }
+
+    /**
+     * @return consolidated shippable ranges, without the embargoes in effect now
+     * @throws IOException when data source is incorrect
+     */
+    @Override
+    public List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException {
+        return getCurrentSnapshot().getListOfShippableZipCodes();
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException {
+        return getCurrentSnapshot().shippableZipCodes.contains(zipCode.getCode());
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(int zipCode) throws IOException {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        return getCurrentSnapshot().shippableZipCodes.contains(zipCode);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException {
+        return ZipCodeBatchLookup.lookup(getCurrentSnapshot().shippableZipCodes, zipCodes, shippable, invalid);
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable,
+                                      @NonNull boolean[] invalid, boolean parallel) throws IOException {
+        return ZipCodeBatchLookup.lookup(getCurrentSnapshot().shippableZipCodes, zipCodes, shippable, invalid,
+                parallel);
+    }
+
+    /**
+     * Loads both dataSources on the calling thread, precomputes every snapshot and swaps in the one in effect now.
+     * Lookups keep using the previous snapshots meanwhile, and keep using them if the load fails.
+     * @throws IOException when data source is incorrect
+     */
+    public void reload() throws IOException {
+        synchronized (reloadLock) {
+            snapshots = Snapshots.of(zipCodeRangeDAO.getListOfZipCodeRanges(),
+                    embargoDAO.getListOfTimedZipCodeRanges());
+            refresh();
+        }
+    }
+
+    /**
+     * Swaps in the snapshot in effect at the current instant of the clock and schedules the next swap at the
+     * following bound. Called by the scheduler, only needed otherwise when the clock is moved by hand.
+     * @throws IOException when data source is incorrect
+     */
+    public void refresh() throws IOException {
+        synchronized (reloadLock) {
+            if (snapshots == null) {
+                reload();
+                return;
+            }
+            Instant now = clock.instant();
+            int index = snapshots.indexAt(now);
+            currentSnapshot = snapshots.snapshots[index];
+            if (nextRefresh != null) {
+                nextRefresh.cancel(false);
+                nextRefresh = null;
+            }
+            if (index < snapshots.bounds.length && !refreshExecutor.isShutdown()) {
+                nextRefresh = refreshExecutor.schedule(this::refreshQuietly,
+                        delayNanos(now, snapshots.bounds[index]), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct snapshots precomputed by the last load
+     * @throws IOException when data source is incorrect
+     */
+    public int getSnapshotCount() throws IOException {
+        getCurrentSnapshot();
+        return snapshots.snapshots.length;
+    }
+
+    /**
+     * @return first instant of the snapshot in effect, null if it has always been in effect
+     * @throws IOException when data source is incorrect
+     */
+    public Instant getEffectiveSince() throws IOException {
+        return getCurrentSnapshot().effectiveSince;
+    }
+
+    /**
+     * Stops switching snapshots, the current one stays in effect.
+     */
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Snapshot getCurrentSnapshot() throws IOException {
+        Snapshot snapshot = currentSnapshot;
+        if (snapshot == null) {
+            synchronized (reloadLock) {
+                snapshot = currentSnapshot;
+                if (snapshot == null) {
+                    reload();
+                    snapshot = currentSnapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            /* only a first load can fail here, and the next lookup retries it */
+        }
+    }
+
+    private static long delayNanos(Instant now, Instant bound) {
+        Duration delay = Duration.between(now, bound);
+        if (delay.compareTo(Duration.ofNanos(maxRefreshDelayNanos)) >= 0) {
+            return maxRefreshDelayNanos;
+        }
+        return Math.max(0, delay.toNanos());
+    }
+
+    /**
+     * Consolidated shippable ranges in effect from an instant until the next bound. The list of ranges is only
+     * built when asked for, so periods that are never listed hold nothing but the two int arrays of their set.
+     */
+    private static final class Snapshot {
+
+        private final Instant effectiveSince;
+        private final ZipCodeRangeSet shippableZipCodes;
+        private volatile List<ZipCodeRange> listOfShippableZipCodes;
+
+        private Snapshot(Instant effectiveSince, ZipCodeRangeSet shippableZipCodes) {
+            this.effectiveSince = effectiveSince;
+            this.shippableZipCodes = shippableZipCodes;
+        }
+
+        /**
+         * @return the same list on every call, so callers can cache what they derive from it
+         */
+        private List<ZipCodeRange> getListOfShippableZipCodes() {
+            List<ZipCodeRange> zipCodeRanges = listOfShippableZipCodes;
+            if (zipCodeRanges == null) {
+                synchronized (this) {
+                    zipCodeRanges = listOfShippableZipCodes;
+                    if (zipCodeRanges == null) {
+                        zipCodeRanges = shippableZipCodes.toZipCodeRanges();
+                        listOfShippableZipCodes = zipCodeRanges;
+                    }
+                }
+            }
+            return zipCodeRanges;
+        }
+    }
+
+    /**
+     * Every snapshot of a load, snapshots[i] in effect from bounds[i - 1], inclusive, until bounds[i], exclusive.
+     */
+    private static final class Snapshots {
+
+        private final List<ZipCodeRange> listOfZipCodeRanges;
+        private final Instant[] bounds;
+        private final Snapshot[] snapshots;
+
+        private Snapshots(List<ZipCodeRange> listOfZipCodeRanges, Instant[] bounds, Snapshot[] snapshots) {
+            this.listOfZipCodeRanges = listOfZipCodeRanges;
+            this.bounds = bounds;
+            this.snapshots = snapshots;
+        }
+
+        static Snapshots of(List<ZipCodeRange> listOfZipCodeRanges, List<TimedZipCodeRange> embargoes) {
+            ZipCodeRangeSet zipCodeRanges = ZipCodeRangeSet.of(listOfZipCodeRanges);
+            TreeSet<Instant> distinctBounds = new TreeSet<>();
+            for (TimedZipCodeRange embargo : embargoes) {
+                if (embargo.getEffectiveFrom() != null) {
+                    distinctBounds.add(embargo.getEffectiveFrom());
+                }
+                if (embargo.getEffectiveTo() != null) {
+                    distinctBounds.add(embargo.getEffectiveTo());
+                }
+            }
+            List<Instant> bounds = new ArrayList<>();
+            List<Snapshot> snapshots = new ArrayList<>();
+            ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder();
+            snapshots.add(new Snapshot(null, shippableAt(null, zipCodeRanges, embargoes, builder)));
+            for (Instant bound : distinctBounds) {
+                ZipCodeRangeSet shippableZipCodes = shippableAt(bound, zipCodeRanges, embargoes, builder);
+                if (!snapshots.get(snapshots.size() - 1).shippableZipCodes.equals(shippableZipCodes)) {
+                    bounds.add(bound);
+                    snapshots.add(new Snapshot(bound, shippableZipCodes));
+                }
+            }
+            return new Snapshots(ImmutableList.copyOf(Ordering.natural().sortedCopy(listOfZipCodeRanges)),
+                    bounds.toArray(new Instant[0]), snapshots.toArray(new Snapshot[0]));
+        }
+
+        private static ZipCodeRangeSet shippableAt(Instant instant, ZipCodeRangeSet zipCodeRanges,
+                                                   List<TimedZipCodeRange> embargoes, ZipCodeRangeSetBuilder builder) {
+            builder.reset();
+            for (TimedZipCodeRange embargo : embargoes) {
+                if (embargo.isEffectiveAt(instant)) {
+                    builder.add(embargo.getZipCodeRange());
+                }
+            }
+            return ZipCodeRangeSets.difference(zipCodeRanges, builder.build());
+        }
+
+        /**
+         * @return index of the snapshot in effect at instant
+         */
+        int indexAt(Instant instant) {
+            int index = Arrays.binarySearch(bounds, instant);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+}
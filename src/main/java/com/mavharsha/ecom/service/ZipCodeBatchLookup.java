@@ -0,0 +1,68 @@
+package com.mavharsha.ecom.service;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.IZipCodeIndex;
+import com.mavharsha.ecom.model.ZipCode;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Batch lookups shared by the {@link IShippingService} implementations. Invalid zipCodes are flagged in a mask
+ * instead of throwing, and nothing is allocated per zipCode.
+ */
+final class ZipCodeBatchLookup {
+
+    static final String errorResultTooSmall = "Result arrays should be at least as long as the zipCodes.";
+
+    /* batches smaller than this are never split, nor are the chunks of a parallel batch */
+    private static final int parallelChunkSize = 1 << 16;
+
+    private ZipCodeBatchLookup() {}
+
+    static int lookup(IZipCodeIndex index, int[] zipCodes, BitSet shippable, BitSet invalid) {
+        /* cleared first, so that results reused from a previous batch never leak into this one */
+        shippable.clear(0, zipCodes.length);
+        invalid.clear(0, zipCodes.length);
+        int shippableCount = 0;
+        for (int position = 0; position < zipCodes.length; position++) {
+            int zipCode = zipCodes[position];
+            if (!ZipCode.isValidCode(zipCode)) {
+                invalid.set(position);
+            } else if (index.contains(zipCode)) {
+                shippable.set(position);
+                shippableCount++;
+            }
+        }
+        return shippableCount;
+    }
+
+    static int lookup(IZipCodeIndex index, int[] zipCodes, boolean[] shippable, boolean[] invalid, boolean parallel) {
+        Preconditions.checkArgument(shippable.length >= zipCodes.length && invalid.length >= zipCodes.length,
+                errorResultTooSmall);
+        if (!parallel || zipCodes.length < 2 * parallelChunkSize) {
+            return lookup(index, zipCodes, shippable, invalid, 0, zipCodes.length);
+        }
+        int chunkCount = (zipCodes.length + parallelChunkSize - 1) / parallelChunkSize;
+        return IntStream.range(0, chunkCount).parallel()
+                .map(chunk -> lookup(index, zipCodes, shippable, invalid, chunk * parallelChunkSize,
+                        Math.min(zipCodes.length, (chunk + 1) * parallelChunkSize)))
+                .sum();
+    }
+
+    private static int lookup(IZipCodeIndex index, int[] zipCodes, boolean[] shippable, boolean[] invalid,
+                              int from, int to) {
+        int shippableCount = 0;
+        for (int position = from; position < to; position++) {
+            int zipCode = zipCodes[position];
+            boolean isValid = ZipCode.isValidCode(zipCode);
+            boolean isShippable = isValid && index.contains(zipCode);
+            invalid[position] = !isValid;
+            shippable[position] = isShippable;
+            if (isShippable) {
+                shippableCount++;
+            }
+        }
+        return shippableCount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mavharsha.ecom.shard;
+
+import com.mavharsha.ecom.http.HttpShippingClient;
+import com.mavharsha.ecom.http.ShippingHttpServer;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Starts every shard as a {@link ShippingHttpServer} on a free localhost port, reached through an
+ * {@link HttpShippingClient}; closing the client stops its server. Gives a router real network hops without a
+ * deployment, e.g. for tests and capacity experiments. Call {@link ShippingHttpServer#enableNoDelay()} first, or
+ * every hop waits on Nagle's algorithm.
+ */
+public class HttpShardFactory implements IShardFactory {
+
+    @Override
+    public IShippingService create(ZipCodeRangeSet zipCodeRangeSet, int lowerCode, int upperCode)
+            throws IOException {
+        ShippingHttpServer server = new ShippingHttpServer(new ShippingService(zipCodeRangeSet::toZipCodeRanges),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        return new LocalShardClient(server);
+    }
+
+    private static final class LocalShardClient extends HttpShippingClient implements Closeable {
+
+        private final ShippingHttpServer server;
+
+        private LocalShardClient(ShippingHttpServer server) {
+            super("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+            this.server = server;
+        }
+
+        @Override
+        public void close() {
+            server.close();
+        }
+    }
+}
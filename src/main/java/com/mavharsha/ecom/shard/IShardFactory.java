@@ -0,0 +1,31 @@
+package com.mavharsha.ecom.shard;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+
+import java.io.IOException;
+
+/**
+ * Brings up the service of one shard, e.g. in process, or a remote instance reached through
+ * {@link com.mavharsha.ecom.http.HttpShippingClient}.
+ */
+@FunctionalInterface
+public interface IShardFactory {
+
+    /**
+     * Serves every shard from a {@link ShippingService} in this JVM.
+     */
+    IShardFactory inProcess = (zipCodeRangeSet, lowerCode, upperCode) ->
+            new ShippingService(zipCodeRangeSet::toZipCodeRanges);
+
+    /**
+     * @param zipCodeRangeSet consolidated ranges of the shard, all between lowerCode and upperCode
+     * @param lowerCode lowest zipCode owned by the shard
+     * @param upperCode highest zipCode owned by the shard
+     * @return service answering for the zipCodes of the shard; closed on removal if it is
+     * {@link java.io.Closeable}
+     * @throws IOException when the shard cannot be brought up
+     */
+    IShippingService create(ZipCodeRangeSet zipCodeRangeSet, int lowerCode, int upperCode) throws IOException;
+}
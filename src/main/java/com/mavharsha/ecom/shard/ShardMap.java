@@ -0,0 +1,165 @@
+package com.mavharsha.ecom.shard;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Partition of the zipCodes into contiguous shards of whole ZIP3 prefixes; shard i owns the prefixes from
+ * {@code getLowerPrefix(i)} up to the lower prefix of shard i + 1. Immutable.
+ */
+@EqualsAndHashCode(of = "lowerPrefixes")
+public final class ShardMap {
+
+    public static final int maxShardCount = ZipCode.maxPrefix - ZipCode.minPrefix + 1;
+
+    public static final String errorShardCount = "Shard count should be between 1 and " + maxShardCount + ".";
+    public static final String errorLowerPrefixes = "Lower prefixes should be increasing and start at "
+            + ZipCode.minPrefix + ".";
+
+    private final int[] lowerPrefixes;
+    /* shard of every prefix, so that routing a zipCode is one array read */
+    private final short[] shardOfPrefix;
+
+    /**
+     * @param lowerPrefixes first prefix of every shard, increasing, starting at {@link ZipCode#minPrefix}
+     * @throws IllegalArgumentException when the prefixes do not partition the zipCodes
+     */
+    public ShardMap(@NonNull int[] lowerPrefixes) {
+        Preconditions.checkArgument(lowerPrefixes.length >= 1 && lowerPrefixes.length <= maxShardCount,
+                errorShardCount);
+        Preconditions.checkArgument(lowerPrefixes[0] == ZipCode.minPrefix, errorLowerPrefixes);
+        for (int shard = 1; shard < lowerPrefixes.length; shard++) {
+            Preconditions.checkArgument(lowerPrefixes[shard] > lowerPrefixes[shard - 1]
+                    && lowerPrefixes[shard] <= ZipCode.maxPrefix, errorLowerPrefixes);
+        }
+        this.lowerPrefixes = lowerPrefixes.clone();
+        this.shardOfPrefix = new short[maxShardCount];
+        for (int shard = 0; shard < lowerPrefixes.length; shard++) {
+            Arrays.fill(shardOfPrefix, lowerPrefixes[shard] - ZipCode.minPrefix,
+                    getUpperPrefix(shard) - ZipCode.minPrefix + 1, (short) shard);
+        }
+    }
+
+    /**
+     * @param shardCount number of shards
+     * @return shards of as equal a number of prefixes as possible
+     * @throws IllegalArgumentException when shardCount is not between 1 and {@link #maxShardCount}
+     */
+    public static ShardMap even(int shardCount) {
+        Preconditions.checkArgument(shardCount >= 1 && shardCount <= maxShardCount, errorShardCount);
+        int[] lowerPrefixes = new int[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            lowerPrefixes[shard] = ZipCode.minPrefix + (int) ((long) shard * maxShardCount / shardCount);
+        }
+        return new ShardMap(lowerPrefixes);
+    }
+
+    /**
+     * Adds a shard by splitting the widest one in half. Every other shard keeps its prefixes, so only the
+     * split shard's zipCodes move.
+     * @return the new partition, with one shard more
+     * @throws IllegalArgumentException when every shard already owns a single prefix
+     */
+    public ShardMap withShardAdded() {
+        Preconditions.checkArgument(lowerPrefixes.length < maxShardCount, errorShardCount);
+        int widest = 0;
+        for (int shard = 1; shard < lowerPrefixes.length; shard++) {
+            if (getPrefixCount(shard) > getPrefixCount(widest)) {
+                widest = shard;
+            }
+        }
+        int[] newLowerPrefixes = new int[lowerPrefixes.length + 1];
+        System.arraycopy(lowerPrefixes, 0, newLowerPrefixes, 0, widest + 1);
+        newLowerPrefixes[widest + 1] = lowerPrefixes[widest] + getPrefixCount(widest) / 2;
+        System.arraycopy(lowerPrefixes, widest + 1, newLowerPrefixes, widest + 2,
+                lowerPrefixes.length - widest - 1);
+        return new ShardMap(newLowerPrefixes);
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return lowerPrefixes.length;
+    }
+
+    /**
+     * @param zipCode A 5 digit positive integer
+     * @return shard owning zipCode
+     * @throws IllegalArgumentException when zipCode is not a 5 digit positive integer
+     */
+    public int shardOf(int zipCode) {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        return shardOfPrefix[ZipCode.prefixOf(zipCode) - ZipCode.minPrefix];
+    }
+
+    public int getLowerPrefix(int shard) {
+        return lowerPrefixes[shard];
+    }
+
+    public int getUpperPrefix(int shard) {
+        return shard + 1 < lowerPrefixes.length ? lowerPrefixes[shard + 1] - 1 : ZipCode.maxPrefix;
+    }
+
+    /**
+     * @return lowest zipCode owned by shard
+     */
+    public int getLowerCode(int shard) {
+        return getLowerPrefix(shard) * 100;
+    }
+
+    /**
+     * @return highest zipCode owned by shard
+     */
+    public int getUpperCode(int shard) {
+        return getUpperPrefix(shard) * 100 + 99;
+    }
+
+    /**
+     * Partitions consolidated ranges, splitting every range that crosses a shard boundary.
+     * @param zipCodeRangeSet consolidated ranges
+     * @return ranges owned by every shard, indexed by shard
+     */
+    public ZipCodeRangeSet[] split(@NonNull ZipCodeRangeSet zipCodeRangeSet) {
+        ZipCodeRangeSet[] shardRanges = new ZipCodeRangeSet[lowerPrefixes.length];
+        int index = 0;
+        for (int shard = 0; shard < lowerPrefixes.length; shard++) {
+            int lowerCode = getLowerCode(shard);
+            int upperCode = getUpperCode(shard);
+            while (index < zipCodeRangeSet.size() && zipCodeRangeSet.upperAt(index) < lowerCode) {
+                index++;
+            }
+            int first = index;
+            int last = index;
+            while (last < zipCodeRangeSet.size() && zipCodeRangeSet.lowerAt(last) <= upperCode) {
+                last++;
+            }
+            int[] lows = new int[last - first];
+            int[] highs = new int[last - first];
+            for (int range = first; range < last; range++) {
+                lows[range - first] = Math.max(zipCodeRangeSet.lowerAt(range), lowerCode);
+                highs[range - first] = Math.min(zipCodeRangeSet.upperAt(range), upperCode);
+            }
+            shardRanges[shard] = ZipCodeRangeSet.ofConsolidated(lows, highs);
+        }
+        return shardRanges;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("ShardMap[");
+        for (int shard = 0; shard < lowerPrefixes.length; shard++) {
+            text.append(shard == 0 ? "" : ", ").append(getLowerCode(shard)).append('-').append(getUpperCode(shard));
+        }
+        return text.append(']').toString();
+    }
+
+    private int getPrefixCount(int shard) {
+        return getUpperPrefix(shard) - lowerPrefixes[shard] + 1;
+    }
+}
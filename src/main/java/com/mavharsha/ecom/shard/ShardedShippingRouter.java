@@ -0,0 +1,407 @@
+package com.mavharsha.ecom.shard;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.index.ZipCodeRangeSets;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client side router over shards of the rules partitioned by ZIP3 prefix, see {@link ShardMap}. Every shard only
+ * holds the consolidated ranges of its prefixes, ranges crossing a shard boundary being split, so the rules need
+ * not fit in one instance. Single lookups go to the owning shard; batches are grouped by shard, sent to all the
+ * owning shards in parallel and merged back in request order.
+ * <p>
+ * {@link #addShard()} rebalances to one more shard: only the shards whose prefixes change are brought up again,
+ * the new topology is swapped in atomically, and the replaced shards are closed once the lookups still running on
+ * them complete. Every topology counts its own lookups in flight, so lookups share no lock with each other or with
+ * a rebalance. Shards that are kept answer from the rules they were brought up with, so after a change of the data
+ * source a topology mixes older and newer rules until every shard has been brought up again.
+ */
+public class ShardedShippingRouter implements IShippingService, Closeable {
+
+    public static final String errorResultLength = "Result arrays should be at least as long as zipCodes.";
+    public static final String errorClosed = "Router is closed.";
+
+    private final IZipCodeRangeDAO zipCodeRangeDAO;
+    private final IShardFactory shardFactory;
+    private final ExecutorService fanOutExecutor;
+    private volatile Topology topology;
+
+    /**
+     * Loads the data source, splits it into {@link ShardMap#even(int)} shards and brings every shard up.
+     * @param zipCodeRangeDAO dataSource for getting list of ZipCodeRanges, read again on every rebalance
+     * @param shardFactory brings up the service of a shard, e.g. {@link IShardFactory#inProcess}
+     * @param shardCount number of shards
+     * @throws IOException when data source is incorrect or a shard cannot be brought up
+     */
+    public ShardedShippingRouter(@NonNull IZipCodeRangeDAO zipCodeRangeDAO, @NonNull IShardFactory shardFactory,
+                                 int shardCount) throws IOException {
+        this.zipCodeRangeDAO = zipCodeRangeDAO;
+        this.shardFactory = shardFactory;
+        this.fanOutExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-shard-router-%d").setDaemon(true).build());
+        try {
+            this.topology = bringUp(ShardMap.even(shardCount), null);
+        } catch (IOException | RuntimeException e) {
+            fanOutExecutor.shutdownNow();
+            throw e;
+        }
+    }
+
+    /**
+     * @return current partition of the zipCodes
+     */
+    public ShardMap getShardMap() {
+        return topology.shardMap;
+    }
+
+    /**
+     * @param shard index in {@link #getShardMap()}
+     * @return service of the shard
+     */
+    public IShippingService getShard(int shard) {
+        return topology.shards[shard];
+    }
+
+    /**
+     * Adds a shard by splitting the widest one, see {@link ShardMap#withShardAdded()}.
+     * @throws IOException when data source is incorrect or a shard cannot be brought up; the topology is then
+     * unchanged
+     */
+    public synchronized void addShard() throws IOException {
+        rebalance(topology.shardMap.withShardAdded());
+    }
+
+    /**
+     * Moves to another partition. Shards owning the same zipCodes in both partitions are kept as they are, with the
+     * rules they were brought up with; the others are brought up from a fresh load of the data source.
+     * @param shardMap new partition of the zipCodes
+     * @throws IOException when data source is incorrect or a shard cannot be brought up; the topology is then
+     * unchanged
+     */
+    public synchronized void rebalance(@NonNull ShardMap shardMap) throws IOException {
+        Topology previous = topology;
+        Preconditions.checkState(!previous.closed, errorClosed);
+        Topology next = bringUp(shardMap, previous);
+        topology = next;
+
+        List<IShippingService> retired = new ArrayList<>();
+        for (IShippingService shard : previous.shards) {
+            if (!next.contains(shard)) {
+                retired.add(shard);
+            }
+        }
+        previous.awaitIdle();
+        closeAll(retired);
+    }
+
+    /**
+     * @return ranges of the data source, not split
+     * @throws IOException when data source is incorrect
+     */
+    @Override
+    public List<ZipCodeRange> getListZipCodeRanges() throws IOException {
+        return zipCodeRangeDAO.getListOfZipCodeRanges();
+    }
+
+    /**
+     * Gathers the ranges of every shard in parallel and joins the ranges split at shard boundaries.
+     */
+    @Override
+    public List<ZipCodeRange> getConsolidatedShippableZipCodeRanges() throws IOException {
+        Topology currentTopology = acquire();
+        try {
+            IShippingService[] shards = currentTopology.shards;
+            List<CompletableFuture<ZipCodeRangeSet>> futures = new ArrayList<>(shards.length);
+            for (IShippingService shard : shards) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return ZipCodeRangeSet.of(shard.getConsolidatedShippableZipCodeRanges());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, fanOutExecutor));
+            }
+            List<ZipCodeRangeSet> shardRanges = new ArrayList<>(shards.length);
+            for (CompletableFuture<ZipCodeRangeSet> future : futures) {
+                shardRanges.add(join(future));
+            }
+            return ZipCodeRangeSets.union(shardRanges).toZipCodeRanges();
+        } finally {
+            currentTopology.release();
+        }
+    }
+
+    @Override
+    public boolean canBeShippedToZipCode(@NonNull ZipCode zipCode) throws IOException {
+        return canBeShippedToZipCode(zipCode.getCode());
+    }
+
+    /**
+     * @throws IllegalArgumentException when zipCode is not a 5 digit positive integer
+     * @throws IOException when the owning shard cannot answer
+     */
+    @Override
+    public boolean canBeShippedToZipCode(int zipCode) throws IOException {
+        Preconditions.checkArgument(ZipCode.isValidCode(zipCode), ZipCode.errorZipCodeFiveDigits);
+        Topology currentTopology = acquire();
+        try {
+            return currentTopology.shards[currentTopology.shardMap.shardOf(zipCode)].canBeShippedToZipCode(zipCode);
+        } finally {
+            currentTopology.release();
+        }
+    }
+
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull BitSet shippable, @NonNull BitSet invalid)
+            throws IOException {
+        boolean[] shippableCodes = new boolean[zipCodes.length];
+        boolean[] invalidCodes = new boolean[zipCodes.length];
+        int shippableCount = canBeShippedToZipCodes(zipCodes, shippableCodes, invalidCodes, false);
+        for (int position = 0; position < zipCodes.length; position++) {
+            shippable.set(position, shippableCodes[position]);
+            invalid.set(position, invalidCodes[position]);
+        }
+        return shippableCount;
+    }
+
+    /**
+     * Groups the zipCodes by shard and looks every group up on its shard in parallel. Invalid zipCodes are flagged
+     * here and not sent.
+     * @param parallel passed on to every shard
+     * @throws IOException when a shard cannot answer
+     */
+    @Override
+    public int canBeShippedToZipCodes(@NonNull int[] zipCodes, @NonNull boolean[] shippable,
+                                      @NonNull boolean[] invalid, boolean parallel) throws IOException {
+        Preconditions.checkArgument(shippable.length >= zipCodes.length && invalid.length >= zipCodes.length,
+                errorResultLength);
+        Topology currentTopology = acquire();
+        try {
+            int shardCount = currentTopology.shards.length;
+
+            /* counting sort of the positions by shard, invalid zipCodes last */
+            int[] shardOfPosition = new int[zipCodes.length];
+            int[] groupStarts = new int[shardCount + 2];
+            for (int position = 0; position < zipCodes.length; position++) {
+                int zipCode = zipCodes[position];
+                int shard = ZipCode.isValidCode(zipCode) ? currentTopology.shardMap.shardOf(zipCode) : shardCount;
+                shardOfPosition[position] = shard;
+                groupStarts[shard + 1]++;
+            }
+            for (int shard = 0; shard <= shardCount; shard++) {
+                groupStarts[shard + 1] += groupStarts[shard];
+            }
+            int[] positions = new int[zipCodes.length];
+            int[] groupEnds = groupStarts.clone();
+            for (int position = 0; position < zipCodes.length; position++) {
+                positions[groupEnds[shardOfPosition[position]]++] = position;
+            }
+            for (int index = groupStarts[shardCount]; index < zipCodes.length; index++) {
+                shippable[positions[index]] = false;
+                invalid[positions[index]] = true;
+            }
+
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int shard = 0; shard < shardCount; shard++) {
+                int from = groupStarts[shard];
+                int to = groupStarts[shard + 1];
+                if (from == to) {
+                    continue;
+                }
+                IShippingService shardService = currentTopology.shards[shard];
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return lookup(shardService, zipCodes, positions, from, to, shippable, invalid, parallel);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, fanOutExecutor));
+            }
+            int shippableCount = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                shippableCount += join(future);
+            }
+            return shippableCount;
+        } finally {
+            currentTopology.release();
+        }
+    }
+
+    /**
+     * Refuses new lookups, closes every shard that is {@link Closeable} once the lookups in flight complete, and
+     * stops the fan out threads.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        Topology previous = topology;
+        if (previous.closed) {
+            return;
+        }
+        topology = new Topology(previous.shardMap, previous.shards, true);
+        previous.awaitIdle();
+        fanOutExecutor.shutdownNow();
+        closeAll(Arrays.asList(previous.shards));
+    }
+
+    /**
+     * Counts a lookup in flight on the current topology. A lookup that counted itself on a topology being replaced
+     * backs off and retries, so once the replacement is published the count of the replaced topology only goes down.
+     * @return topology to release once the lookup completes
+     * @throws IllegalStateException when the router is closed
+     */
+    private Topology acquire() {
+        while (true) {
+            Topology currentTopology = topology;
+            Preconditions.checkState(!currentTopology.closed, errorClosed);
+            currentTopology.inFlight.increment();
+            if (currentTopology == topology) {
+                return currentTopology;
+            }
+            currentTopology.release();
+        }
+    }
+
+    /**
+     * @param previous topology whose shards are reused where they own the same zipCodes, or null
+     */
+    private Topology bringUp(ShardMap shardMap, Topology previous) throws IOException {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder(ZipCodeRangeSetBuilder.defaultSweepThreshold);
+        zipCodeRangeDAO.readZipCodeRanges(builder);
+        ZipCodeRangeSet[] shardRanges = shardMap.split(builder.build());
+
+        IShippingService[] shards = new IShippingService[shardMap.getShardCount()];
+        List<IShippingService> created = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < shards.length; shard++) {
+                shards[shard] = previous == null ? null : previous.find(shardMap.getLowerCode(shard),
+                        shardMap.getUpperCode(shard));
+                if (shards[shard] == null) {
+                    shards[shard] = shardFactory.create(shardRanges[shard], shardMap.getLowerCode(shard),
+                            shardMap.getUpperCode(shard));
+                    created.add(shards[shard]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAll(created);
+            throw e;
+        }
+        return new Topology(shardMap, shards, false);
+    }
+
+    private static int lookup(IShippingService shard, int[] zipCodes, int[] positions, int from, int to,
+                              boolean[] shippable, boolean[] invalid, boolean parallel) throws IOException {
+        int[] shardZipCodes = new int[to - from];
+        for (int index = from; index < to; index++) {
+            shardZipCodes[index - from] = zipCodes[positions[index]];
+        }
+        boolean[] shardShippable = new boolean[shardZipCodes.length];
+        boolean[] shardInvalid = new boolean[shardZipCodes.length];
+        int shippableCount = shard.canBeShippedToZipCodes(shardZipCodes, shardShippable, shardInvalid, parallel);
+        for (int index = from; index < to; index++) {
+            shippable[positions[index]] = shardShippable[index - from];
+            invalid[positions[index]] = shardInvalid[index - from];
+        }
+        return shippableCount;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void closeAll(List<IShippingService> shards) throws IOException {
+        IOException failure = null;
+        for (IShippingService shard : shards) {
+            if (shard instanceof Closeable) {
+                try {
+                    ((Closeable) shard).close();
+                } catch (IOException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Topology {
+
+        private final ShardMap shardMap;
+        private final IShippingService[] shards;
+        private final boolean closed;
+        /* striped, so lookups on different threads do not contend on one counter */
+        private final LongAdder inFlight = new LongAdder();
+
+        private Topology(ShardMap shardMap, IShippingService[] shards, boolean closed) {
+            this.shardMap = shardMap;
+            this.shards = shards;
+            this.closed = closed;
+        }
+
+        private void release() {
+            inFlight.decrement();
+        }
+
+        /**
+         * Waits for the lookups in flight; only called once another topology is published.
+         */
+        private void awaitIdle() {
+            boolean interrupted = false;
+            while (inFlight.sum() > 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private IShippingService find(int lowerCode, int upperCode) {
+            for (int shard = 0; shard < shards.length; shard++) {
+                if (shardMap.getLowerCode(shard) == lowerCode && shardMap.getUpperCode(shard) == upperCode) {
+                    return shards[shard];
+                }
+            }
+            return null;
+        }
+
+        private boolean contains(IShippingService shard) {
+            for (IShippingService candidate : shards) {
+                if (candidate == shard) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mavharsha.ecom.snapshot;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mavharsha.ecom.index.IZipCodeIndex;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.IZipCodeRangeSink;
+import com.mavharsha.ecom.model.ZipCodeRange;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Consolidated ranges served directly off a memory mapped {@link ZipCodeRangeSnapshot}, so they stay off the heap.
+ * Lookups are a binary search over the mapped payload and only use absolute reads, so one instance can be
+ * shared by any number of threads.
+ */
+public class MappedZipCodeRangeSnapshot implements IZipCodeIndex {
+
+    private final ByteBuffer payload;
+    private final int rangeCount;
+
+    MappedZipCodeRangeSnapshot(ByteBuffer payload, int rangeCount) {
+        this.payload = payload;
+        this.rangeCount = rangeCount;
+    }
+
+    @Override
+    public boolean contains(int zipCode) {
+        int low = 0;
+        int high = rangeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = middle * ZipCodeRangeSnapshot.rangeSize;
+            if (zipCode < payload.getInt(offset)) {
+                high = middle - 1;
+            } else if (zipCode > payload.getInt(offset + 4)) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of consolidated ranges
+     */
+    public int size() {
+        return rangeCount;
+    }
+
+    public int lowerAt(int index) {
+        Preconditions.checkElementIndex(index, rangeCount);
+        return payload.getInt(index * ZipCodeRangeSnapshot.rangeSize);
+    }
+
+    public int upperAt(int index) {
+        Preconditions.checkElementIndex(index, rangeCount);
+        return payload.getInt(index * ZipCodeRangeSnapshot.rangeSize + 4);
+    }
+
+    /**
+     * @param sink receiver of every range, in order
+     */
+    public void readZipCodeRanges(IZipCodeRangeSink sink) {
+        for (int index = 0; index < rangeCount; index++) {
+            sink.accept(lowerAt(index), upperAt(index));
+        }
+    }
+
+    /**
+     * @return the snapshot copied onto the heap
+     */
+    public ZipCodeRangeSet toZipCodeRangeSet() {
+        int[] lows = new int[rangeCount];
+        int[] highs = new int[rangeCount];
+        for (int index = 0; index < rangeCount; index++) {
+            lows[index] = lowerAt(index);
+            highs[index] = upperAt(index);
+        }
+        return ZipCodeRangeSet.ofConsolidated(lows, highs);
+    }
+
+    /**
+     * @return the snapshot as sorted ZipCodeRanges
+     */
+    public List<ZipCodeRange> toZipCodeRanges() {
+        ImmutableList.Builder<ZipCodeRange> builder = ImmutableList.builder();
+        readZipCodeRanges((lowerRange, upperRange) -> builder.add(new ZipCodeRange(lowerRange, upperRange)));
+        return builder.build();
+    }
+}
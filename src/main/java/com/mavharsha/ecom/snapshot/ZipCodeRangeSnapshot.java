@@ -0,0 +1,106 @@
+package com.mavharsha.ecom.snapshot;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a consolidated {@link ZipCodeRangeSet}.
+ * <pre>
+ * header  : magic (int) | version (int) | rangeCount (int) | reserved (int) | crc32 of the payload (long)
+ * payload : rangeCount x (lowerRange (int) | upperRange (int)), sorted, disjoint, big endian
+ * </pre>
+ * Snapshots are written to a temporary file and moved into place, so readers never see a partial file.
+ */
+public final class ZipCodeRangeSnapshot {
+
+    public static final int magic = 0x5A524E47;
+    public static final int version = 1;
+    public static final int headerSize = 24;
+    public static final int rangeSize = 8;
+
+    public static final String errorNotASnapshot = "File is not a ZipCodeRange snapshot.";
+    public static final String errorUnsupportedVersion = "Unsupported ZipCodeRange snapshot version.";
+    public static final String errorCorruptedSnapshot = "ZipCodeRange snapshot is corrupted.";
+
+    private ZipCodeRangeSnapshot() {}
+
+    /**
+     * @param zipCodeRangeSet consolidated ranges to be written
+     * @param filePath destination of the snapshot, replaced if it exists
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(@NonNull ZipCodeRangeSet zipCodeRangeSet, @NonNull Path filePath) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(zipCodeRangeSet.size() * rangeSize);
+        for (int index = 0; index < zipCodeRangeSet.size(); index++) {
+            payload.putInt(zipCodeRangeSet.lowerAt(index)).putInt(zipCodeRangeSet.upperAt(index));
+        }
+        payload.flip();
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(magic).putInt(version).putInt(zipCodeRangeSet.size()).putInt(0).putLong(checksum(payload));
+        header.flip();
+
+        Path temporaryPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining() || payload.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, payload});
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a snapshot and verifies its checksum.
+     * @param filePath location of the snapshot
+     * @return the snapshot, served off the mapped file
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid snapshot
+     */
+    public static MappedZipCodeRangeSnapshot open(@NonNull Path filePath) throws IOException {
+        return open(filePath, true);
+    }
+
+    /**
+     * @param filePath location of the snapshot
+     * @param verifyChecksum false to skip reading the whole payload on open
+     * @return the snapshot, served off the mapped file
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid snapshot
+     */
+    public static MappedZipCodeRangeSnapshot open(@NonNull Path filePath, boolean verifyChecksum) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() >= headerSize, errorNotASnapshot);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Preconditions.checkArgument(buffer.getInt(0) == magic, errorNotASnapshot);
+        Preconditions.checkArgument(buffer.getInt(4) == version, errorUnsupportedVersion);
+        int rangeCount = buffer.getInt(8);
+        Preconditions.checkArgument(rangeCount >= 0 && buffer.capacity() == headerSize + (long) rangeCount * rangeSize,
+                errorCorruptedSnapshot);
+
+        ByteBuffer payload = ((ByteBuffer) buffer.duplicate().position(headerSize)).slice();
+        if (verifyChecksum) {
+            Preconditions.checkArgument(buffer.getLong(16) == checksum(payload.duplicate()), errorCorruptedSnapshot);
+        }
+        return new MappedZipCodeRangeSnapshot(payload, rangeCount);
+    }
+
+    private static long checksum(ByteBuffer payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload.duplicate());
+        return crc32.getValue();
+    }
+}
@@ -4,7 +4,10 @@ import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class FileUtil {
 
@@ -19,4 +22,21 @@ public class FileUtil {
         String text = Resources.toString(fileUrl, Charsets.UTF_8);
         return text;
     }
+
+    /**
+     * @param fileName name of a classpath resource
+     * @return stream over the resource, to be closed by the caller
+     * @throws IllegalArgumentException when the resource is not found
+     */
+    public static InputStream openResource(String fileName) throws IOException {
+        return Resources.getResource(fileName).openStream();
+    }
+
+    /**
+     * @param path path of a file on the filesystem
+     * @return stream over the file, to be closed by the caller
+     */
+    public static InputStream openFile(Path path) throws IOException {
+        return Files.newInputStream(path);
+    }
 }
@@ -0,0 +1,248 @@
+package com.mavharsha.ecom.workload;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.http.LoadTestReport;
+import com.mavharsha.ecom.metrics.LatencyHistogram;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-threaded driver of single lookups drawn from a {@link SyntheticWorkload}.
+ * <ul>
+ * <li>Closed loop: every thread sends its next lookup as soon as the previous one answers, which measures the
+ * highest throughput but hides queueing, since a slow lookup also delays the ones behind it.</li>
+ * <li>Open loop: lookups are scheduled at a fixed rate whatever the answers, and latency is measured from the
+ * scheduled time rather than the actual send, so stalls show up in the percentiles instead of being omitted.</li>
+ * </ul>
+ * Every thread records into its own {@link LatencyHistogram}, merged at the end, and its allocations are read from
+ * {@code com.sun.management.ThreadMXBean} where the JVM provides it. The zipCodes are drawn before the run, so
+ * neither their generation nor its allocations are measured.
+ */
+public class LoadDriver {
+
+    public static final int lookupPoolSize = 1 << 16;
+
+    public static final String errorThreadCount = "Thread count should be positive.";
+    public static final String errorOperationCount = "Operation count should be positive.";
+    public static final String errorRate = "Rate should be positive.";
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final IShippingService shippingService;
+    private final SyntheticWorkload workload;
+    private final long seed;
+
+    /**
+     * @param shippingService service under load
+     * @param workload distribution of the looked up zipCodes
+     * @param seed seed of the lookups; thread i draws from seed + i
+     */
+    public LoadDriver(@NonNull IShippingService shippingService, @NonNull SyntheticWorkload workload, long seed) {
+        this.shippingService = shippingService;
+        this.workload = workload;
+        this.seed = seed;
+    }
+
+    /**
+     * @param threadCount threads sending lookups
+     * @param operationsPerThread lookups sent by every thread, back to back
+     * @return throughput, latency and allocations of the run
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadTestReport runClosedLoop(int threadCount, long operationsPerThread) throws InterruptedException {
+        Preconditions.checkArgument(threadCount > 0, errorThreadCount);
+        Preconditions.checkArgument(operationsPerThread > 0, errorOperationCount);
+        return run(threadCount, operationsPerThread, 0);
+    }
+
+    /**
+     * @param threadCount threads sending lookups; should be enough for every thread to keep up with its share of
+     * the rate, or latency grows for the whole run
+     * @param operationsPerSecond lookups scheduled per second over all the threads
+     * @param duration length of the run
+     * @param unit unit of duration
+     * @return throughput, latency from the scheduled time and allocations of the run
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadTestReport runOpenLoop(int threadCount, double operationsPerSecond, long duration,
+                                      @NonNull TimeUnit unit) throws InterruptedException {
+        Preconditions.checkArgument(threadCount > 0, errorThreadCount);
+        Preconditions.checkArgument(operationsPerSecond > 0, errorRate);
+        double intervalNanos = threadCount * TimeUnit.SECONDS.toNanos(1) / operationsPerSecond;
+        long operationsPerThread = (long) (unit.toNanos(duration) / intervalNanos);
+        Preconditions.checkArgument(operationsPerThread > 0, errorOperationCount);
+        return run(threadCount, operationsPerThread, intervalNanos);
+    }
+
+    private LoadTestReport run(int threadCount, long operationsPerThread, double intervalNanos)
+            throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new ThreadFactoryBuilder()
+                .setNameFormat("zipcode-load-driver-%d").setDaemon(true).build());
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] start = new long[1];
+        List<Future<Worker>> futures = new ArrayList<>(threadCount);
+        for (int thread = 0; thread < threadCount; thread++) {
+            Worker worker = new Worker(workload.nextLookupZipCodes(new Random(seed + thread), lookupPoolSize),
+                    operationsPerThread, intervalNanos, intervalNanos * thread / threadCount);
+            futures.add(executorService.submit(() -> {
+                ready.countDown();
+                go.await();
+                worker.run(start[0]);
+                return worker;
+            }));
+        }
+        try {
+            ready.await();
+            /* the latch orders this write before the workers read it */
+            start[0] = System.nanoTime();
+            go.countDown();
+            LatencyHistogram latencyHistogram = new LatencyHistogram();
+            long errorCount = 0;
+            long allocatedBytes = 0;
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                latencyHistogram.add(worker.latencyHistogram);
+                errorCount += worker.errorCount;
+                allocatedBytes = allocatedBytes < 0 || worker.allocatedBytes < 0 ? -1
+                        : allocatedBytes + worker.allocatedBytes;
+            }
+            return new LoadTestReport(latencyHistogram, errorCount, System.nanoTime() - start[0], allocatedBytes);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, -1 if the JVM cannot tell
+     */
+    static long currentThreadAllocatedBytes() {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationMXBean.isThreadAllocatedMemorySupported()
+                    && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private final class Worker {
+
+        private final int[] zipCodes;
+        private final long operationCount;
+        private final double intervalNanos;
+        private final double offsetNanos;
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        private long errorCount;
+        private long allocatedBytes;
+        /* consumed answers, so that the lookups cannot be optimised away */
+        private long shippableCount;
+
+        private Worker(int[] zipCodes, long operationCount, double intervalNanos, double offsetNanos) {
+            this.zipCodes = zipCodes;
+            this.operationCount = operationCount;
+            this.intervalNanos = intervalNanos;
+            this.offsetNanos = offsetNanos;
+        }
+
+        private void run(long start) {
+            long allocatedBefore = currentThreadAllocatedBytes();
+            int mask = zipCodes.length - 1;
+            for (long operation = 0; operation < operationCount; operation++) {
+                long scheduled;
+                if (intervalNanos > 0) {
+                    scheduled = start + (long) (offsetNanos + operation * intervalNanos);
+                    waitUntil(scheduled);
+                } else {
+                    scheduled = System.nanoTime();
+                }
+                try {
+                    if (shippingService.canBeShippedToZipCode(zipCodes[(int) operation & mask])) {
+                        shippableCount++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    errorCount++;
+                }
+                latencyHistogram.record(System.nanoTime() - scheduled);
+            }
+            long allocatedAfter = currentThreadAllocatedBytes();
+            allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        }
+
+        /**
+         * Parks while far from the deadline and spins the last stretch, as parking overshoots by tens of
+         * microseconds.
+         */
+        private void waitUntil(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                if (remaining > 100_000) {
+                    LockSupport.parkNanos(remaining - 50_000);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the full path: generates a dataset if the file does not exist, loads and consolidates it through
+     * {@link FileZipCodeRangeDAO} and {@link ShippingService}, warms up, then drives lookups.
+     * @param args dataset file, then optionally closed or open, the thread count, the lookups per thread (closed)
+     * or per second (open), and the seconds of an open loop run
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: <dataset file> [closed|open] [threads] [lookups per thread|lookups per second]"
+                    + " [seconds]");
+            System.exit(2);
+        }
+        Path datasetPath = Paths.get(args[0]);
+        boolean openLoop = args.length > 1 && "open".equals(args[1]);
+        int threadCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        SyntheticWorkload workload = new SyntheticWorkload(1);
+        if (!Files.exists(datasetPath)) {
+            workload.write(datasetPath);
+            System.err.println("Generated " + datasetPath);
+        }
+
+        IShippingService shippingService = new ShippingService(new FileZipCodeRangeDAO(datasetPath));
+        long loadStart = System.nanoTime();
+        int consolidatedCount = shippingService.getConsolidatedShippableZipCodeRanges().size();
+        System.out.printf("Loaded %d ranges, consolidated into %d, in %.1f ms%n",
+                shippingService.getListZipCodeRanges().size(), consolidatedCount,
+                (System.nanoTime() - loadStart) / 1e6);
+
+        LoadDriver driver = new LoadDriver(shippingService, workload, 7);
+        driver.runClosedLoop(threadCount, 2_000_000);
+        if (openLoop) {
+            double rate = args.length > 3 ? Double.parseDouble(args[3]) : 1_000_000;
+            long seconds = args.length > 4 ? Long.parseLong(args[4]) : 10;
+            System.out.println("open loop: " + driver.runOpenLoop(threadCount, rate, seconds, TimeUnit.SECONDS));
+        } else {
+            long operationsPerThread = args.length > 3 ? Long.parseLong(args[3]) : 10_000_000;
+            System.out.println("closed loop: " + driver.runClosedLoop(threadCount, operationsPerThread));
+        }
+    }
+}
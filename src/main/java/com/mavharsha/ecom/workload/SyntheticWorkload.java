@@ -0,0 +1,170 @@
+package com.mavharsha.ecom.workload;
+
+import com.google.common.base.Preconditions;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.squareup.moshi.JsonWriter;
+import lombok.NonNull;
+import okio.BufferedSink;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of datasets shaped like production rather than uniform noise: a few wide ranges overlapping each
+ * other, like carrier embargoes, and thousands of single zipCode ranges, like local exclusions, clustered in metro
+ * areas. The single zipCodes are distinct and never adjacent, so they only consolidate where a wide range covers
+ * them. Lookups are skewed the same way: most of them fall in a metro area, the busiest metros first. The same
+ * seed always generates the same dataset.
+ */
+public class SyntheticWorkload {
+
+    public static final int defaultWideRangeCount = 24;
+    public static final int defaultSingleCodeCount = 20_000;
+    public static final double defaultMetroShare = 0.8;
+    /* any set of zipCodes no two of which are adjacent, and to which none can be added, holds at least a third of
+     * them, so drawing up to that many always completes */
+    public static final int maxSingleCodeCount = (ZipCode.maxCode - ZipCode.minCode + 1) / 3;
+
+    public static final String errorRangeCount = "Range counts should not be negative.";
+    public static final String errorMetroShare = "Metro share should be between 0 and 1.";
+    public static final String errorSingleCodeCount = "Single code count should be at most " + maxSingleCodeCount
+            + ".";
+
+    /* first and last ZIP3 prefixes of the largest metro areas, busiest first: New York, Los Angeles, Chicago,
+     * Houston, Phoenix, Philadelphia, San Antonio, San Diego, Dallas, San Jose, Atlanta, Miami, Seattle,
+     * San Francisco, Denver, Washington */
+    private static final int[] metroLowerPrefixes = {100, 900, 600, 770, 850, 189, 780, 919, 750, 950, 300, 330,
+            980, 940, 800, 200};
+    private static final int[] metroUpperPrefixes = {119, 918, 629, 779, 865, 196, 789, 921, 769, 951, 319, 349,
+            986, 949, 816, 209};
+
+    private final long seed;
+    private final int wideRangeCount;
+    private final int singleCodeCount;
+    private final double metroShare;
+    /* cumulative Zipf weights of the metro areas, the last one being 1 */
+    private final double[] metroWeights;
+
+    /**
+     * @param seed seed of the dataset
+     */
+    public SyntheticWorkload(long seed) {
+        this(seed, defaultWideRangeCount, defaultSingleCodeCount, defaultMetroShare);
+    }
+
+    /**
+     * @param seed seed of the dataset
+     * @param wideRangeCount ranges of 1,000 to 30,000 zipCodes
+     * @param singleCodeCount ranges of a single zipCode, at most {@link #maxSingleCodeCount}
+     * @param metroShare share of the drawn zipCodes that fall in a metro area; the single zipCode ranges of a full
+     * metro area are drawn again, so they fall in a metro area less often than the lookups
+     * @throws IllegalArgumentException when a count is negative or too high, or metroShare is not between 0 and 1
+     */
+    public SyntheticWorkload(long seed, int wideRangeCount, int singleCodeCount, double metroShare) {
+        Preconditions.checkArgument(wideRangeCount >= 0 && singleCodeCount >= 0, errorRangeCount);
+        Preconditions.checkArgument(singleCodeCount <= maxSingleCodeCount, errorSingleCodeCount);
+        Preconditions.checkArgument(metroShare >= 0 && metroShare <= 1, errorMetroShare);
+        this.seed = seed;
+        this.wideRangeCount = wideRangeCount;
+        this.singleCodeCount = singleCodeCount;
+        this.metroShare = metroShare;
+        this.metroWeights = new double[metroLowerPrefixes.length];
+        double total = 0;
+        for (int rank = 0; rank < metroWeights.length; rank++) {
+            total += 1.0 / (rank + 1);
+            metroWeights[rank] = total;
+        }
+        for (int rank = 0; rank < metroWeights.length; rank++) {
+            metroWeights[rank] /= total;
+        }
+    }
+
+    /**
+     * @return the dataset, in random order
+     */
+    public List<ZipCodeRange> generateRanges() {
+        Random random = new Random(seed);
+        List<ZipCodeRange> zipCodeRanges = new ArrayList<>(wideRangeCount + singleCodeCount);
+        for (int range = 0; range < wideRangeCount; range++) {
+            int width = 1_000 + random.nextInt(29_001);
+            int lowerRange = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 2 - width);
+            zipCodeRanges.add(new ZipCodeRange(lowerRange, lowerRange + width - 1));
+        }
+        /* taken zipCodes, offset by one so that both neighbours of any zipCode can be read */
+        BitSet taken = new BitSet(ZipCode.maxCode - ZipCode.minCode + 3);
+        for (int range = 0; range < singleCodeCount; range++) {
+            int zipCode;
+            int index;
+            do {
+                zipCode = nextZipCode(random);
+                index = zipCode - ZipCode.minCode + 1;
+            } while (taken.get(index - 1) || taken.get(index) || taken.get(index + 1));
+            taken.set(index);
+            zipCodeRanges.add(new ZipCodeRange(zipCode, zipCode));
+        }
+        Collections.shuffle(zipCodeRanges, random);
+        return zipCodeRanges;
+    }
+
+    /**
+     * Writes the dataset in the format of {@code ListOfShippingZipCodeRanges.json}.
+     * @param filePath destination of the dataset, replaced if it exists
+     * @throws IOException when the file cannot be written
+     */
+    public void write(@NonNull Path filePath) throws IOException {
+        try (BufferedSink sink = Okio.buffer(Okio.sink(Files.newOutputStream(filePath)));
+             JsonWriter writer = JsonWriter.of(sink)) {
+            writer.setIndent("  ");
+            writer.beginArray();
+            for (ZipCodeRange zipCodeRange : generateRanges()) {
+                writer.beginObject();
+                writer.name("lowerRange").beginObject().name("code").value(zipCodeRange.getLowerRange().getCode())
+                        .endObject();
+                writer.name("upperRange").beginObject().name("code").value(zipCodeRange.getUpperRange().getCode())
+                        .endObject();
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+    }
+
+    /**
+     * @param random source of randomness, one per thread
+     * @return a zipCode to look up, in a metro prefix with probability metroShare
+     */
+    public int nextLookupZipCode(@NonNull Random random) {
+        return nextZipCode(random);
+    }
+
+    /**
+     * @param random source of randomness
+     * @param count number of lookups
+     * @return lookups drawn by {@link #nextLookupZipCode(Random)}
+     */
+    public int[] nextLookupZipCodes(@NonNull Random random, int count) {
+        int[] zipCodes = new int[count];
+        for (int position = 0; position < count; position++) {
+            zipCodes[position] = nextZipCode(random);
+        }
+        return zipCodes;
+    }
+
+    private int nextZipCode(Random random) {
+        if (random.nextDouble() >= metroShare) {
+            return ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+        }
+        int rank = Arrays.binarySearch(metroWeights, random.nextDouble());
+        int metro = Math.min(metroWeights.length - 1, rank < 0 ? -rank - 1 : rank);
+        int lowerCode = metroLowerPrefixes[metro] * 100;
+        return lowerCode + random.nextInt((metroUpperPrefixes[metro] + 1) * 100 - lowerCode);
+    }
+}
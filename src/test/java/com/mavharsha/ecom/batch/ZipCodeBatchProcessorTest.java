@@ -0,0 +1,82 @@
+package com.mavharsha.ecom.batch;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeBatchProcessorTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final IShippingService shippingService = new ShippingService(() -> Arrays.asList(
+            new ZipCodeRange(94133, 94133), new ZipCodeRange(94200, 94299)));
+
+    @Test
+    public void testShouldThrowExceptionForNonPositiveChunkSize() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeBatchProcessor.errorChunkSize);
+        new ZipCodeBatchProcessor(shippingService, 0, ZipCodeBatchProcessor.defaultBufferSize);
+    }
+
+    @Test
+    public void testShouldWriteOneVerdictPerZipCodeInInputOrder() throws Exception {
+        String input = "94133\n94300, 94230\r\n\n02134\t94x33 -1 1234567890123\n94299";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BatchReport report = process(new ZipCodeBatchProcessor(shippingService, 2, 32), input, output);
+
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo("94133,SHIPPABLE\n"
+                + "94300,NOT_SHIPPABLE\n94230,SHIPPABLE\n02134,INVALID\n?,INVALID\n?,INVALID\n?,INVALID\n"
+                + "94299,SHIPPABLE\n");
+        assertThat(report.getZipCodeCount()).isEqualTo(8);
+        assertThat(report.getShippableCount()).isEqualTo(3);
+        assertThat(report.getNotShippableCount()).isEqualTo(1);
+        assertThat(report.getInvalidCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testShouldMatchSingleLookupsAcrossManyChunks() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int zipCode = 94000; zipCode < 94400; zipCode++) {
+            input.append(zipCode).append('\n');
+            expected.append(zipCode).append(shippingService.canBeShippedToZipCode(zipCode) ? ",SHIPPABLE\n"
+                    : ",NOT_SHIPPABLE\n");
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BatchReport report = process(new ZipCodeBatchProcessor(shippingService, 7, 64), input.toString(), output);
+
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo(expected.toString());
+        assertThat(report.getShippableCount()).as("shippable count").isEqualTo(101);
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenRulesCannotBeLoaded() throws Exception {
+        thrown.expect(IOException.class);
+        thrown.expectMessage("rules unavailable");
+        IShippingService failingService = new ShippingService(() -> {
+            throw new IOException("rules unavailable");
+        });
+        process(new ZipCodeBatchProcessor(failingService), "94133\n", new ByteArrayOutputStream());
+    }
+
+    private static BatchReport process(ZipCodeBatchProcessor processor, String input, ByteArrayOutputStream output)
+            throws IOException {
+        return processor.process(Channels.newChannel(new ByteArrayInputStream(
+                input.getBytes(StandardCharsets.US_ASCII))), Channels.newChannel(output));
+    }
+}
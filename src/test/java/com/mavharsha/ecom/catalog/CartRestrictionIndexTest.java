@@ -0,0 +1,85 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CartRestrictionIndexTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+    private RestrictionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = new RestrictionCatalog();
+        catalog.putRestrictions("sku-1", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699))));
+        catalog.putRestrictions("sku-2", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94000, 94999))));
+        catalog.putRestrictions("sku-3", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94230, 94230))));
+        catalog.putRestrictions("sku-4", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(10000, 10099))));
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenZipCodeIsInvalid() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        CartRestrictionIndex.of(catalog).getBlockedItems(Arrays.asList("sku-1"), 100000);
+    }
+
+    @Test
+    public void testShouldReturnBlockedItemPositions() {
+        CartRestrictionIndex index = CartRestrictionIndex.of(catalog);
+        List<String> cart = Arrays.asList("sku-1", "sku-2", "sku-3", "sku-4", "unrestricted");
+
+        BitSet blockedItems = index.getBlockedItems(cart, 94230);
+        assertThat(blockedItems.stream().toArray()).containsExactly(0, 1, 2);
+
+        blockedItems = index.getBlockedItems(cart, 94300);
+        assertThat(blockedItems.stream().toArray()).containsExactly(1);
+
+        blockedItems = index.getBlockedItems(cart, 10050);
+        assertThat(blockedItems.stream().toArray()).containsExactly(3);
+
+        assertThat(index.getBlockedItems(cart, 65532).isEmpty()).isTrue();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void testShouldMatchCatalogForRandomRestrictions() {
+        Random random = new Random(11);
+        RestrictionCatalog randomCatalog = new RestrictionCatalog();
+        List<String> cart = new ArrayList<>();
+        for (int item = 0; item < 200; item++) {
+            List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>();
+            for (int index = 0; index < 1 + random.nextInt(5); index++) {
+                int lower = 94000 + random.nextInt(2000);
+                listOfZipCodeRanges.add(new ZipCodeRange(lower, Math.min(ZipCode.maxCode, lower + random.nextInt(300))));
+            }
+            randomCatalog.putRestrictions("sku-" + item, ZipCodeRangeSet.of(listOfZipCodeRanges));
+            cart.add("sku-" + item);
+        }
+        CartRestrictionIndex index = CartRestrictionIndex.of(randomCatalog);
+
+        for (int zipCode = 93900; zipCode < 96400; zipCode += 7) {
+            BitSet blockedItems = index.getBlockedItems(cart, zipCode);
+            for (int position = 0; position < cart.size(); position++) {
+                assertThat(blockedItems.get(position)).as(cart.get(position) + " " + zipCode)
+                        .isEqualTo(!randomCatalog.canShip(cart.get(position), zipCode));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.mavharsha.ecom.catalog.RestrictionCatalogFixtures.assertSameRestrictions;
+import static com.mavharsha.ecom.catalog.RestrictionCatalogFixtures.randomCatalog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapRestrictionCatalogTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testShouldThrowExceptionWhenZipCodeIsInvalid() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        new OffHeapRestrictionCatalogBuilder().build().canShip("sku-1", 100000);
+    }
+
+    @Test
+    public void testShouldValidateCanShipLikeReadme() {
+        OffHeapRestrictionCatalog catalog = new OffHeapRestrictionCatalogBuilder()
+                .put("sku-1", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133),
+                        new ZipCodeRange(94200, 94299), new ZipCodeRange(94600, 94699))))
+                .put("sku-2", ZipCodeRangeSet.empty())
+                .build();
+
+        for (int zipCode : new int[]{94199, 94300, 65532}) {
+            assertThat(catalog.canShip("sku-1", zipCode)).as("Can be shipped to " + zipCode).isTrue();
+        }
+        for (int zipCode : new int[]{94133, 94650, 94230, 94600, 94299}) {
+            assertThat(catalog.canShip("sku-1", zipCode)).as("Can not be shipped to " + zipCode).isFalse();
+        }
+        assertThat(catalog.canShip("sku-2", 94133)).isTrue();
+        assertThat(catalog.getItemIds()).containsExactly("sku-1");
+    }
+
+    @Test
+    public void testShouldMatchHeapCatalogAndShareIdenticalSets() {
+        RestrictionCatalog heapCatalog = randomCatalog(2_000, 50);
+        OffHeapRestrictionCatalog catalog = new OffHeapRestrictionCatalogBuilder().putAll(heapCatalog).build();
+
+        assertThat(catalog.size()).isEqualTo(heapCatalog.size());
+        assertThat(catalog.getDistinctSetCount()).isLessThanOrEqualTo(50);
+        assertSameRestrictions(catalog, heapCatalog);
+    }
+
+    @Test
+    public void testShouldFindNonAsciiItemIds() {
+        ZipCodeRangeSet restrictions = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133)));
+        OffHeapRestrictionCatalog catalog = new OffHeapRestrictionCatalogBuilder()
+                .put("cr\u00e8me-br\u00fbl\u00e9e", restrictions).put("crme-brle", ZipCodeRangeSet.of(Arrays.asList(
+                        new ZipCodeRange(94200, 94299)))).build();
+
+        assertThat(catalog.getRestrictions("cr\u00e8me-br\u00fbl\u00e9e")).isEqualTo(restrictions);
+        assertThat(catalog.canShip("cr\u00e8me-br\u00fbl\u00e9e", 94133)).isFalse();
+        assertThat(catalog.canShip("cr\u00e8me-br\u00fbl\u00e9", 94133)).isTrue();
+        assertThat(catalog.getItemIds()).containsExactlyInAnyOrder("cr\u00e8me-br\u00fbl\u00e9e", "crme-brle");
+    }
+
+    @Test
+    public void testShouldMapWrittenCatalog() throws Exception {
+        RestrictionCatalog heapCatalog = randomCatalog(500, 500);
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new OffHeapRestrictionCatalogBuilder().putAll(heapCatalog).build().write(catalogFile);
+
+        assertSameRestrictions(OffHeapRestrictionCatalog.open(catalogFile), heapCatalog);
+    }
+
+    @Test
+    public void testShouldThrowExceptionForCorruptedCatalog() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(OffHeapRestrictionCatalog.errorCorruptedCatalog);
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new OffHeapRestrictionCatalogBuilder().putAll(randomCatalog(10, 10)).build().write(catalogFile);
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), channel.size() - 1);
+        }
+        OffHeapRestrictionCatalog.open(catalogFile);
+    }
+
+    @Test
+    public void testShouldThrowExceptionForOtherFiles() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(OffHeapRestrictionCatalog.errorNotACatalog);
+        OffHeapRestrictionCatalog.open(temporaryFolder.newFile("empty.bin").toPath());
+    }
+}
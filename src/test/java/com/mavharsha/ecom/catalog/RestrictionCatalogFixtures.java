@@ -0,0 +1,58 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalogs and assertions shared by the tests of the {@link IRestrictionCatalog} implementations.
+ */
+final class RestrictionCatalogFixtures {
+
+    private RestrictionCatalogFixtures() {}
+
+    /**
+     * @return itemCount items sharing setCount random sets of restrictions, the same for the same arguments
+     */
+    static RestrictionCatalog randomCatalog(int itemCount, int setCount) {
+        Random random = new Random(11);
+        List<ZipCodeRangeSet> sets = new ArrayList<>();
+        for (int set = 0; set < setCount; set++) {
+            List<ZipCodeRange> zipCodeRanges = new ArrayList<>();
+            for (int range = 0, count = 1 + random.nextInt(40); range < count; range++) {
+                int lowerRange = ZipCode.minCode + random.nextInt(89000);
+                zipCodeRanges.add(new ZipCodeRange(lowerRange, lowerRange + random.nextInt(500)));
+            }
+            sets.add(ZipCodeRangeSet.of(zipCodeRanges));
+        }
+        RestrictionCatalog catalog = new RestrictionCatalog();
+        for (int item = 0; item < itemCount; item++) {
+            catalog.putRestrictions("sku-" + item, sets.get(random.nextInt(setCount)));
+        }
+        return catalog;
+    }
+
+    /**
+     * Compares the restrictions of every item and 20 random lookups per item.
+     */
+    static void assertSameRestrictions(IRestrictionCatalog catalog, RestrictionCatalog heapCatalog) {
+        assertThat(catalog.getItemIds()).hasSameElementsAs(heapCatalog.getItemIds());
+        Random random = new Random(3);
+        for (String itemId : heapCatalog.getItemIds()) {
+            assertThat(catalog.getRestrictions(itemId)).isEqualTo(heapCatalog.getRestrictions(itemId));
+            for (int lookup = 0; lookup < 20; lookup++) {
+                int zipCode = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+                assertThat(catalog.canShip(itemId, zipCode)).as("%s to %d", itemId, zipCode)
+                        .isEqualTo(heapCatalog.canShip(itemId, zipCode));
+            }
+        }
+        assertThat(catalog.canShip("unknown", 94133)).isTrue();
+        assertThat(catalog.getItemIds().contains("unknown")).isFalse();
+    }
+}
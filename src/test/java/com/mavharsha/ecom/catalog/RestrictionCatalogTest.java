@@ -0,0 +1,90 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RestrictionCatalogTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+    private RestrictionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = new RestrictionCatalog();
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenZipCodeIsInvalid() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        catalog.canShip("sku-1", 9999);
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenItemIdIsNull() {
+        thrown.expect(NullPointerException.class);
+        catalog.canShip(null, 94133);
+    }
+
+    @Test
+    public void testShouldShipUnrestrictedItemsAnywhere() {
+        assertThat(catalog.canShip("sku-1", 94133)).isTrue();
+        assertThat(catalog.getRestrictions("sku-1")).isSameAs(ZipCodeRangeSet.empty());
+        assertThat(catalog.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testShouldValidateCanShipWithMultipleSources() {
+        catalog.putRestrictions("sku-1", Arrays.asList(
+                Arrays.asList(new ZipCodeRange(94133, 94133), new ZipCodeRange(94200, 94299)),
+                Collections.singletonList(new ZipCodeRange(94600, 94699))));
+
+        for (int zipCode : new int[]{94199, 94300, 65532}) {
+            assertThat(catalog.canShip("sku-1", zipCode)).as("Can be shipped to " + zipCode).isTrue();
+        }
+        for (int zipCode : new int[]{94133, 94650, 94230, 94600, 94299}) {
+            assertThat(catalog.canShip("sku-1", zipCode)).as("Can not be shipped to " + zipCode).isFalse();
+        }
+    }
+
+    @Test
+    public void testShouldShareRestrictionSetsWithSameContent() {
+        ZipCodeRangeSet first = catalog.putRestrictions("sku-1",
+                ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299), new ZipCodeRange(94300, 94399))));
+        ZipCodeRangeSet second = catalog.putRestrictions("sku-2",
+                Collections.singletonList(Arrays.asList(new ZipCodeRange(94250, 94399), new ZipCodeRange(94200, 94260))));
+        ZipCodeRangeSet third = catalog.putRestrictions("sku-3",
+                ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94600, 94699))));
+
+        assertThat(second).as("Equal content should be interned").isSameAs(first);
+        assertThat(catalog.getRestrictions("sku-2")).isSameAs(catalog.getRestrictions("sku-1"));
+        assertThat(third).isNotSameAs(first);
+        assertThat(catalog.getItemIds()).containsExactlyInAnyOrder("sku-1", "sku-2", "sku-3");
+    }
+
+    @Test
+    public void testShouldLiftRestrictions() {
+        catalog.putRestrictions("sku-1", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299))));
+        catalog.putRestrictions("sku-2", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299))));
+        assertThat(catalog.canShip("sku-1", 94200)).isFalse();
+
+        assertThat(catalog.removeRestrictions("sku-1")).isTrue();
+        assertThat(catalog.removeRestrictions("sku-1")).isFalse();
+        catalog.putRestrictions("sku-2", ZipCodeRangeSet.empty());
+
+        assertThat(catalog.canShip("sku-1", 94200)).isTrue();
+        assertThat(catalog.canShip("sku-2", 94200)).isTrue();
+        assertThat(catalog.size()).isEqualTo(0);
+    }
+}
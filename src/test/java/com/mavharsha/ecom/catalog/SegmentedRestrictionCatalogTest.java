@@ -0,0 +1,115 @@
+package com.mavharsha.ecom.catalog;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.mavharsha.ecom.catalog.RestrictionCatalogFixtures.assertSameRestrictions;
+import static com.mavharsha.ecom.catalog.RestrictionCatalogFixtures.randomCatalog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentedRestrictionCatalogTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testShouldClipRangesAtPrefixBoundaries() throws Exception {
+        ZipCodeRangeSet restrictions = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94199, 94201),
+                new ZipCodeRange(10000, 10099), new ZipCodeRange(99900, 99999)));
+        RestrictionCatalog heapCatalog = new RestrictionCatalog();
+        heapCatalog.putRestrictions("sku-1", restrictions);
+
+        try (SegmentedRestrictionCatalog catalog = writeAndOpen(heapCatalog,
+                SegmentedRestrictionCatalog.defaultMaxCachedBytes)) {
+            for (int zipCode : new int[]{94199, 94200, 94201, 10000, 10099, 99900, 99999}) {
+                assertThat(catalog.canShip("sku-1", zipCode)).as("Can not be shipped to %d", zipCode).isFalse();
+            }
+            for (int zipCode : new int[]{94198, 94202, 94100, 10100, 99899}) {
+                assertThat(catalog.canShip("sku-1", zipCode)).as("Can be shipped to %d", zipCode).isTrue();
+            }
+            /* the range across prefixes 941 and 942 is stored in both segments and joined again on read */
+            assertThat(catalog.getRestrictions("sku-1")).isEqualTo(restrictions);
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenZipCodeIsInvalid() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        try (SegmentedRestrictionCatalog catalog = writeAndOpen(new RestrictionCatalog(),
+                SegmentedRestrictionCatalog.defaultMaxCachedBytes)) {
+            catalog.canShip("sku-1", 100000);
+        }
+    }
+
+    @Test
+    public void testShouldLoadOnlyTouchedSegments() throws Exception {
+        RestrictionCatalog heapCatalog = randomCatalog(300, 30);
+        try (SegmentedRestrictionCatalog catalog = writeAndOpen(heapCatalog,
+                SegmentedRestrictionCatalog.defaultMaxCachedBytes)) {
+            assertThat(catalog.getCachedSegmentCount()).isZero();
+            assertThat(catalog.size()).isEqualTo(heapCatalog.size());
+
+            for (String itemId : heapCatalog.getItemIds()) {
+                assertThat(catalog.canShip(itemId, 94133)).isEqualTo(heapCatalog.canShip(itemId, 94133));
+            }
+            assertThat(catalog.getCachedSegmentCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testShouldMatchHeapCatalogWhileEvictingSegments() throws Exception {
+        RestrictionCatalog heapCatalog = randomCatalog(1_000, 50);
+        try (SegmentedRestrictionCatalog catalog = writeAndOpen(heapCatalog, 16 << 10)) {
+            assertSameRestrictions(catalog, heapCatalog);
+            assertThat(catalog.getCacheStats().evictionCount()).isPositive();
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionForCorruptedSegment() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(SegmentedRestrictionCatalog.errorCorruptedCatalog);
+        RestrictionCatalog heapCatalog = new RestrictionCatalog();
+        heapCatalog.putRestrictions("sku-1", ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133))));
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.seg");
+        SegmentedRestrictionCatalog.write(heapCatalog, catalogFile);
+        long segmentOffset = SegmentedRestrictionCatalog.headerSize + SegmentedRestrictionCatalog.indexEntrySize
+                * (ZipCode.maxPrefix - ZipCode.minPrefix + 1);
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), segmentOffset + 48);
+        }
+
+        try (SegmentedRestrictionCatalog catalog = SegmentedRestrictionCatalog.open(catalogFile)) {
+            catalog.canShip("sku-1", 94133);
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionForOtherFiles() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(SegmentedRestrictionCatalog.errorNotASegmentedCatalog);
+        SegmentedRestrictionCatalog.open(temporaryFolder.newFile("empty.seg").toPath());
+    }
+
+    private SegmentedRestrictionCatalog writeAndOpen(IRestrictionCatalog catalog, long maxCachedBytes)
+            throws Exception {
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.seg");
+        SegmentedRestrictionCatalog.write(catalog, catalogFile);
+        return SegmentedRestrictionCatalog.open(catalogFile, maxCachedBytes);
+    }
+}
@@ -0,0 +1,268 @@
+package com.mavharsha.ecom.changelog;
+
+import com.mavharsha.ecom.index.MutableZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ZipCodeRangeChangeLogTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = temporaryFolder.getRoot().toPath().resolve("rules");
+    }
+
+    @Test
+    public void testShouldThrowExceptionForInvalidRangeWithoutLoggingIt() throws Exception {
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.add(94200, 94299);
+            assertThat(catchThrowable(() -> changeLog.add(94299, 94200)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getRecordsSinceSnapshot()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testShouldRecoverChangesAfterRestart() throws Exception {
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.add(94200, 94299);
+            changeLog.add(94133, 94133);
+            changeLog.add(94250, 94399);
+            changeLog.remove(94300, 94309);
+        }
+
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94133),
+                    new ZipCodeRange(94200, 94299), new ZipCodeRange(94310, 94399));
+            assertThat(changeLog.getRecordsSinceSnapshot()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void testShouldReplayOnlyDeltaAfterCompaction() throws Exception {
+        MutableZipCodeRangeSet expected = new MutableZipCodeRangeSet();
+        Random random = new Random(5);
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory, false)) {
+            for (int change = 0; change < 2_000; change++) {
+                int lowerRange = 10000 + random.nextInt(89000);
+                int upperRange = lowerRange + random.nextInt(300);
+                if (random.nextInt(4) == 0) {
+                    changeLog.remove(lowerRange, upperRange);
+                    expected.remove(lowerRange, upperRange);
+                } else {
+                    changeLog.add(lowerRange, upperRange);
+                    expected.add(lowerRange, upperRange);
+                }
+                if (change == 1_500) {
+                    changeLog.compact();
+                }
+            }
+        }
+
+        assertThat(Files.exists(ZipCodeRangeChangeLog.snapshotPath(directory, 1))).isTrue();
+        assertThat(Files.exists(ZipCodeRangeChangeLog.logPath(directory, 0))).isFalse();
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getRecordsSinceSnapshot()).isEqualTo(499);
+            assertThat(changeLog.getZipCodeRangeSet()).isEqualTo(expected.snapshot());
+        }
+    }
+
+    @Test
+    public void testShouldRecoverWhenCompactionStoppedBeforeSnapshot() throws Exception {
+        Path backup = temporaryFolder.newFolder("backup").toPath();
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.add(94200, 94299);
+            changeLog.compact();
+            changeLog.add(94600, 94699);
+            for (Path file : new Path[]{ZipCodeRangeChangeLog.snapshotPath(directory, 1),
+                    ZipCodeRangeChangeLog.logPath(directory, 1)}) {
+                Files.copy(file, backup.resolve(file.getFileName()));
+            }
+            changeLog.compact();
+            changeLog.add(94133, 94133);
+        }
+        /* as if the process died right after starting generation 2, before its snapshot was written */
+        Files.delete(ZipCodeRangeChangeLog.snapshotPath(directory, 2));
+        for (Path file : new Path[]{ZipCodeRangeChangeLog.snapshotPath(backup, 1),
+                ZipCodeRangeChangeLog.logPath(backup, 1)}) {
+            Files.copy(file, directory.resolve(file.getFileName()));
+        }
+
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94133),
+                    new ZipCodeRange(94200, 94299), new ZipCodeRange(94600, 94699));
+            assertThat(changeLog.getRecordsSinceSnapshot()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testShouldDropTornRecordAtEndOfLog() throws Exception {
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.add(94200, 94299);
+            changeLog.add(94600, 94699);
+        }
+        Path logPath = ZipCodeRangeChangeLog.logPath(directory, 0);
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7}), channel.size());
+        }
+
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94200, 94299));
+            changeLog.add(94133, 94133);
+        }
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94133),
+                    new ZipCodeRange(94200, 94299));
+        }
+    }
+
+    @Test
+    public void testShouldKeepEveryConcurrentAppendWithBackgroundCompaction() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.startCompaction(5, TimeUnit.MILLISECONDS, 50);
+            List<Future<?>> appenders = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int firstCode = 10000 + thread * 10000;
+                appenders.add(executorService.submit(() -> {
+                    for (int code = firstCode; code < firstCode + 2000; code += 2) {
+                        changeLog.add(code, code);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(changeLog.getZipCodeRangeSet().cardinality()).isEqualTo(8 * 1000);
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenClosed() throws Exception {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage(ZipCodeRangeChangeLog.errorClosed);
+        ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory);
+        changeLog.close();
+        changeLog.add(94133, 94133);
+    }
+
+    @Test
+    public void testShouldKeepEveryAppendWhenClosingAsyncLogDuringAppends() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory, false);
+        CountDownLatch appending = new CountDownLatch(4);
+        List<Future<?>> appenders = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int firstCode = 10000 + thread * 20000;
+            appenders.add(executorService.submit(() -> {
+                appending.countDown();
+                try {
+                    for (int code = firstCode; code < firstCode + 20000; code++) {
+                        changeLog.add(code, code);
+                    }
+                } catch (IllegalStateException closed) {
+                    /* appends stop once the log is closed */
+                }
+                return null;
+            }));
+        }
+        appending.await();
+        Thread.sleep(250);
+        changeLog.close();
+        for (Future<?> appender : appenders) {
+            appender.get();
+        }
+        executorService.shutdown();
+
+        try (ZipCodeRangeChangeLog reopenedChangeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(reopenedChangeLog.getZipCodeRangeSet()).isEqualTo(changeLog.getZipCodeRangeSet());
+        }
+    }
+
+    @Test
+    public void testShouldFailLogWhenWriteFails() throws Exception {
+        ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory);
+        changeLog.add(94200, 94299);
+        /* an interrupted write closes the log channel */
+        Thread.currentThread().interrupt();
+        Throwable failure = catchThrowable(() -> changeLog.add(94600, 94699));
+        Thread.interrupted();
+        assertThat(failure).isInstanceOf(IOException.class);
+
+        /* the failed change must not be served either, it is gone after a restart */
+        for (ThrowingCallable call : new ThrowingCallable[]{changeLog::getZipCodeRangeSet,
+                changeLog::getListOfZipCodeRanges, () -> changeLog.add(94133, 94133), changeLog::sync,
+                changeLog::compact, changeLog::close}) {
+            assertThat(catchThrowable(call)).isInstanceOf(IOException.class)
+                    .hasMessage(ZipCodeRangeChangeLog.errorFailed);
+        }
+
+        try (ZipCodeRangeChangeLog reopenedChangeLog = ZipCodeRangeChangeLog.open(directory)) {
+            assertThat(reopenedChangeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94200, 94299));
+        }
+    }
+
+    @Test
+    public void testShouldRecreateLastLogWithTornHeader() throws Exception {
+        try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+            changeLog.add(94200, 94299);
+            changeLog.compact();
+        }
+        Path lastLogPath = ZipCodeRangeChangeLog.logPath(directory, 1);
+        for (int length : new int[]{0, 7}) {
+            /* as if the process died while a version writing the header in place created the log */
+            try (FileChannel channel = FileChannel.open(lastLogPath, StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+            assertThat(Files.size(lastLogPath)).isEqualTo(length);
+
+            try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+                assertThat(changeLog.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94200, 94299));
+                changeLog.add(94600, 94699);
+                changeLog.remove(94600, 94699);
+            }
+            try (ZipCodeRangeChangeLog changeLog = ZipCodeRangeChangeLog.open(directory)) {
+                assertThat(changeLog.getRecordsSinceSnapshot()).isEqualTo(2);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class CompositeZipCodeRangeDAOTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWithoutSources() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(CompositeZipCodeRangeDAO.errorNoSources);
+        new CompositeZipCodeRangeDAO(Collections.<IZipCodeRangeDAO>emptyList());
+    }
+
+    @Test
+    public void testShouldMergeSourcesIntoConsolidatedRanges() throws Exception {
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Arrays.asList(
+                () -> Arrays.asList(new ZipCodeRange(94200, 94299), new ZipCodeRange(94133, 94133)),
+                () -> Arrays.asList(new ZipCodeRange(94250, 94399), new ZipCodeRange(94600, 94699)),
+                () -> Collections.singletonList(new ZipCodeRange(94134, 94150))))) {
+
+            assertThat(composite.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94150),
+                    new ZipCodeRange(94200, 94399), new ZipCodeRange(94600, 94699));
+        }
+    }
+
+    @Test
+    public void testShouldLoadSourcesConcurrently() throws Exception {
+        CountDownLatch allLoading = new CountDownLatch(4);
+        AtomicInteger overlappingLoads = new AtomicInteger();
+        IZipCodeRangeDAO source = () -> {
+            allLoading.countDown();
+            /* only returns true if every source is loading at the same time */
+            if (await(allLoading)) {
+                overlappingLoads.incrementAndGet();
+            }
+            return Collections.singletonList(new ZipCodeRange(94133, 94133));
+        };
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Arrays.asList(source, source, source,
+                source))) {
+            composite.getListOfZipCodeRanges();
+
+            assertThat(overlappingLoads.get()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void testShouldInterruptTimedOutLoad() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IZipCodeRangeDAO hangingSource = () -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Collections.emptyList();
+        };
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Collections.singletonList(
+                hangingSource), 100, TimeUnit.MILLISECONDS, true)) {
+            /* no last known good ranges */
+            assertThat(catchThrowable(composite::getListOfZipCodeRanges)).isInstanceOf(IOException.class);
+
+            assertThat(composite.getLastFailure(0)).isInstanceOf(TimeoutException.class);
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).as("load interrupted").isTrue();
+        }
+    }
+
+    @Test
+    public void testShouldFallBackToLastKnownGoodRangesOnTimeout() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean();
+        IZipCodeRangeDAO flakySource = () -> {
+            if (slow.get()) {
+                sleep(2_000);
+            }
+            return Collections.singletonList(new ZipCodeRange(94600, 94699));
+        };
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Arrays.asList(
+                () -> Collections.singletonList(new ZipCodeRange(94133, 94133)), flakySource), 100,
+                TimeUnit.MILLISECONDS, true)) {
+            List<ZipCodeRange> firstLoad = composite.getListOfZipCodeRanges();
+            slow.set(true);
+
+            assertThat(composite.getListOfZipCodeRanges()).isEqualTo(firstLoad);
+            assertThat(composite.getLastFailure(0)).isNull();
+            assertThat(composite.getLastFailure(1)).isInstanceOf(TimeoutException.class);
+        }
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenFailingSourceHasNoLastKnownGoodRanges() throws Exception {
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Source 1 failed");
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Arrays.asList(
+                () -> Collections.singletonList(new ZipCodeRange(94133, 94133)), () -> {
+                    throw new IOException("feed unavailable");
+                }))) {
+            composite.getListOfZipCodeRanges();
+        }
+    }
+
+    @Test
+    public void testShouldNotFallBackWhenDisabled() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        try (CompositeZipCodeRangeDAO composite = new CompositeZipCodeRangeDAO(Collections.singletonList(() -> {
+            if (failing.get()) {
+                throw new IOException("feed unavailable");
+            }
+            return Collections.singletonList(new ZipCodeRange(94133, 94133));
+        }), 1, TimeUnit.SECONDS, false)) {
+            composite.getListOfZipCodeRanges();
+            failing.set(true);
+
+            thrown.expect(IOException.class);
+            composite.getListOfZipCodeRanges();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.TimedZipCodeRange;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.squareup.moshi.JsonDataException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileTimedZipCodeRangeDAOTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testShouldReadTimedRangesAndIgnoreThemAsPlainRanges() throws Exception {
+        Path filePath = write("[{\"lowerRange\": {\"code\": 94100}, \"upperRange\": {\"code\": 94199},"
+                + " \"effectiveFrom\": \"2026-12-24T00:00:00Z\", \"effectiveTo\": \"2026-12-27T00:00:00Z\"},"
+                + " {\"lowerRange\": {\"code\": 94500}, \"upperRange\": {\"code\": 94599}, \"effectiveTo\": null}]");
+
+        assertThat(new FileTimedZipCodeRangeDAO(filePath).getListOfTimedZipCodeRanges()).containsExactly(
+                new TimedZipCodeRange(94100, 94199, Instant.parse("2026-12-24T00:00:00Z"),
+                        Instant.parse("2026-12-27T00:00:00Z")),
+                new TimedZipCodeRange(94500, 94599, null, null));
+        assertThat(new FileZipCodeRangeDAO(filePath).getListOfZipCodeRanges())
+                .containsExactly(new ZipCodeRange(94100, 94199), new ZipCodeRange(94500, 94599));
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenInstantIsNotIso() throws Exception {
+        Path filePath = write("[{\"lowerRange\": {\"code\": 94100}, \"upperRange\": {\"code\": 94199},"
+                + " \"effectiveFrom\": \"24/12/2026\"}]");
+
+        thrown.expect(JsonDataException.class);
+        thrown.expectMessage("$[0].effectiveFrom");
+        new FileTimedZipCodeRangeDAO(filePath).getListOfTimedZipCodeRanges();
+    }
+
+    private Path write(String json) throws Exception {
+        Path filePath = temporaryFolder.newFile("embargoes.json").toPath();
+        Files.write(filePath, json.getBytes(StandardCharsets.UTF_8));
+        return filePath;
+    }
+}
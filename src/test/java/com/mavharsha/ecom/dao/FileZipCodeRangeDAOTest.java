@@ -1,6 +1,9 @@
 package com.mavharsha.ecom.dao;
 
+import com.mavharsha.ecom.index.ZipCodeRangeSetBuilder;
+import com.mavharsha.ecom.model.ZipCodeRange;
 import com.mavharsha.ecom.util.FileUtil;
+import com.squareup.moshi.JsonDataException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -12,6 +15,9 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyString;
@@ -57,4 +63,44 @@ public class FileZipCodeRangeDAOTest {
         assertThat(FileUtil.readFileFromResource("anotherFile.json"))
                 .containsIgnoringCase("{ \"lowerRange\": {\"code\": 94226}, \"upperRange\": {\"code\": 94399}");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShouldReadZipCodeRangesFromResource() throws IOException {
+        IZipCodeRangeDAO zipCodeRangeDAO = new FileZipCodeRangeDAO();
+        assertThat(zipCodeRangeDAO.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699));
+    }
+
+    @Test
+    public void testShouldReadZipCodeRangesFromFilePath() throws IOException {
+        Path filePath = Files.createTempFile("ranges", ".json");
+        filePath.toFile().deleteOnExit();
+        Files.write(filePath, ("[ { \"lowerRange\": {\"code\": 94226}, \"upperRange\": {\"code\": 94399}, \"source\": \"x\" }," +
+                " { \"upperRange\": {\"code\": 94299}, \"lowerRange\": {\"code\": 94200} } ]").getBytes(StandardCharsets.UTF_8));
+
+        IZipCodeRangeDAO zipCodeRangeDAO = new FileZipCodeRangeDAO(filePath);
+        assertThat(zipCodeRangeDAO.getListOfZipCodeRanges()).containsExactly(new ZipCodeRange(94226, 94399),
+                new ZipCodeRange(94200, 94299));
+    }
+
+    @Test
+    public void testShouldStreamZipCodeRangesIntoSink() throws IOException {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder();
+        new FileZipCodeRangeDAO().readZipCodeRanges(builder);
+        assertThat(builder.getCount()).isEqualTo(3);
+        assertThat(builder.build().toZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699));
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenRangeIsIncomplete() throws IOException {
+        thrown.expect(JsonDataException.class);
+        thrown.expectMessage("Expected lowerRange and upperRange at $[0]");
+        Path filePath = Files.createTempFile("incomplete", ".json");
+        filePath.toFile().deleteOnExit();
+        Files.write(filePath, "[ { \"lowerRange\": {\"code\": 94226} } ]".getBytes(StandardCharsets.UTF_8));
+        new FileZipCodeRangeDAO(filePath).getListOfZipCodeRanges();
+    }
+}
@@ -0,0 +1,127 @@
+package com.mavharsha.ecom.dao;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcZipCodeRangeDAOTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private JdbcDataSource dataSource;
+    private Connection keepAlive;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ranges");
+        /* an in-memory database lives as long as one of its connections */
+        keepAlive = dataSource.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE restrictions (lower_code INT, upper_code INT)");
+            statement.execute("CREATE INDEX restrictions_bounds ON restrictions (lower_code, upper_code)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    public void testShouldThrowExceptionForNonIdentifierTableName() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(JdbcZipCodeRangeDAO.errorIdentifier);
+        new JdbcZipCodeRangeDAO(dataSource, "restrictions; DROP TABLE restrictions", "lower_code", "upper_code");
+    }
+
+    @Test
+    public void testShouldConsolidateRowsInKeysetPages() throws Exception {
+        insert(94600, 94699, 94200, 94299, 94133, 94133, 94250, 94399, 94133, 94133, 94134, 94140, 94133, 94133);
+
+        List<ZipCodeRange> expected = new ArrayList<>();
+        expected.add(new ZipCodeRange(94133, 94140));
+        expected.add(new ZipCodeRange(94200, 94399));
+        expected.add(new ZipCodeRange(94600, 94699));
+        for (int pageSize = 1; pageSize <= 8; pageSize++) {
+            assertThat(new JdbcZipCodeRangeDAO(dataSource, "restrictions", "lower_code", "upper_code", true, 2,
+                    pageSize).getListOfZipCodeRanges()).as("page size %d", pageSize).isEqualTo(expected);
+        }
+        assertThat(new JdbcZipCodeRangeDAO(dataSource, "restrictions", "lower_code", "upper_code", false, 2, 1)
+                .getListOfZipCodeRanges()).as("unordered scan").isEqualTo(expected);
+    }
+
+    @Test
+    public void testShouldMatchUnorderedScanOnRandomRows() throws Exception {
+        Random random = new Random(17);
+        int[] bounds = new int[2 * 5_000];
+        for (int index = 0; index < bounds.length; index += 2) {
+            bounds[index] = 10000 + random.nextInt(89000);
+            bounds[index + 1] = bounds[index] + random.nextInt(200);
+        }
+        insert(bounds);
+
+        JdbcZipCodeRangeDAO ordered = new JdbcZipCodeRangeDAO(dataSource, "restrictions", "lower_code",
+                "upper_code", true, 500, 777);
+        JdbcZipCodeRangeDAO unordered = new JdbcZipCodeRangeDAO(dataSource, "restrictions", "lower_code",
+                "upper_code", false, 500, 777);
+
+        assertThat(ordered.getZipCodeRangeSet().toZipCodeRanges())
+                .isEqualTo(unordered.getZipCodeRangeSet().toZipCodeRanges());
+    }
+
+    @Test
+    public void testShouldServeShippingServiceFromTable() throws Exception {
+        insert(94200, 94299, 94133, 94133);
+        IShippingService shippingService = new ShippingService(new JdbcZipCodeRangeDAO(dataSource, "restrictions",
+                "lower_code", "upper_code"));
+
+        assertThat(shippingService.canBeShippedToZipCode(94250)).isTrue();
+        assertThat(shippingService.canBeShippedToZipCode(94300)).isFalse();
+    }
+
+    @Test
+    public void testShouldThrowExceptionForInvalidRow() throws Exception {
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Expected 5 digit zipCodes in restrictions");
+        insert(94200, 94299, 9999, 94133);
+        new JdbcZipCodeRangeDAO(dataSource, "restrictions", "lower_code", "upper_code").getListOfZipCodeRanges();
+    }
+
+    @Test
+    public void testShouldThrowExceptionForMissingTable() throws Exception {
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Cannot read ranges from missing");
+        new JdbcZipCodeRangeDAO(dataSource, "missing", "lower_code", "upper_code").getListOfZipCodeRanges();
+    }
+
+    private void insert(int... bounds) throws SQLException {
+        try (PreparedStatement statement = keepAlive.prepareStatement(
+                "INSERT INTO restrictions (lower_code, upper_code) VALUES (?, ?)")) {
+            for (int index = 0; index < bounds.length; index += 2) {
+                statement.setInt(1, bounds[index]);
+                statement.setInt(2, bounds[index + 1]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.mavharsha.ecom.http;
+
+import com.google.common.io.ByteStreams;
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShippingHttpServerTest {
+
+    @BeforeClass
+    public static void setUpClass() {
+        ShippingHttpServer.enableNoDelay();
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final IShippingService shippingService = new ShippingService(() -> Arrays.asList(
+            new ZipCodeRange(94200, 94299), new ZipCodeRange(94133, 94133), new ZipCodeRange(94250, 94399)));
+
+    private ShippingHttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ShippingHttpServer(shippingService, new InetSocketAddress("localhost", 0));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testShouldAnswerSingleLookups() throws Exception {
+        assertThat(request("GET", "/ship?zipCode=94133", null)).isEqualTo("200 {\"status\":\"SHIPPABLE\"}");
+        assertThat(request("GET", "/ship?zipCode=94400", null)).isEqualTo("200 {\"status\":\"NOT_SHIPPABLE\"}");
+        assertThat(request("GET", "/ship?zipCode=9413", null)).startsWith("400 ");
+        assertThat(request("GET", "/ship?zipCode=abc", null)).startsWith("400 ");
+        assertThat(request("GET", "/ship", null)).startsWith("400 ");
+    }
+
+    @Test
+    public void testShouldAnswerBatchLookupsInRequestOrder() throws Exception {
+        assertThat(request("POST", "/ship/batch", "[94133, 94400,123,94x99]\n94399"))
+                .isEqualTo("200 [\"SHIPPABLE\",\"NOT_SHIPPABLE\",\"INVALID\",\"INVALID\",\"SHIPPABLE\"]");
+        assertThat(request("POST", "/ship/batch", "[]")).isEqualTo("200 []");
+    }
+
+    @Test
+    public void testShouldServeConsolidatedRangesInInputFileFormat() throws Exception {
+        String response = request("GET", "/ranges", null);
+        assertThat(response).startsWith("200 ");
+        assertThat(request("GET", "/ranges", null)).as("cached response").isEqualTo(response);
+
+        Path rangesFile = temporaryFolder.newFile("ranges.json").toPath();
+        Files.write(rangesFile, response.substring(4).getBytes(StandardCharsets.UTF_8));
+        assertThat(new FileZipCodeRangeDAO(rangesFile).getListOfZipCodeRanges())
+                .isEqualTo(shippingService.getConsolidatedShippableZipCodeRanges());
+    }
+
+    @Test
+    public void testShouldRejectUnknownPathsAndMethods() throws Exception {
+        assertThat(request("POST", "/ship?zipCode=94133", "")).isEqualTo("405 ");
+        assertThat(request("GET", "/ship/batch", null)).isEqualTo("405 ");
+        assertThat(request("GET", "/ranges/all", null)).isEqualTo("404 ");
+    }
+
+    @Test
+    public void testShouldAnswerInternalErrorWhenServiceFails() throws Exception {
+        server.close();
+        server = new ShippingHttpServer(new ShippingService(() -> {
+            throw new IllegalStateException("Broken rules");
+        }), new InetSocketAddress("localhost", 0));
+        server.start();
+
+        assertThat(request("GET", "/ship?zipCode=94133", null)).startsWith("500 ");
+        assertThat(request("POST", "/ship/batch", "94133")).startsWith("500 ");
+        assertThat(request("GET", "/ranges", null)).startsWith("500 ");
+    }
+
+    @Test
+    public void testShouldAnswerInternalErrorWhenRulesFileIsBad() throws Exception {
+        Path rulesFile = temporaryFolder.newFile("rules.json").toPath();
+        Files.write(rulesFile, "[{\"lowerRange\": {\"code\": 94299}, \"upperRange\": {\"code\": 94200}}]"
+                .getBytes(StandardCharsets.UTF_8));
+        server.close();
+        server = new ShippingHttpServer(new ShippingService(new FileZipCodeRangeDAO(rulesFile)),
+                new InetSocketAddress("localhost", 0));
+        server.start();
+
+        assertThat(request("GET", "/ship?zipCode=94133", null)).startsWith("500 ");
+        assertThat(request("GET", "/ship?zipCode=9413", null)).startsWith("400 ");
+        assertThat(request("POST", "/ship/batch", "94133")).startsWith("500 ");
+    }
+
+    @Test
+    public void testShouldReportLatencyOfLoadTest() throws Exception {
+        LoadTestReport report = new HttpLoadTestClient("http://localhost:" + server.getPort()).run(200, 4);
+
+        assertThat(report.getRequestCount()).isEqualTo(200);
+        assertThat(report.getErrorCount()).isEqualTo(0);
+        assertThat(report.getLatencyNanos(50)).isPositive().isLessThanOrEqualTo(report.getLatencyNanos(99));
+    }
+
+    /**
+     * @return the status and the body of the response, separated by a space
+     */
+    private String request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream request = connection.getOutputStream()) {
+                request.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return status + " " + (response == null ? ""
+                    : new String(ByteStreams.toByteArray(response), StandardCharsets.UTF_8));
+        }
+    }
+}
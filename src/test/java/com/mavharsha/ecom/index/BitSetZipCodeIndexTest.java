@@ -0,0 +1,60 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BitSetZipCodeIndexTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWhenNullIsPassed() {
+        thrown.expect(NullPointerException.class);
+        new BitSetZipCodeIndex(null);
+    }
+
+    @Test
+    public void testShouldNotContainAnythingWhenEmpty() {
+        BitSetZipCodeIndex index = new BitSetZipCodeIndex(new ArrayList<>());
+        assertThat(index.contains(10000)).isFalse();
+        assertThat(index.contains(99999)).isFalse();
+        assertThat(index.cardinality()).isEqualTo(0);
+    }
+
+    @Test
+    public void testShouldValidateContains() {
+        IZipCodeIndex index = new BitSetZipCodeIndex(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94226, 94399),
+                new ZipCodeRange(10000, 10000),
+                new ZipCodeRange(99999, 99999)));
+
+        assertThat(index.contains(94133)).as("Single zipCode range").isTrue();
+        assertThat(index.contains(94200)).as("Lower bound").isTrue();
+        assertThat(index.contains(94399)).as("Upper bound of overlapping range").isTrue();
+        assertThat(index.contains(10000)).as("Lowest zipCode").isTrue();
+        assertThat(index.contains(99999)).as("Highest zipCode").isTrue();
+
+        assertThat(index.contains(94132)).isFalse();
+        assertThat(index.contains(94199)).isFalse();
+        assertThat(index.contains(94400)).isFalse();
+    }
+
+    @Test
+    public void testShouldReturnFalseForInvalidZipCodes() {
+        IZipCodeIndex index = new BitSetZipCodeIndex(Arrays.asList(new ZipCodeRange(10000, 99999)));
+        assertThat(index.contains(9999)).isFalse();
+        assertThat(index.contains(100000)).isFalse();
+        assertThat(index.contains(-1)).isFalse();
+        assertThat(index.contains(Integer.MIN_VALUE)).isFalse();
+        assertThat(index.contains(Integer.MAX_VALUE)).isFalse();
+    }
+}
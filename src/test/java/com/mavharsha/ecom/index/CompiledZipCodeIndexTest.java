@@ -0,0 +1,93 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledZipCodeIndexTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldValidateContains() {
+        CompiledZipCodeIndex index = CompiledZipCodeIndex.compile(ZipCodeRangeSet.of(Arrays.asList(
+                new ZipCodeRange(94133, 94133), new ZipCodeRange(94200, 94299), new ZipCodeRange(94226, 94399),
+                new ZipCodeRange(10000, 10000), new ZipCodeRange(99999, 99999))));
+
+        assertThat(index.getRangeCount()).isEqualTo(4);
+        assertThat(index.contains(94133)).as("Single zipCode range").isTrue();
+        assertThat(index.contains(94300)).as("Overlapping ranges").isTrue();
+        assertThat(index.contains(94400)).isFalse();
+        assertThat(index.contains(10000)).as("Lowest zipCode").isTrue();
+        assertThat(index.contains(99999)).as("Highest zipCode").isTrue();
+        assertThat(index.contains(100000)).as("Out of domain").isFalse();
+        assertThat(index.contains(-94133)).as("Out of domain").isFalse();
+        assertThat(index.getSizeInBytes()).isPositive();
+    }
+
+    @Test
+    public void testShouldNotContainAnythingWhenEmpty() {
+        CompiledZipCodeIndex index = CompiledZipCodeIndex.compile(ZipCodeRangeSet.empty());
+
+        assertThat(index.contains(10000)).isFalse();
+        assertThat(index.contains(Integer.MIN_VALUE)).isFalse();
+    }
+
+    @Test
+    public void testShouldMatchRangeSetOnWholeDomain() {
+        Random random = new Random(23);
+        for (int rangeCount : new int[]{1, 2, 3, 16, 64, CompiledZipCodeIndex.maxRangeCount}) {
+            ZipCodeRangeSet zipCodeRangeSet = randomRangeSet(random, rangeCount);
+            CompiledZipCodeIndex index = CompiledZipCodeIndex.compile(zipCodeRangeSet);
+            List<Integer> mismatches = new ArrayList<>();
+            for (int zipCode = ZipCode.minCode - 1; zipCode <= ZipCode.maxCode + 1; zipCode++) {
+                if (index.contains(zipCode) != zipCodeRangeSet.contains(zipCode)) {
+                    mismatches.add(zipCode);
+                }
+            }
+            assertThat(mismatches).as("Mismatches in %d ranges", rangeCount).isEmpty();
+        }
+    }
+
+    @Test
+    public void testShouldFallBackToBitSetForLargeSets() {
+        List<ZipCodeRange> zipCodeRanges = randomRangeSet(new Random(29), CompiledZipCodeIndex.defaultMaxRangeCount + 1)
+                .toZipCodeRanges();
+
+        assertThat(CompiledZipCodeIndex.of(zipCodeRanges)).isInstanceOf(BitSetZipCodeIndex.class);
+        assertThat(CompiledZipCodeIndex.of(zipCodeRanges, CompiledZipCodeIndex.maxRangeCount))
+                .isInstanceOf(CompiledZipCodeIndex.class);
+        assertThat(CompiledZipCodeIndex.of(zipCodeRanges.subList(0, CompiledZipCodeIndex.defaultMaxRangeCount)))
+                .isInstanceOf(CompiledZipCodeIndex.class);
+    }
+
+    @Test
+    public void testShouldThrowExceptionForTooManyRanges() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(CompiledZipCodeIndex.errorTooManyRanges);
+        CompiledZipCodeIndex.compile(randomRangeSet(new Random(31), CompiledZipCodeIndex.maxRangeCount + 1));
+    }
+
+    /**
+     * @return exactly rangeCount consolidated ranges
+     */
+    private static ZipCodeRangeSet randomRangeSet(Random random, int rangeCount) {
+        int step = (ZipCode.maxCode - ZipCode.minCode + 1) / rangeCount;
+        List<ZipCodeRange> zipCodeRanges = new ArrayList<>();
+        for (int range = 0; range < rangeCount; range++) {
+            int lowerRange = ZipCode.minCode + range * step + random.nextInt(step / 2);
+            zipCodeRanges.add(new ZipCodeRange(lowerRange, lowerRange + random.nextInt(step / 2 - 1)));
+        }
+        return ZipCodeRangeSet.of(zipCodeRanges);
+    }
+}
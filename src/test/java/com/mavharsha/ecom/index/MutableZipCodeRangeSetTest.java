@@ -0,0 +1,108 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MutableZipCodeRangeSetTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+    private MutableZipCodeRangeSet rangeSet;
+
+    @Before
+    public void setUp() {
+        rangeSet = new MutableZipCodeRangeSet(ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699))));
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenLowerBoundIsGreaterThanUpperBound() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeRange.errorZipCodeLowerGreaterThanUpper);
+        rangeSet.remove(94299, 94200);
+    }
+
+    @Test
+    public void testShouldMergeAddedRanges() {
+        rangeSet.add(94226, 94399).add(94134, 94134).add(94400, 94599);
+        assertThat(rangeSet.snapshot().toZipCodeRanges()).containsExactly(new ZipCodeRange(94133, 94134),
+                new ZipCodeRange(94200, 94699));
+
+        rangeSet.add(94250, 94260);
+        assertThat(rangeSet.size()).isEqualTo(2);
+        rangeSet.add(10000, 99999);
+        assertThat(rangeSet.snapshot().toZipCodeRanges()).containsExactly(new ZipCodeRange(10000, 99999));
+    }
+
+    @Test
+    public void testShouldTrimAndSplitRemovedRanges() {
+        rangeSet.remove(94250, 94259).remove(94650, 94800).remove(94133, 94133);
+        assertThat(rangeSet.snapshot().toZipCodeRanges()).containsExactly(new ZipCodeRange(94200, 94249),
+                new ZipCodeRange(94260, 94299),
+                new ZipCodeRange(94600, 94649));
+        assertThat(rangeSet.contains(94255)).isFalse();
+        assertThat(rangeSet.contains(94260)).isTrue();
+
+        rangeSet.remove(10000, 99999);
+        assertThat(rangeSet.snapshot()).isSameAs(ZipCodeRangeSet.empty());
+    }
+
+    @Test
+    public void testShouldShareSnapshotUntilNextUpdate() {
+        ZipCodeRangeSet snapshot = rangeSet.snapshot();
+        assertThat(rangeSet.snapshot()).isSameAs(snapshot);
+        rangeSet.add(94700, 94700);
+        assertThat(rangeSet.snapshot()).isNotSameAs(snapshot);
+        assertThat(snapshot.contains(94700)).as("Snapshots are immutable").isFalse();
+    }
+
+    @Test
+    public void testShouldMatchBitSetForRandomUpdates() {
+        Random random = new Random(13);
+        MutableZipCodeRangeSet randomRangeSet = new MutableZipCodeRangeSet();
+        BitSet expected = new BitSet();
+        for (int update = 0; update < 5000; update++) {
+            int lower = ZipCode.minCode + random.nextInt(2000);
+            int upper = lower + random.nextInt(50);
+            if (random.nextInt(3) == 0) {
+                randomRangeSet.remove(lower, upper);
+                expected.clear(lower, upper + 1);
+            } else {
+                randomRangeSet.add(lower, upper);
+                expected.set(lower, upper + 1);
+            }
+        }
+        ZipCodeRangeSet snapshot = randomRangeSet.snapshot();
+        for (int zipCode = ZipCode.minCode; zipCode < ZipCode.minCode + 2100; zipCode++) {
+            assertThat(snapshot.contains(zipCode)).as("" + zipCode).isEqualTo(expected.get(zipCode));
+        }
+        assertThat(ZipCodeRangeSet.ofConsolidated(lows(snapshot), highs(snapshot))).isEqualTo(snapshot);
+    }
+
+    private static int[] lows(ZipCodeRangeSet zipCodeRangeSet) {
+        int[] lows = new int[zipCodeRangeSet.size()];
+        for (int index = 0; index < lows.length; index++) {
+            lows[index] = zipCodeRangeSet.lowerAt(index);
+        }
+        return lows;
+    }
+
+    private static int[] highs(ZipCodeRangeSet zipCodeRangeSet) {
+        int[] highs = new int[zipCodeRangeSet.size()];
+        for (int index = 0; index < highs.length; index++) {
+            highs[index] = zipCodeRangeSet.upperAt(index);
+        }
+        return highs;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeRangeSetBuilderTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWhenLowerBoundIsGreaterThanUpperBound() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeRange.errorZipCodeLowerGreaterThanUpper);
+        new ZipCodeRangeSetBuilder().add(94300, 94200);
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenZipCodeIsNotFiveDigits() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        new ZipCodeRangeSetBuilder().add(9999, 94200);
+    }
+
+    @Test
+    public void testShouldBuildEmptySet() {
+        assertThat(new ZipCodeRangeSetBuilder().build()).isSameAs(ZipCodeRangeSet.empty());
+    }
+
+    @Test
+    public void testShouldConsolidateRanges() {
+        ZipCodeRangeSet rangeSet = new ZipCodeRangeSetBuilder()
+                .add(94226, 94399)
+                .add(94133, 94133)
+                .add(94200, 94299)
+                .add(10000, 10000)
+                .add(99990, 99999)
+                .add(99999, 99999)
+                .build();
+
+        assertThat(rangeSet.toZipCodeRanges()).isEqualTo(Arrays.asList(new ZipCodeRange(10000, 10000),
+                new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94399),
+                new ZipCodeRange(99990, 99999)));
+    }
+
+    @Test
+    public void testShouldBeReusableAfterReset() {
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder().add(94200, 94299);
+        assertThat(builder.getCount()).isEqualTo(1);
+        builder.reset().add(94600, 94699);
+        assertThat(builder.getCount()).isEqualTo(1);
+        assertThat(builder.build().toZipCodeRanges()).isEqualTo(Arrays.asList(new ZipCodeRange(94600, 94699)));
+    }
+
+    @Test
+    public void testShouldMatchSortedConsolidationForRandomRanges() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder();
+            List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>();
+            for (int index = 0; index < 500; index++) {
+                int lower = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+                int upper = Math.min(ZipCode.maxCode, lower + random.nextInt(200));
+                listOfZipCodeRanges.add(new ZipCodeRange(lower, upper));
+                builder.add(lower, upper);
+            }
+            assertThat(builder.build()).isEqualTo(ZipCodeRangeSet.of(listOfZipCodeRanges));
+        }
+    }
+
+    @Test
+    public void testShouldSwitchToSweepPastThreshold() {
+        Random random = new Random(5);
+        ZipCodeRangeSetBuilder builder = new ZipCodeRangeSetBuilder(100);
+        for (int round = 0; round < 4; round++) {
+            List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>();
+            builder.reset();
+            for (int index = 0; index < (round % 2 == 0 ? 50 : 5000); index++) {
+                int lower = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+                int upper = Math.min(ZipCode.maxCode, lower + random.nextInt(20));
+                listOfZipCodeRanges.add(new ZipCodeRange(lower, upper));
+                builder.add(lower, upper);
+            }
+            assertThat(builder.getCount()).isEqualTo(listOfZipCodeRanges.size());
+            assertThat(builder.build()).isEqualTo(ZipCodeRangeSet.of(listOfZipCodeRanges));
+        }
+    }
+}
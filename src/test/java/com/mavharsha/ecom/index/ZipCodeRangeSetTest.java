@@ -0,0 +1,104 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeRangeSetTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWhenNullIsPassed() {
+        thrown.expect(NullPointerException.class);
+        ZipCodeRangeSet.of(null);
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenIndexIsOutOfBounds() {
+        thrown.expect(IndexOutOfBoundsException.class);
+        ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133))).lowerAt(1);
+    }
+
+    @Test
+    public void testShouldReturnEmptySetWhenNoRanges() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.of(new ArrayList<>());
+        assertThat(rangeSet.isEmpty()).isTrue();
+        assertThat(rangeSet.size()).isEqualTo(0);
+        assertThat(rangeSet.contains(94133)).isFalse();
+        assertThat(rangeSet).isSameAs(ZipCodeRangeSet.empty());
+    }
+
+    @Test
+    public void testShouldConsolidateRangesInAnyOrder() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94226, 94399),
+                new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299)));
+
+        List<ZipCodeRange> expected = Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94399));
+        assertThat(rangeSet.size()).as("Should return set of size 2").isEqualTo(2);
+        assertThat(rangeSet.toZipCodeRanges()).isEqualTo(expected);
+        assertThat(rangeSet.lowerAt(1)).isEqualTo(94200);
+        assertThat(rangeSet.upperAt(1)).isEqualTo(94399);
+        assertThat(rangeSet.cardinality()).isEqualTo(201);
+    }
+
+    @Test
+    public void testShouldMergeAdjacentAndContainedRanges() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94300, 94399),
+                new ZipCodeRange(94250, 94260),
+                new ZipCodeRange(94401, 94401)));
+
+        assertThat(rangeSet.toZipCodeRanges()).isEqualTo(Arrays.asList(new ZipCodeRange(94200, 94399),
+                new ZipCodeRange(94401, 94401)));
+    }
+
+    @Test
+    public void testShouldValidateContains() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699)));
+
+        for (int zipCode : new int[]{94133, 94650, 94230, 94600, 94299}) {
+            assertThat(rangeSet.contains(zipCode)).as("" + zipCode).isTrue();
+        }
+        for (int zipCode : new int[]{94199, 94300, 65532, 0, -94133, 100000}) {
+            assertThat(rangeSet.contains(zipCode)).as("" + zipCode).isFalse();
+        }
+    }
+
+    @Test
+    public void testShouldBeEqualWhenContentIsEqual() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94300, 94399)));
+        ZipCodeRangeSet anotherRangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94399)));
+
+        assertThat(rangeSet).isEqualTo(anotherRangeSet);
+        assertThat(rangeSet.hashCode()).isEqualTo(anotherRangeSet.hashCode());
+        assertThat(rangeSet).isNotEqualTo(ZipCodeRangeSet.empty());
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenRangesAreNotConsolidated() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeRangeSet.errorNotConsolidated);
+        ZipCodeRangeSet.ofConsolidated(new int[]{94200, 94300}, new int[]{94299, 94399});
+    }
+
+    @Test
+    public void testShouldCreateSetFromConsolidatedRanges() {
+        ZipCodeRangeSet rangeSet = ZipCodeRangeSet.ofConsolidated(new int[]{94133, 94200}, new int[]{94133, 94299});
+        assertThat(rangeSet).isEqualTo(ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94133, 94133))));
+    }
+}
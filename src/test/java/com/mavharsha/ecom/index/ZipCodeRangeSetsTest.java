@@ -0,0 +1,111 @@
+package com.mavharsha.ecom.index;
+
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeRangeSetsTest {
+
+    private final ZipCodeRangeSet first = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94133, 94133),
+            new ZipCodeRange(94200, 94299),
+            new ZipCodeRange(94600, 94699)));
+    private final ZipCodeRangeSet second = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(94250, 94649),
+            new ZipCodeRange(94700, 94700)));
+
+    @Test
+    public void testShouldValidateUnion() {
+        assertThat(ZipCodeRangeSets.union(first, second).toZipCodeRanges()).containsExactly(
+                new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94700));
+        assertThat(ZipCodeRangeSets.union(first, ZipCodeRangeSet.empty())).isEqualTo(first);
+    }
+
+    @Test
+    public void testShouldValidateIntersection() {
+        assertThat(ZipCodeRangeSets.intersection(first, second).toZipCodeRanges()).containsExactly(
+                new ZipCodeRange(94250, 94299),
+                new ZipCodeRange(94600, 94649));
+        assertThat(ZipCodeRangeSets.intersection(first, ZipCodeRangeSet.empty())).isSameAs(ZipCodeRangeSet.empty());
+    }
+
+    @Test
+    public void testShouldValidateDifference() {
+        assertThat(ZipCodeRangeSets.difference(first, second).toZipCodeRanges()).containsExactly(
+                new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94249),
+                new ZipCodeRange(94650, 94699));
+        assertThat(ZipCodeRangeSets.difference(second, first).toZipCodeRanges()).containsExactly(
+                new ZipCodeRange(94300, 94599),
+                new ZipCodeRange(94700, 94700));
+    }
+
+    @Test
+    public void testShouldValidateComplement() {
+        assertThat(ZipCodeRangeSets.complement(first).toZipCodeRanges()).containsExactly(
+                new ZipCodeRange(10000, 94132),
+                new ZipCodeRange(94134, 94199),
+                new ZipCodeRange(94300, 94599),
+                new ZipCodeRange(94700, 99999));
+        assertThat(ZipCodeRangeSets.complement(ZipCodeRangeSet.empty()).toZipCodeRanges())
+                .containsExactly(new ZipCodeRange(10000, 99999));
+        assertThat(ZipCodeRangeSets.complement(ZipCodeRangeSets.complement(first))).isEqualTo(first);
+    }
+
+    @Test
+    public void testShouldMatchBitSetsForRandomSets() {
+        Random random = new Random(17);
+        List<ZipCodeRangeSet> sets = new ArrayList<>();
+        List<BitSet> bitSets = new ArrayList<>();
+        for (int set = 0; set < 12; set++) {
+            List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>();
+            BitSet bitSet = new BitSet();
+            for (int index = 0; index < random.nextInt(40); index++) {
+                int lower = ZipCode.minCode + random.nextInt(3000);
+                int upper = lower + random.nextInt(100);
+                listOfZipCodeRanges.add(new ZipCodeRange(lower, upper));
+                bitSet.set(lower, upper + 1);
+            }
+            sets.add(ZipCodeRangeSet.of(listOfZipCodeRanges));
+            bitSets.add(bitSet);
+        }
+
+        BitSet expectedUnion = new BitSet();
+        for (int set = 0; set < sets.size(); set++) {
+            expectedUnion.or(bitSets.get(set));
+            int other = (set + 1) % sets.size();
+            BitSet expectedIntersection = (BitSet) bitSets.get(set).clone();
+            expectedIntersection.and(bitSets.get(other));
+            BitSet expectedDifference = (BitSet) bitSets.get(set).clone();
+            expectedDifference.andNot(bitSets.get(other));
+
+            assertMatches(ZipCodeRangeSets.intersection(sets.get(set), sets.get(other)), expectedIntersection);
+            assertMatches(ZipCodeRangeSets.difference(sets.get(set), sets.get(other)), expectedDifference);
+            assertMatches(ZipCodeRangeSets.union(sets.get(set), sets.get(other)),
+                    or(bitSets.get(set), bitSets.get(other)));
+        }
+        assertMatches(ZipCodeRangeSets.union(sets), expectedUnion);
+        assertThat(ZipCodeRangeSets.union(sets)).isEqualTo(ZipCodeRangeSets.union(ZipCodeRangeSets.union(
+                sets.subList(0, 6)), ZipCodeRangeSets.union(sets.subList(6, 12))));
+    }
+
+    private static BitSet or(BitSet first, BitSet second) {
+        BitSet union = (BitSet) first.clone();
+        union.or(second);
+        return union;
+    }
+
+    private static void assertMatches(ZipCodeRangeSet zipCodeRangeSet, BitSet expected) {
+        assertThat(zipCodeRangeSet.cardinality()).isEqualTo(expected.cardinality());
+        for (int zipCode = expected.nextSetBit(0); zipCode >= 0; zipCode = expected.nextSetBit(zipCode + 1)) {
+            assertThat(zipCodeRangeSet.contains(zipCode)).as("" + zipCode).isTrue();
+        }
+    }
+}
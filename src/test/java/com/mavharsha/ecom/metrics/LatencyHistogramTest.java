@@ -0,0 +1,94 @@
+package com.mavharsha.ecom.metrics;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionForPercentileAboveHundred() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(LatencyHistogram.errorPercentile);
+        new LatencyHistogram().getValueAtPercentile(100.1);
+    }
+
+    @Test
+    public void testShouldReportZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+        assertThat(histogram.getMean()).isEqualTo(0);
+    }
+
+    @Test
+    public void testShouldAddOtherHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram other = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            (value % 2 == 0 ? histogram : other).record(value);
+        }
+
+        histogram.add(other);
+
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMax()).isEqualTo(100);
+        assertThat(histogram.getMean()).isEqualTo(50.5);
+        assertThat(other.getCount()).isEqualTo(50);
+    }
+
+    @Test
+    public void testShouldMapEveryValueToBucketContainingIt() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.highestValueOf(bucket)).as("bucket of %d", value).isGreaterThanOrEqualTo(value);
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.highestValueOf(bucket - 1)).as("bucket of %d", value).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void testShouldReportPercentilesWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getMax()).isEqualTo(100_000_000);
+        assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(50_000_000, within(1_500_000.0));
+        assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(99_000_000, within(3_000_000.0));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000);
+        assertThat(histogram.getMean()).isCloseTo(50_000_500, within(1.0));
+    }
+
+    @Test
+    public void testShouldCountConcurrentRecordings() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executorService.submit(() -> {
+                for (int value = 0; value < 10_000; value++) {
+                    histogram.record(value);
+                }
+            });
+        }
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(histogram.getCount()).isEqualTo(80_000);
+        assertThat(histogram.getMax()).isEqualTo(9_999);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mavharsha.ecom.metrics;
+
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import com.mavharsha.ecom.service.SortMergeZipCodeRangeConsolidator;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShippingMetricsTest {
+
+    @Test
+    public void testShouldRecordLoadConsolidationAndLookups() throws Exception {
+        ShippingMetrics metrics = new ShippingMetrics();
+        IShippingService shippingService = new ShippingService(() -> Arrays.asList(new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94133, 94133), new ZipCodeRange(94250, 94399)),
+                new SortMergeZipCodeRangeConsolidator(), metrics);
+
+        for (int zipCode = 94100; zipCode < 94200; zipCode++) {
+            shippingService.canBeShippedToZipCode(zipCode);
+        }
+        shippingService.canBeShippedToZipCodes(new int[]{94133, 1, 94300}, new BitSet(), new BitSet());
+
+        assertThat(metrics.getLoadCount()).isEqualTo(1);
+        assertThat(metrics.getLoadFailureCount()).isEqualTo(0);
+        assertThat(metrics.getRangeCount()).isEqualTo(3);
+        assertThat(metrics.getConsolidatedRangeCount()).isEqualTo(2);
+        assertThat(metrics.getIndexSizeInBytes()).isGreaterThanOrEqualTo(90_000 / 8);
+        assertThat(metrics.getConsolidationLatency().getCount()).isEqualTo(1);
+        assertThat(metrics.getLookupCount()).isEqualTo(100);
+        assertThat(metrics.getLookupLatency().getCount()).isEqualTo(100);
+        assertThat(metrics.getBatchLookupZipCodeCount()).isEqualTo(3);
+        assertThat(metrics.getLookupLatencyP50()).isLessThanOrEqualTo(metrics.getLookupLatencyMax());
+    }
+
+    @Test
+    public void testShouldCountLoadFailures() {
+        ShippingMetrics metrics = new ShippingMetrics();
+        IShippingService shippingService = new ShippingService(() -> {
+            throw new IOException("unavailable");
+        }, new SortMergeZipCodeRangeConsolidator(), metrics);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                shippingService.canBeShippedToZipCode(94133);
+            } catch (IOException expected) {
+                /* counted below */
+            }
+        }
+
+        assertThat(metrics.getLoadFailureCount()).isEqualTo(2);
+        assertThat(metrics.getLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testShouldExposeMetricsThroughJmx() throws Exception {
+        ShippingMetrics metrics = new ShippingMetrics();
+        metrics.onLoad(1_000, 42);
+        ObjectName objectName = metrics.registerMBean("test");
+        try {
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "RangeCount"))
+                    .isEqualTo(42);
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "LoadCount"))
+                    .isEqualTo(1L);
+        } finally {
+            ShippingMetrics.unregisterMBean(objectName);
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)).isFalse();
+    }
+}
@@ -0,0 +1,65 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkZipCodeRangeConsolidatorTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWhenParallelismIsNotPositive() {
+        thrown.expect(IllegalArgumentException.class);
+        new BulkZipCodeRangeConsolidator(0);
+    }
+
+    @Test
+    public void testShouldConsolidateEverySet() {
+        Random random = new Random(3);
+        Map<String, List<ZipCodeRange>> rangeSetsByItemId = new HashMap<>();
+        long inputRangeCount = 0;
+        for (int item = 0; item < 1000; item++) {
+            List<ZipCodeRange> listOfZipCodeRanges = new ArrayList<>();
+            int rangeCount = item % 100 == 0 ? 8000 : random.nextInt(20);
+            for (int index = 0; index < rangeCount; index++) {
+                int lower = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+                listOfZipCodeRanges.add(new ZipCodeRange(lower, Math.min(ZipCode.maxCode, lower + random.nextInt(100))));
+            }
+            inputRangeCount += rangeCount;
+            rangeSetsByItemId.put("sku-" + item, listOfZipCodeRanges);
+        }
+
+        Map<String, ZipCodeRangeSet> consolidated = new ConcurrentHashMap<>();
+        BulkConsolidationReport report;
+        try (BulkZipCodeRangeConsolidator consolidator = new BulkZipCodeRangeConsolidator(4)) {
+            report = consolidator.consolidateAll(rangeSetsByItemId, consolidated::put);
+        }
+
+        assertThat(consolidated).hasSize(1000);
+        long outputRangeCount = 0;
+        for (Map.Entry<String, List<ZipCodeRange>> entry : rangeSetsByItemId.entrySet()) {
+            assertThat(consolidated.get(entry.getKey())).as(entry.getKey())
+                    .isEqualTo(ZipCodeRangeSet.of(entry.getValue()));
+            outputRangeCount += consolidated.get(entry.getKey()).size();
+        }
+        assertThat(report.getSetCount()).isEqualTo(1000);
+        assertThat(report.getInputRangeCount()).isEqualTo(inputRangeCount);
+        assertThat(report.getOutputRangeCount()).isEqualTo(outputRangeCount);
+        assertThat(report.getParallelism()).isEqualTo(4);
+        assertThat(report.getSetsPerSecond()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ReloadableShippingServiceTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testShouldThrowExceptionWhenWatchingWithoutRulesFile() {
+        thrown.expect(IllegalStateException.class);
+        new ReloadableShippingService(() -> ArrayList::new).watch(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testShouldLoadOnceForConcurrentFirstCalls() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        IZipCodeRangeDAO zipCodeRangeDAO = () -> {
+            loadCount.incrementAndGet();
+            sleep(50);
+            return Arrays.asList(new ZipCodeRange(94200, 94299));
+        };
+        ReloadableShippingService shippingService = new ReloadableShippingService(() -> zipCodeRangeDAO);
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int index = 0; index < 16; index++) {
+            results.add(executorService.submit(() -> {
+                start.await();
+                return shippingService.canBeShippedToZipCode(94230);
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+        executorService.shutdown();
+
+        assertThat(loadCount.get()).as("Should load exactly once").isEqualTo(1);
+        assertThat(shippingService.getReloadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testShouldKeepPreviousRulesWhenReloadFails() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        ReloadableShippingService shippingService = new ReloadableShippingService(() -> () -> {
+            if (loadCount.incrementAndGet() > 1) {
+                throw new IOException("Source unavailable.");
+            }
+            return Arrays.asList(new ZipCodeRange(94200, 94299));
+        });
+        assertThat(shippingService.canBeShippedToZipCode(94230)).isTrue();
+
+        assertThat(catchThrowable(shippingService::reload)).isInstanceOf(IOException.class)
+                .hasMessage("Source unavailable.");
+        assertThat(shippingService.getLastReloadFailure()).isInstanceOf(IOException.class);
+        assertThat(shippingService.canBeShippedToZipCode(94230)).isTrue();
+        assertThat(shippingService.getConsolidatedShippableZipCodeRanges())
+                .containsExactly(new ZipCodeRange(94200, 94299));
+    }
+
+    @Test
+    public void testShouldReloadWhenRulesFileChanges() throws Exception {
+        Path filePath = temporaryFolder.newFile("ranges.json").toPath();
+        write(filePath, "[ { \"lowerRange\": {\"code\": 94200}, \"upperRange\": {\"code\": 94299} } ]");
+
+        try (ReloadableShippingService shippingService =
+                     ReloadableShippingService.forFile(filePath, new SweepZipCodeRangeConsolidator())) {
+            assertThat(shippingService.canBeShippedToZipCode(94600)).isFalse();
+            shippingService.watch(10, TimeUnit.MILLISECONDS);
+
+            write(filePath, "[ { \"lowerRange\": {\"code\": 94200}, \"upperRange\": {\"code\": 94299} }," +
+                    " { \"lowerRange\": {\"code\": 94600}, \"upperRange\": {\"code\": 94699} } ]");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!shippingService.canBeShippedToZipCode(94600) && System.currentTimeMillis() < deadline) {
+                sleep(10);
+            }
+            assertThat(shippingService.canBeShippedToZipCode(94600)).as("Should pick up the new rules").isTrue();
+            assertThat(shippingService.getReloadCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testShouldReloadChangeMadeBeforeWatchStarts() throws Exception {
+        Path filePath = temporaryFolder.newFile("ranges.json").toPath();
+        write(filePath, "[ { \"lowerRange\": {\"code\": 94200}, \"upperRange\": {\"code\": 94299} } ]");
+
+        try (ReloadableShippingService shippingService =
+                     ReloadableShippingService.forFile(filePath, new SweepZipCodeRangeConsolidator())) {
+            assertThat(shippingService.canBeShippedToZipCode(94600)).isFalse();
+            write(filePath, "[ { \"lowerRange\": {\"code\": 94600}, \"upperRange\": {\"code\": 94699} } ]");
+
+            shippingService.watch(10, TimeUnit.MILLISECONDS);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!shippingService.canBeShippedToZipCode(94600) && System.currentTimeMillis() < deadline) {
+                sleep(10);
+            }
+            assertThat(shippingService.canBeShippedToZipCode(94600)).as("Should pick up the new rules").isTrue();
+            assertThat(shippingService.getReloadCount()).isEqualTo(2);
+        }
+    }
+
+    private static void write(Path filePath, String json) throws IOException {
+        Files.write(filePath, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mavharsha.ecom.service;
 
 import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.index.IZipCodeIndexFactory;
+import com.mavharsha.ecom.metrics.IShippingMetricsListener;
 import com.mavharsha.ecom.model.ZipCode;
 import com.mavharsha.ecom.model.ZipCodeRange;
 import org.junit.Before;
@@ -16,6 +18,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -159,4 +162,101 @@ public class ShippingServiceTest {
             assertThat(shippingService.canBeShippedToZipCode(expectedDeliveriesToFail.get(index))).as("Can not be shipped").isFalse();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShouldThrowExceptionWhenInvalidZipCodeIsPassedToCanBeShipped() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCode.errorZipCodeFiveDigits);
+        IShippingService shippingService = new ShippingService(zipCodeRangeDAO);
+        shippingService.canBeShippedToZipCode(9999);
+    }
+
+    @Test
+    public void testShouldValidateCanBeShippedToRawZipCode() throws Exception {
+        IShippingService shippingService = new ShippingService(zipCodeRangeDAO);
+        when(zipCodeRangeDAO.getListOfZipCodeRanges()).thenReturn(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94226, 94399)));
+
+        for (int zipCode : new int[]{94133, 94200, 94226, 94399}) {
+            assertThat(shippingService.canBeShippedToZipCode(zipCode)).as("Can be shipped").isTrue();
+            assertThat(shippingService.canBeShippedToZipCode(new ZipCode(zipCode))).as("Can be shipped").isTrue();
+        }
+        for (int zipCode : new int[]{94130, 94199, 94450}) {
+            assertThat(shippingService.canBeShippedToZipCode(zipCode)).as("Can not be shipped").isFalse();
+            assertThat(shippingService.canBeShippedToZipCode(new ZipCode(zipCode))).as("Can not be shipped").isFalse();
+        }
+    }
+
+    @Test
+    public void testShouldFlagInvalidZipCodesInBatch() throws Exception {
+        IShippingService shippingService = new ShippingService(zipCodeRangeDAO);
+        when(zipCodeRangeDAO.getListOfZipCodeRanges()).thenReturn(Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299)));
+        int[] zipCodes = {94133, 9999, 94230, 94300, 100000, 94299};
+
+        BitSet shippable = new BitSet();
+        BitSet invalid = new BitSet();
+        assertThat(shippingService.canBeShippedToZipCodes(zipCodes, shippable, invalid)).isEqualTo(3);
+        assertThat(shippable.stream().toArray()).containsExactly(0, 2, 5);
+        assertThat(invalid.stream().toArray()).containsExactly(1, 4);
+
+        boolean[] shippableFlags = new boolean[zipCodes.length];
+        boolean[] invalidFlags = new boolean[zipCodes.length];
+        assertThat(shippingService.canBeShippedToZipCodes(zipCodes, shippableFlags, invalidFlags, false)).isEqualTo(3);
+        assertThat(shippableFlags).containsExactly(true, false, true, false, false, true);
+        assertThat(invalidFlags).containsExactly(false, true, false, false, true, false);
+    }
+
+    @Test
+    public void testShouldClearStaleBitsWhenBatchResultsAreReused() throws Exception {
+        IShippingService shippingService = new ShippingService(zipCodeRangeDAO);
+        when(zipCodeRangeDAO.getListOfZipCodeRanges()).thenReturn(Arrays.asList(new ZipCodeRange(94200, 94299)));
+        BitSet shippable = new BitSet();
+        BitSet invalid = new BitSet();
+        shippingService.canBeShippedToZipCodes(new int[]{94230, 9999, 94250}, shippable, invalid);
+
+        assertThat(shippingService.canBeShippedToZipCodes(new int[]{94300, 94240, 94100}, shippable, invalid))
+                .isEqualTo(1);
+        assertThat(shippable.stream().toArray()).containsExactly(1);
+        assertThat(invalid.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testShouldMatchSingleLookupsInParallelBatch() throws Exception {
+        IShippingService shippingService = new ShippingService(zipCodeRangeDAO);
+        when(zipCodeRangeDAO.getListOfZipCodeRanges()).thenReturn(Arrays.asList(new ZipCodeRange(10000, 30000),
+                new ZipCodeRange(94200, 94299)));
+        int[] zipCodes = new int[300000];
+        for (int index = 0; index < zipCodes.length; index++) {
+            zipCodes[index] = 9000 + index;
+        }
+        boolean[] shippable = new boolean[zipCodes.length];
+        boolean[] invalid = new boolean[zipCodes.length];
+
+        int shippableCount = shippingService.canBeShippedToZipCodes(zipCodes, shippable, invalid, true);
+        assertThat(shippableCount).isEqualTo(20001 + 100);
+        for (int index = 0; index < zipCodes.length; index++) {
+            boolean isValid = zipCodes[index] >= 10000 && zipCodes[index] <= 99999;
+            assertThat(invalid[index]).isEqualTo(!isValid);
+            assertThat(shippable[index]).isEqualTo(isValid && shippingService.canBeShippedToZipCode(zipCodes[index]));
+        }
+    }
+
+    @Test
+    public void testShouldAnswerSameWithCompiledIndex() throws Exception {
+        List<ZipCodeRange> listOfZipCodeRanges = Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299), new ZipCodeRange(94226, 94399), new ZipCodeRange(10000, 10500));
+        IShippingService shippingService = new ShippingService(() -> listOfZipCodeRanges);
+        IShippingService compiledShippingService = new ShippingService(() -> listOfZipCodeRanges,
+                new SortMergeZipCodeRangeConsolidator(), IShippingMetricsListener.disabled,
+                IZipCodeIndexFactory.compiled);
+
+        for (int zipCode : new int[]{ZipCode.minCode, 10500, 10501, 94132, 94133, 94134, 94199, 94200, 94299, 94300,
+                94399, 94400, ZipCode.maxCode}) {
+            assertThat(compiledShippingService.canBeShippedToZipCode(zipCode)).as("Can be shipped to %d", zipCode)
+                    .isEqualTo(shippingService.canBeShippedToZipCode(zipCode));
+        }
+        assertThat(compiledShippingService.canBeShippedToZipCode(94133)).isTrue();
+    }
+}
@@ -0,0 +1,159 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.dao.ITimedZipCodeRangeDAO;
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.model.TimedZipCodeRange;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class TimedShippingServiceTest {
+
+    private static final Instant christmasEve = Instant.parse("2026-12-24T00:00:00Z");
+    private static final Instant afterChristmas = Instant.parse("2026-12-27T00:00:00Z");
+    private static final Instant stormStart = Instant.parse("2026-12-26T00:00:00Z");
+    private static final Instant stormEnd = Instant.parse("2026-12-30T00:00:00Z");
+
+    private final IZipCodeRangeDAO zipCodeRangeDAO = () -> Arrays.asList(new ZipCodeRange(94100, 94299));
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldThrowExceptionWhenEffectiveFromIsNotBeforeEffectiveTo() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(TimedZipCodeRange.errorEffectiveFromNotBeforeTo);
+        new TimedZipCodeRange(94100, 94199, christmasEve, christmasEve);
+    }
+
+    @Test
+    public void testShouldApplyEmbargoOnlyWhileInEffect() throws Exception {
+        MutableClock clock = new MutableClock(christmasEve.minus(1, ChronoUnit.DAYS));
+        ITimedZipCodeRangeDAO embargoDAO = () -> Arrays.asList(
+                new TimedZipCodeRange(94100, 94149, christmasEve, afterChristmas));
+        try (TimedShippingService shippingService = new TimedShippingService(zipCodeRangeDAO, embargoDAO, clock)) {
+            assertThat(shippingService.canBeShippedToZipCode(94120)).isTrue();
+            assertThat(shippingService.getEffectiveSince()).isNull();
+
+            clock.instant = christmasEve;
+            shippingService.refresh();
+            assertThat(shippingService.canBeShippedToZipCode(94120)).isFalse();
+            assertThat(shippingService.canBeShippedToZipCode(94150)).isTrue();
+            assertThat(shippingService.getEffectiveSince()).isEqualTo(christmasEve);
+            assertThat(shippingService.getConsolidatedShippableZipCodeRanges())
+                    .containsExactly(new ZipCodeRange(94150, 94299));
+            assertThat(shippingService.getConsolidatedShippableZipCodeRanges())
+                    .isSameAs(shippingService.getConsolidatedShippableZipCodeRanges());
+
+            clock.instant = afterChristmas;
+            shippingService.refresh();
+            assertThat(shippingService.canBeShippedToZipCode(94120)).isTrue();
+            assertThat(shippingService.getListZipCodeRanges()).containsExactly(new ZipCodeRange(94100, 94299));
+        }
+    }
+
+    @Test
+    public void testShouldListRangesOfDataSourceSorted() throws Exception {
+        IZipCodeRangeDAO unsortedDAO = () -> Arrays.asList(new ZipCodeRange(94500, 94599),
+                new ZipCodeRange(94100, 94299));
+        try (TimedShippingService shippingService = new TimedShippingService(unsortedDAO, Collections::emptyList)) {
+            assertThat(shippingService.getListZipCodeRanges())
+                    .containsExactly(new ZipCodeRange(94100, 94299), new ZipCodeRange(94500, 94599));
+            assertThat(catchThrowable(() -> shippingService.getListZipCodeRanges().clear()))
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Test
+    public void testShouldPrecomputeOneSnapshotPerDistinctPeriod() throws Exception {
+        ITimedZipCodeRangeDAO embargoDAO = () -> Arrays.asList(
+                new TimedZipCodeRange(94100, 94149, christmasEve, afterChristmas),
+                new TimedZipCodeRange(94140, 94199, stormStart, stormEnd),
+                new TimedZipCodeRange(94500, 94599, null, stormStart),
+                new TimedZipCodeRange(94250, 94250, stormEnd, null));
+        MutableClock clock = new MutableClock(stormStart);
+        try (TimedShippingService shippingService = new TimedShippingService(zipCodeRangeDAO, embargoDAO, clock)) {
+            /* the range out of the shippable ranges never changes a snapshot */
+            assertThat(shippingService.getSnapshotCount()).isEqualTo(5);
+            assertThat(shippingService.getConsolidatedShippableZipCodeRanges())
+                    .containsExactly(new ZipCodeRange(94200, 94299));
+
+            clock.instant = afterChristmas;
+            shippingService.refresh();
+            assertThat(shippingService.getConsolidatedShippableZipCodeRanges())
+                    .containsExactly(new ZipCodeRange(94100, 94139), new ZipCodeRange(94200, 94299));
+
+            clock.instant = stormEnd.plus(365, ChronoUnit.DAYS);
+            shippingService.refresh();
+            assertThat(shippingService.getEffectiveSince()).isEqualTo(stormEnd);
+            BitSet shippable = new BitSet();
+            BitSet invalid = new BitSet();
+            assertThat(shippingService.canBeShippedToZipCodes(new int[]{94250, 94251, 123}, shippable, invalid))
+                    .isEqualTo(1);
+            assertThat(shippable.get(1)).isTrue();
+            assertThat(invalid.get(2)).isTrue();
+        }
+    }
+
+    @Test
+    public void testShouldSwitchSnapshotWhenClockCrossesBound() throws Exception {
+        AtomicReference<Instant> embargoStart = new AtomicReference<>();
+        AtomicInteger loadCount = new AtomicInteger();
+        ITimedZipCodeRangeDAO embargoDAO = () -> {
+            loadCount.incrementAndGet();
+            embargoStart.set(Instant.now().plusMillis(500));
+            return Collections.singletonList(new TimedZipCodeRange(94100, 94149, embargoStart.get(), null));
+        };
+        try (TimedShippingService shippingService = new TimedShippingService(zipCodeRangeDAO, embargoDAO)) {
+            shippingService.reload();
+            assertThat(shippingService.getEffectiveSince()).as("Snapshot before the embargo").isNull();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (shippingService.canBeShippedToZipCode(94120) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(shippingService.canBeShippedToZipCode(94120)).isFalse();
+            assertThat(Instant.now()).isAfterOrEqualTo(embargoStart.get());
+            assertThat(shippingService.getEffectiveSince()).isEqualTo(embargoStart.get());
+            assertThat(loadCount.get()).isEqualTo(1);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
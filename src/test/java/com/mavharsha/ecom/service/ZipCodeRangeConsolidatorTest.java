@@ -0,0 +1,79 @@
+package com.mavharsha.ecom.service;
+
+import com.mavharsha.ecom.index.BitSetZipCodeIndex;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeRangeConsolidatorTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final IZipCodeRangeConsolidator sortMergeConsolidator = new SortMergeZipCodeRangeConsolidator();
+    private final IZipCodeRangeConsolidator sweepConsolidator = new SweepZipCodeRangeConsolidator();
+
+    @Test
+    public void testShouldThrowExceptionWhenNullIsPassed() {
+        thrown.expect(NullPointerException.class);
+        sweepConsolidator.consolidate(null);
+    }
+
+    @Test
+    public void testShouldReturnEmptyListWhenNoRanges() {
+        assertThat(sortMergeConsolidator.consolidate(new ArrayList<>())).isEmpty();
+        assertThat(sweepConsolidator.consolidate(new ArrayList<>())).isEmpty();
+    }
+
+    @Test
+    public void testShouldValidateReadmeExamples() {
+        List<ZipCodeRange> input = Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94600, 94699));
+        assertThat(sortMergeConsolidator.consolidate(input)).isEqualTo(input);
+        assertThat(sweepConsolidator.consolidate(input)).isEqualTo(input);
+
+        input = Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94299),
+                new ZipCodeRange(94226, 94399));
+        List<ZipCodeRange> expected = Arrays.asList(new ZipCodeRange(94133, 94133),
+                new ZipCodeRange(94200, 94399));
+        assertThat(sortMergeConsolidator.consolidate(input)).isEqualTo(expected);
+        assertThat(sweepConsolidator.consolidate(input)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testShouldMergeChainOfOverlappingRanges() {
+        List<ZipCodeRange> input = Arrays.asList(new ZipCodeRange(10007, 10010),
+                new ZipCodeRange(10000, 10005),
+                new ZipCodeRange(10003, 10008));
+        List<ZipCodeRange> expected = Arrays.asList(new ZipCodeRange(10000, 10010));
+        assertThat(sortMergeConsolidator.consolidate(input)).isEqualTo(expected);
+        assertThat(sweepConsolidator.consolidate(input)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testShouldCoverSameZipCodesForRandomRanges() {
+        Random random = new Random(7);
+        List<ZipCodeRange> input = new ArrayList<>();
+        for (int index = 0; index < 2000; index++) {
+            int lower = ZipCode.minCode + random.nextInt(ZipCode.maxCode - ZipCode.minCode + 1);
+            input.add(new ZipCodeRange(lower, Math.min(ZipCode.maxCode, lower + random.nextInt(50))));
+        }
+        List<ZipCodeRange> sortMerged = sortMergeConsolidator.consolidate(input);
+        List<ZipCodeRange> swept = sweepConsolidator.consolidate(input);
+
+        assertThat(swept.size()).as("Sweep also joins adjacent ranges").isLessThanOrEqualTo(sortMerged.size());
+        assertThat(new BitSetZipCodeIndex(swept)).isEqualTo(new BitSetZipCodeIndex(input));
+        assertThat(new BitSetZipCodeIndex(sortMerged)).isEqualTo(new BitSetZipCodeIndex(input));
+    }
+}
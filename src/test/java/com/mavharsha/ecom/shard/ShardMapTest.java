@@ -0,0 +1,68 @@
+package com.mavharsha.ecom.shard;
+
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardMapTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldPartitionEvenlyByPrefix() {
+        ShardMap shardMap = ShardMap.even(3);
+
+        assertThat(shardMap.toString()).isEqualTo("ShardMap[10000-39999, 40000-69999, 70000-99999]");
+        assertThat(shardMap.shardOf(ZipCode.minCode)).isEqualTo(0);
+        assertThat(shardMap.shardOf(39999)).isEqualTo(0);
+        assertThat(shardMap.shardOf(40000)).isEqualTo(1);
+        assertThat(shardMap.shardOf(ZipCode.maxCode)).isEqualTo(2);
+        assertThat(ShardMap.even(ShardMap.maxShardCount).getUpperCode(0)).isEqualTo(10099);
+    }
+
+    @Test
+    public void testShouldSplitRangesCrossingShardBoundaries() {
+        ZipCodeRangeSet zipCodeRangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange(10000, 10010),
+                new ZipCodeRange(39990, 70005), new ZipCodeRange(94133, 94133)));
+
+        ZipCodeRangeSet[] shardRanges = ShardMap.even(3).split(zipCodeRangeSet);
+
+        assertThat(shardRanges[0].toZipCodeRanges()).containsExactly(new ZipCodeRange(10000, 10010),
+                new ZipCodeRange(39990, 39999));
+        assertThat(shardRanges[1].toZipCodeRanges()).containsExactly(new ZipCodeRange(40000, 69999));
+        assertThat(shardRanges[2].toZipCodeRanges()).containsExactly(new ZipCodeRange(70000, 70005),
+                new ZipCodeRange(94133, 94133));
+    }
+
+    @Test
+    public void testShouldOnlySplitWidestShardWhenAddingOne() {
+        ShardMap shardMap = new ShardMap(new int[]{100, 200, 600});
+
+        ShardMap rebalanced = shardMap.withShardAdded();
+
+        assertThat(rebalanced).isEqualTo(new ShardMap(new int[]{100, 200, 400, 600}));
+        assertThat(rebalanced.withShardAdded()).isEqualTo(new ShardMap(new int[]{100, 200, 400, 600, 800}));
+    }
+
+    @Test
+    public void testShouldThrowExceptionForGaps() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ShardMap.errorLowerPrefixes);
+        new ShardMap(new int[]{101, 500});
+    }
+
+    @Test
+    public void testShouldThrowExceptionForTooManyShards() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ShardMap.errorShardCount);
+        ShardMap.even(ShardMap.maxShardCount).withShardAdded();
+    }
+}
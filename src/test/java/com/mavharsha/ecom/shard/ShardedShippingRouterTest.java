@@ -0,0 +1,134 @@
+package com.mavharsha.ecom.shard;
+
+import com.mavharsha.ecom.dao.IZipCodeRangeDAO;
+import com.mavharsha.ecom.http.ShippingHttpServer;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ShardedShippingRouterTest {
+
+    @BeforeClass
+    public static void setUpClass() {
+        ShippingHttpServer.enableNoDelay();
+    }
+
+    @Test
+    public void testShouldMatchSingleServiceWithInProcessShards() throws Exception {
+        IZipCodeRangeDAO zipCodeRangeDAO = randomDAO();
+        try (ShardedShippingRouter router = new ShardedShippingRouter(zipCodeRangeDAO, IShardFactory.inProcess, 7)) {
+            assertSameAnswers(router, new ShippingService(zipCodeRangeDAO));
+        }
+    }
+
+    @Test
+    public void testShouldMatchSingleServiceWithLocalHttpShards() throws Exception {
+        IZipCodeRangeDAO zipCodeRangeDAO = randomDAO();
+        try (ShardedShippingRouter router = new ShardedShippingRouter(zipCodeRangeDAO, new HttpShardFactory(), 3)) {
+            assertThat(router.getShard(0)).isInstanceOf(Closeable.class);
+            assertSameAnswers(router, new ShippingService(zipCodeRangeDAO));
+        }
+    }
+
+    @Test
+    public void testShouldOnlyBringUpMovedShardsWhenAddingOne() throws Exception {
+        IZipCodeRangeDAO zipCodeRangeDAO = randomDAO();
+        AtomicInteger createdCount = new AtomicInteger();
+        IShardFactory countingFactory = (zipCodeRangeSet, lowerCode, upperCode) -> {
+            createdCount.incrementAndGet();
+            return IShardFactory.inProcess.create(zipCodeRangeSet, lowerCode, upperCode);
+        };
+        try (ShardedShippingRouter router = new ShardedShippingRouter(zipCodeRangeDAO, countingFactory, 3)) {
+            IShippingService lastShard = router.getShard(2);
+
+            router.addShard();
+
+            assertThat(router.getShardMap()).isEqualTo(ShardMap.even(3).withShardAdded());
+            assertThat(createdCount.get()).isEqualTo(3 + 2);
+            assertThat(router.getShard(3)).isSameAs(lastShard);
+            assertSameAnswers(router, new ShippingService(zipCodeRangeDAO));
+        }
+    }
+
+    @Test
+    public void testShouldKeepRulesOfUnchangedShardsWhenAddingOne() throws Exception {
+        List<ZipCodeRange> zipCodeRanges = new ArrayList<>();
+        try (ShardedShippingRouter router = new ShardedShippingRouter(() -> zipCodeRanges, IShardFactory.inProcess,
+                3)) {
+            List<IShippingService> previousShards = new ArrayList<>();
+            for (int shard = 0; shard < 3; shard++) {
+                previousShards.add(router.getShard(shard));
+            }
+            zipCodeRanges.add(new ZipCodeRange(ZipCode.minCode, ZipCode.maxCode));
+
+            router.addShard();
+
+            ShardMap shardMap = router.getShardMap();
+            int keptCount = 0;
+            for (int shard = 0; shard < shardMap.getShardCount(); shard++) {
+                boolean kept = previousShards.contains(router.getShard(shard));
+                keptCount += kept ? 1 : 0;
+                assertThat(router.canBeShippedToZipCode(shardMap.getLowerCode(shard))).isEqualTo(!kept);
+            }
+            assertThat(keptCount).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testShouldRefuseLookupsOnceClosed() throws Exception {
+        ShardedShippingRouter router = new ShardedShippingRouter(randomDAO(), IShardFactory.inProcess, 3);
+        router.close();
+
+        assertThat(catchThrowable(() -> router.canBeShippedToZipCode(ZipCode.minCode)))
+                .isInstanceOf(IllegalStateException.class).hasMessage(ShardedShippingRouter.errorClosed);
+        assertThat(catchThrowable(router::addShard)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void assertSameAnswers(IShippingService router, IShippingService shippingService)
+            throws Exception {
+        assertThat(router.getConsolidatedShippableZipCodeRanges())
+                .isEqualTo(shippingService.getConsolidatedShippableZipCodeRanges());
+
+        Random random = new Random(5);
+        int[] zipCodes = new int[20_000];
+        for (int position = 0; position < zipCodes.length; position++) {
+            zipCodes[position] = position % 1000 == 0 ? 123 : ZipCode.minCode + random.nextInt(90_000);
+        }
+        boolean[] shippable = new boolean[zipCodes.length];
+        boolean[] invalid = new boolean[zipCodes.length];
+        boolean[] expectedShippable = new boolean[zipCodes.length];
+        boolean[] expectedInvalid = new boolean[zipCodes.length];
+        int shippableCount = router.canBeShippedToZipCodes(zipCodes, shippable, invalid, false);
+
+        assertThat(shippableCount).isEqualTo(shippingService.canBeShippedToZipCodes(zipCodes, expectedShippable,
+                expectedInvalid, false));
+        assertThat(shippable).isEqualTo(expectedShippable);
+        assertThat(invalid).isEqualTo(expectedInvalid);
+        for (int position = 1; position < 200; position++) {
+            assertThat(router.canBeShippedToZipCode(zipCodes[position]))
+                    .isEqualTo(shippingService.canBeShippedToZipCode(zipCodes[position]));
+        }
+    }
+
+    private static IZipCodeRangeDAO randomDAO() {
+        Random random = new Random(17);
+        List<ZipCodeRange> zipCodeRanges = new ArrayList<>();
+        for (int range = 0; range < 500; range++) {
+            int lowerRange = ZipCode.minCode + random.nextInt(89000);
+            zipCodeRanges.add(new ZipCodeRange(lowerRange, lowerRange + random.nextInt(1000)));
+        }
+        return () -> zipCodeRanges;
+    }
+}
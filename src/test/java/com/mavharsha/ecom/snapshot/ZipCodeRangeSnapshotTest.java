@@ -0,0 +1,90 @@
+package com.mavharsha.ecom.snapshot;
+
+import com.mavharsha.ecom.dao.SnapshotZipCodeRangeDAO;
+import com.mavharsha.ecom.index.ZipCodeRangeSet;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipCodeRangeSnapshotTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<ZipCodeRange> listOfZipCodeRanges = Arrays.asList(new ZipCodeRange(94133, 94133),
+            new ZipCodeRange(94200, 94299),
+            new ZipCodeRange(94600, 94699));
+    private Path filePath;
+
+    @Before
+    public void setUp() throws IOException {
+        filePath = temporaryFolder.getRoot().toPath().resolve("ranges.snapshot");
+        ZipCodeRangeSnapshot.write(ZipCodeRangeSet.of(listOfZipCodeRanges), filePath);
+    }
+
+    @Test
+    public void testShouldRoundTripSnapshot() throws IOException {
+        MappedZipCodeRangeSnapshot snapshot = ZipCodeRangeSnapshot.open(filePath);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.toZipCodeRanges()).isEqualTo(listOfZipCodeRanges);
+        assertThat(snapshot.toZipCodeRangeSet()).isEqualTo(ZipCodeRangeSet.of(listOfZipCodeRanges));
+        for (int zipCode : new int[]{94133, 94650, 94230, 94600, 94299}) {
+            assertThat(snapshot.contains(zipCode)).as("" + zipCode).isTrue();
+        }
+        for (int zipCode : new int[]{94199, 94300, 65532, 0}) {
+            assertThat(snapshot.contains(zipCode)).as("" + zipCode).isFalse();
+        }
+    }
+
+    @Test
+    public void testShouldRoundTripEmptySnapshot() throws IOException {
+        ZipCodeRangeSnapshot.write(ZipCodeRangeSet.empty(), filePath);
+        MappedZipCodeRangeSnapshot snapshot = ZipCodeRangeSnapshot.open(filePath);
+        assertThat(snapshot.size()).isEqualTo(0);
+        assertThat(snapshot.contains(94133)).isFalse();
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenPayloadIsCorrupted() throws IOException {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeRangeSnapshot.errorCorruptedSnapshot);
+        try (RandomAccessFile file = new RandomAccessFile(filePath.toFile(), "rw")) {
+            file.seek(ZipCodeRangeSnapshot.headerSize + 4);
+            file.writeInt(94150);
+        }
+        ZipCodeRangeSnapshot.open(filePath);
+    }
+
+    @Test
+    public void testShouldThrowExceptionWhenFileIsNotASnapshot() throws IOException {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(ZipCodeRangeSnapshot.errorNotASnapshot);
+        try (RandomAccessFile file = new RandomAccessFile(filePath.toFile(), "rw")) {
+            file.writeInt(0);
+        }
+        ZipCodeRangeSnapshot.open(filePath);
+    }
+
+    @Test
+    public void testShouldReadZipCodeRangesThroughDAO() throws IOException {
+        SnapshotZipCodeRangeDAO zipCodeRangeDAO = new SnapshotZipCodeRangeDAO(filePath);
+        assertThat(zipCodeRangeDAO.getListOfZipCodeRanges()).isEqualTo(listOfZipCodeRanges);
+        assertThat(zipCodeRangeDAO.getSnapshot()).isSameAs(zipCodeRangeDAO.getSnapshot());
+        assertThat(zipCodeRangeDAO.getSnapshot().contains(94230)).isTrue();
+    }
+}
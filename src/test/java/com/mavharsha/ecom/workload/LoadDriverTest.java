@@ -0,0 +1,63 @@
+package com.mavharsha.ecom.workload;
+
+import com.mavharsha.ecom.http.LoadTestReport;
+import com.mavharsha.ecom.service.IShippingService;
+import com.mavharsha.ecom.service.ShippingService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadDriverTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final SyntheticWorkload workload = new SyntheticWorkload(1, 10, 1_000, 0.8);
+    private final IShippingService shippingService = new ShippingService(workload::generateRanges);
+
+    @Test
+    public void testShouldReportEveryClosedLoopLookup() throws Exception {
+        LoadTestReport report = new LoadDriver(shippingService, workload, 1).runClosedLoop(2, 50_000);
+
+        assertThat(report.getRequestCount()).isEqualTo(100_000);
+        assertThat(report.getErrorCount()).isZero();
+        assertThat(report.getThroughput()).isPositive();
+        assertThat(report.getLatencyNanos(99.9)).isGreaterThanOrEqualTo(report.getLatencyNanos(50));
+        assertThat(report.toString()).startsWith("100000 requests, 0 errors");
+        if (LoadDriver.currentThreadAllocatedBytes() >= 0) {
+            assertThat(report.getAllocatedBytesPerRequest()).isNotNaN();
+        }
+    }
+
+    @Test
+    public void testShouldPaceOpenLoopLookups() throws Exception {
+        LoadTestReport report = new LoadDriver(shippingService, workload, 1).runOpenLoop(1, 20_000, 200,
+                TimeUnit.MILLISECONDS);
+
+        assertThat(report.getRequestCount()).isEqualTo(4_000);
+        assertThat(report.getElapsedNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(199));
+    }
+
+    @Test
+    public void testShouldCountFailedLookupsAsErrors() throws Exception {
+        IShippingService failingService = new ShippingService(() -> {
+            throw new IOException("unavailable");
+        });
+
+        LoadTestReport report = new LoadDriver(failingService, workload, 1).runClosedLoop(1, 100);
+
+        assertThat(report.getErrorCount()).isEqualTo(100);
+    }
+
+    @Test
+    public void testShouldThrowExceptionForNonPositiveRate() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(LoadDriver.errorRate);
+        new LoadDriver(shippingService, workload, 1).runOpenLoop(1, 0, 1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mavharsha.ecom.workload;
+
+import com.mavharsha.ecom.dao.FileZipCodeRangeDAO;
+import com.mavharsha.ecom.model.ZipCode;
+import com.mavharsha.ecom.model.ZipCodeRange;
+import com.mavharsha.ecom.service.ShippingService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SyntheticWorkloadTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testShouldGenerateFewWideAndManySingleCodeRanges() {
+        List<ZipCodeRange> zipCodeRanges = new SyntheticWorkload(1, 10, 5_000, 0.8).generateRanges();
+
+        assertThat(zipCodeRanges).hasSize(5_010);
+        assertThat(zipCodeRanges.stream().filter(zipCodeRange -> width(zipCodeRange) >= 1_000).count())
+                .isEqualTo(10);
+        assertThat(zipCodeRanges.stream().filter(zipCodeRange -> width(zipCodeRange) == 1).count())
+                .isEqualTo(5_000);
+        assertThat(zipCodeRanges).allMatch(zipCodeRange -> ZipCode.isValidCode(zipCodeRange.getLowerRange()
+                .getCode()) && ZipCode.isValidCode(zipCodeRange.getUpperRange().getCode()));
+        assertThat(new SyntheticWorkload(1, 10, 5_000, 0.8).generateRanges()).isEqualTo(zipCodeRanges);
+    }
+
+    @Test
+    public void testShouldKeepSingleCodeRangesApartWhenConsolidated() throws Exception {
+        SyntheticWorkload workload = new SyntheticWorkload(1, 0, SyntheticWorkload.defaultSingleCodeCount,
+                SyntheticWorkload.defaultMetroShare);
+
+        assertThat(new ShippingService(workload::generateRanges).getConsolidatedShippableZipCodeRanges())
+                .hasSize(SyntheticWorkload.defaultSingleCodeCount);
+    }
+
+    @Test
+    public void testShouldWriteDatasetReadableByFileDAO() throws Exception {
+        SyntheticWorkload workload = new SyntheticWorkload(2, 5, 100, 0.5);
+        Path datasetPath = temporaryFolder.getRoot().toPath().resolve("ranges.json");
+
+        workload.write(datasetPath);
+
+        assertThat(new FileZipCodeRangeDAO(datasetPath).getListOfZipCodeRanges())
+                .isEqualTo(workload.generateRanges());
+    }
+
+    @Test
+    public void testShouldSkewLookupsTowardMetros() {
+        int[] zipCodes = new SyntheticWorkload(3).nextLookupZipCodes(new Random(3), 100_000);
+
+        /* New York, the busiest metro, against a prefix outside any metro */
+        long newYorkCount = count(zipCodes, 100);
+        long otherCount = count(zipCodes, 500);
+        assertThat(newYorkCount).isGreaterThan(20 * otherCount);
+        assertThat(Arrays.stream(zipCodes).allMatch(ZipCode::isValidCode)).isTrue();
+    }
+
+    @Test
+    public void testShouldThrowExceptionForTooManySingleCodeRanges() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(SyntheticWorkload.errorSingleCodeCount);
+        new SyntheticWorkload(1, 1, SyntheticWorkload.maxSingleCodeCount + 1, 0.8);
+    }
+
+    @Test
+    public void testShouldThrowExceptionForInvalidMetroShare() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(SyntheticWorkload.errorMetroShare);
+        new SyntheticWorkload(1, 1, 1, 1.5);
+    }
+
+    private static int width(ZipCodeRange zipCodeRange) {
+        return zipCodeRange.getUpperRange().getCode() - zipCodeRange.getLowerRange().getCode() + 1;
+    }
+
+    private static long count(int[] zipCodes, int prefix) {
+        long count = 0;
+        for (int zipCode : zipCodes) {
+            count += ZipCode.prefixOf(zipCode) == prefix ? 1 : 0;
+        }
+        return count;
+    }
+}